@@ -0,0 +1,228 @@
+package eu.virtualparadox.comictoolset;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Content-addressed on-disk store of the ONNX models bundled as classpath resources.
+ * <p>
+ * Every model is extracted once into the store folder, under the SHA-256 of its content, so all runs (and
+ * all sessions of a run) load the same file instead of a fresh temporary copy. A small index entry per
+ * resource records the size and modification time of the resource the file was extracted from; as long as
+ * they match, the model is used without reading the resource again. The extracted file itself is checked
+ * against its SHA-256 the first time a process resolves it, and extracted again if it was damaged.
+ * A changed resource (e.g. a new JAR) is hashed and stored under its new name. Within a process, resolved
+ * (and thus verified) paths are memoized.
+ * </p>
+ */
+public final class ModelStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(ModelStore.class);
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final String INDEX_FOLDER = "index";
+    private static final String INDEX_EXTENSION = ".json";
+    private static final String TEMP_SUFFIX = ".part";
+
+    private static final ModelStore DEFAULT = new ModelStore(
+            Path.of(System.getProperty("user.home"), ".comictoolset", "models"), ModelStore.class.getClassLoader());
+
+    private final Path folder;
+    private final ClassLoader classLoader;
+    private final Map<String, Path> resolved = new ConcurrentHashMap<>();
+
+    /**
+     * Where and from what an extracted model came.
+     */
+    @Data
+    @NoArgsConstructor
+    public static class IndexEntry {
+
+        /** The classpath resource of the model */
+        private String resourcePath;
+
+        /** The size of the resource in bytes */
+        private long size;
+
+        /** The modification time of the resource in epoch milliseconds, 0 if unknown */
+        private long lastModified;
+
+        /** The lowercase hex SHA-256 of the model, which is also the name of the extracted file */
+        private String sha256;
+    }
+
+    /**
+     * Constructs a store.
+     *
+     * @param folder      the folder the models are extracted to
+     * @param classLoader the class loader the model resources are read from
+     */
+    public ModelStore(final Path folder, final ClassLoader classLoader) {
+        this.folder = folder;
+        this.classLoader = classLoader;
+    }
+
+    /**
+     * Returns the process-wide store in {@code ~/.comictoolset/models}.
+     *
+     * @return the default store
+     */
+    public static ModelStore getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Returns the path of the extracted model, extracting it only if the store does not hold it yet.
+     *
+     * @param resourcePath the model resource path (e.g., "models/recognizer/model.onnx")
+     * @return the absolute path of the extracted model
+     * @throws IllegalArgumentException if the resource does not exist
+     * @throws IllegalStateException    if the model cannot be extracted
+     */
+    public Path resolve(final String resourcePath) {
+        return resolved.computeIfAbsent(resourcePath, this::load);
+    }
+
+    private Path load(final String resourcePath) {
+        final URL resource = classLoader.getResource(resourcePath);
+        if (resource == null) {
+            throw new IllegalArgumentException("Model resource not found: " + resourcePath);
+        }
+
+        try {
+            final URLConnection connection = resource.openConnection();
+            connection.setUseCaches(false);
+            // connecting opens the resource, and for jar: URLs its whole JAR, which only closing the stream releases
+            final InputStream resourceStream = connection.getInputStream();
+            final long size;
+            final long lastModified;
+            try {
+                size = connection.getContentLengthLong();
+                lastModified = connection.getLastModified();
+            } finally {
+                resourceStream.close();
+            }
+
+            final Path indexPath = folder.resolve(INDEX_FOLDER).resolve(sha256(resourcePath.getBytes(StandardCharsets.UTF_8)) + INDEX_EXTENSION);
+            final IndexEntry entry = readIndex(indexPath);
+            if (entry != null && resourcePath.equals(entry.getResourcePath())
+                    && entry.getSize() == size && entry.getLastModified() == lastModified) {
+                final Path model = modelPath(entry.getSha256());
+                if (Files.isRegularFile(model) && Files.size(model) == size && isIntact(model, entry.getSha256())) {
+                    return model;
+                }
+                logger.warn("Stored model '{}' is missing or damaged, extracting it again", resourcePath);
+            }
+
+            final IndexEntry extracted = extract(resource, resourcePath);
+            extracted.setLastModified(lastModified);
+            writeIndex(indexPath, extracted);
+            return modelPath(extracted.getSha256());
+        } catch (final IOException e) {
+            throw new IllegalStateException("Failed to extract ONNX model: " + resourcePath, e);
+        }
+    }
+
+    /**
+     * Copies the resource into a temporary file while hashing it, then moves it to its content address.
+     * If an intact file of the same content is stored already (e.g. by another process), it is kept.
+     */
+    private IndexEntry extract(final URL resource, final String resourcePath) throws IOException {
+        Files.createDirectories(folder);
+        final Path tempPath = Files.createTempFile(folder, "model-", TEMP_SUFFIX);
+        try {
+            final MessageDigest digest = createDigest();
+            final long size;
+            try (InputStream in = new DigestInputStream(resource.openStream(), digest);
+                 OutputStream out = Files.newOutputStream(tempPath)) {
+                size = in.transferTo(out);
+            }
+
+            final String sha256 = HexFormat.of().formatHex(digest.digest());
+            final Path model = modelPath(sha256);
+            if (Files.isRegularFile(model) && Files.size(model) == size && isIntact(model, sha256)) {
+                logger.debug("Model '{}' already stored as {}", resourcePath, model.getFileName());
+            } else {
+                Files.move(tempPath, model, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                logger.info("Model '{}' extracted to {}", resourcePath, model);
+            }
+
+            final IndexEntry entry = new IndexEntry();
+            entry.setResourcePath(resourcePath);
+            entry.setSize(size);
+            entry.setSha256(sha256);
+            return entry;
+        } finally {
+            Files.deleteIfExists(tempPath);
+        }
+    }
+
+    private static boolean isIntact(final Path model, final String sha256) throws IOException {
+        final MessageDigest digest = createDigest();
+        try (InputStream in = new DigestInputStream(Files.newInputStream(model), digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        return sha256.equals(HexFormat.of().formatHex(digest.digest()));
+    }
+
+    private Path modelPath(final String sha256) {
+        return folder.resolve(sha256 + ".onnx").toAbsolutePath();
+    }
+
+    private IndexEntry readIndex(final Path indexPath) {
+        if (!Files.isRegularFile(indexPath)) {
+            return null;
+        }
+
+        try {
+            return MAPPER.readValue(indexPath.toFile(), IndexEntry.class);
+        } catch (final IOException e) {
+            logger.warn("Ignoring unreadable model index '{}': {}", indexPath, e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeIndex(final Path indexPath, final IndexEntry entry) {
+        try {
+            Files.createDirectories(indexPath.getParent());
+            final Path tempPath = indexPath.resolveSibling(indexPath.getFileName() + TEMP_SUFFIX);
+            MAPPER.writeValue(tempPath.toFile(), entry);
+            Files.move(tempPath, indexPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (final IOException e) {
+            // the model itself is stored, only the next start has to hash it again
+            logger.warn("Failed to write model index '{}': {}", indexPath, e.getMessage());
+        }
+    }
+
+    private static String sha256(final byte[] data) {
+        return HexFormat.of().formatHex(createDigest().digest(data));
+    }
+
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
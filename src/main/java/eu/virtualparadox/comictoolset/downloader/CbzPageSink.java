@@ -0,0 +1,317 @@
+package eu.virtualparadox.comictoolset.downloader;
+
+import eu.virtualparadox.comictoolset.downloader.pagecollector.Page;
+import eu.virtualparadox.comictoolset.downloader.pagecollector.PageSink;
+import eu.virtualparadox.comictoolset.packer.CbzWriter;
+import eu.virtualparadox.comictoolset.packer.ComicInfo;
+import eu.virtualparadox.comictoolset.packer.CompressionMode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipInputStream;
+
+/**
+ * {@link PageSink} writing the pages of an issue straight into its .cbz archive, without loose page files.
+ * <p>
+ * The archive is written to {@code <name>.cbz.part} in page order: pages that arrive early wait in a small
+ * reorder buffer until every page before them has been written. A page may only be downloaded once it lies
+ * within a window of {@link #DEFAULT_WINDOW} pages from the next page to write; download threads block in
+ * {@link #reserve(int)} until then, so no more than that many downloaded pages are ever held in memory.
+ * Once the last page is written, the {@link ComicInfo} page index is appended, and the archive is closed
+ * and renamed to its final name atomically.
+ * </p>
+ * <p>
+ * The page URLs of the issue are recorded next to the archive in {@code <name>.cbz.part.urls}. If a previous
+ * run was interrupted, the entries of the left-over {@code .part} file are read sequentially up to the first
+ * truncated or corrupt one, or the first page whose URL has changed since; that valid prefix is carried over
+ * and only the remaining pages are downloaded again.
+ * </p>
+ */
+public class CbzPageSink implements PageSink {
+
+    private static final Logger logger = LoggerFactory.getLogger(CbzPageSink.class);
+
+    /** Suffix of the archive while it is being written */
+    private static final String TEMP_SUFFIX = ".part";
+
+    /** Suffix of the file listing the page URLs of the archive being written */
+    private static final String URLS_SUFFIX = ".urls";
+
+    /** Default number of pages that may be downloading or buffered ahead of the next page to write */
+    static final int DEFAULT_WINDOW = 32;
+
+    private final Path archive;
+    private final Path tempArchive;
+    private final Path urlsFile;
+    private final CompressionMode compressionMode;
+    private final int window;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition windowMoved = lock.newCondition();
+    private final TreeMap<Integer, Page> reorderBuffer = new TreeMap<>();
+    private final List<ComicInfo.PageInfo> pageInfos = new ArrayList<>();
+
+    private CbzWriter writer;
+    private int expectedPages;
+    private int nextPage;
+    private IOException writeFailure;
+
+    /**
+     * Constructs a sink for the given archive.
+     *
+     * @param archive         the final .cbz file
+     * @param compressionMode how the pages are stored
+     */
+    public CbzPageSink(final Path archive, final CompressionMode compressionMode) {
+        this(archive, compressionMode, DEFAULT_WINDOW);
+    }
+
+    /**
+     * Constructs a sink for the given archive with a custom download window.
+     *
+     * @param archive         the final .cbz file
+     * @param compressionMode how the pages are stored
+     * @param window          number of pages that may be downloading or buffered ahead of the next page to write
+     */
+    CbzPageSink(final Path archive, final CompressionMode compressionMode, final int window) {
+        this.archive = archive;
+        this.tempArchive = archive.resolveSibling(archive.getFileName() + TEMP_SUFFIX);
+        this.urlsFile = tempArchive.resolveSibling(tempArchive.getFileName() + URLS_SUFFIX);
+        this.compressionMode = compressionMode;
+        this.window = window;
+    }
+
+    /**
+     * Opens the temporary archive, carrying over the valid entries of an interrupted previous run.
+     *
+     * @param urls the page image URLs in page order
+     * @throws IOException if the temporary archive cannot be created or the previous one cannot be read
+     */
+    @Override
+    public void begin(final List<String> urls) throws IOException {
+        lock.lock();
+        try {
+            doBegin(urls);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void doBegin(final List<String> urls) throws IOException {
+        expectedPages = urls.size();
+        nextPage = 0;
+        pageInfos.clear();
+
+        final Path previous = tempArchive.resolveSibling(tempArchive.getFileName() + ".old");
+        final boolean resume = Files.exists(tempArchive);
+        if (resume) {
+            Files.move(tempArchive, previous, StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        writer = new CbzWriter(Files.newOutputStream(tempArchive), compressionMode);
+        if (resume) {
+            boolean copied = false;
+            try {
+                nextPage = copyValidPrefix(previous, countUnchangedUrls(urls));
+                copied = true;
+            } finally {
+                Files.deleteIfExists(previous);
+                if (!copied) {
+                    writer.close();
+                    writer = null;
+                }
+            }
+            logger.info("Resuming '{}' after {} of {} pages", archive.getFileName(), nextPage, expectedPages);
+        }
+
+        // the pages carried over have the same URLs in both lists, so the file is valid even before it is replaced
+        final Path tempUrlsFile = urlsFile.resolveSibling(urlsFile.getFileName() + TEMP_SUFFIX);
+        Files.write(tempUrlsFile, urls);
+        Files.move(tempUrlsFile, urlsFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Counts the leading pages whose URL is the same as in the run that wrote the interrupted archive.
+     */
+    private int countUnchangedUrls(final List<String> urls) throws IOException {
+        final List<String> previousUrls = Files.isRegularFile(urlsFile) ? Files.readAllLines(urlsFile) : List.of();
+        int unchanged = 0;
+        while (unchanged < urls.size() && unchanged < previousUrls.size() && urls.get(unchanged).equals(previousUrls.get(unchanged))) {
+            unchanged++;
+        }
+        if (unchanged < previousUrls.size() && unchanged < urls.size()) {
+            logger.warn("Page {} of '{}' has a new URL, downloading it and the following pages again", unchanged, archive.getFileName());
+        }
+        return unchanged;
+    }
+
+    @Override
+    public boolean needs(final int number, final String url) {
+        lock.lock();
+        try {
+            return number >= nextPage;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Blocks until the page lies within the download window, i.e. until fewer than {@code window}
+     * pages before it are still missing from the archive.
+     *
+     * @param number the page number
+     * @throws IOException if the wait is interrupted or writing the archive has failed
+     */
+    @Override
+    public void reserve(final int number) throws IOException {
+        lock.lock();
+        try {
+            while (number >= nextPage + window && writeFailure == null) {
+                windowMoved.await();
+            }
+            if (writeFailure != null) {
+                throw writeFailure;
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting to download page " + number, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes the page if it is the next one, otherwise buffers it until its predecessors are written.
+     *
+     * @param page the downloaded page
+     * @throws IOException if writing the archive fails
+     */
+    @Override
+    public void accept(final Page page) throws IOException {
+        lock.lock();
+        try {
+            if (writeFailure != null) {
+                throw writeFailure;
+            }
+
+            reorderBuffer.put(page.getNumber(), page);
+            while (!reorderBuffer.isEmpty() && reorderBuffer.firstKey() == nextPage) {
+                final Page next = reorderBuffer.pollFirstEntry().getValue();
+                writer.writeEntry(next.getPaddedName(), next.getData(), FileTime.fromMillis(System.currentTimeMillis()));
+                pageInfos.add(ComicInfo.describe(next.getData()));
+                nextPage++;
+            }
+        } catch (final IOException e) {
+            writeFailure = e;
+            throw e;
+        } finally {
+            windowMoved.signalAll();
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Closes the temporary archive and, if every page has been written, moves it to its final name.
+     * An incomplete archive is left as {@code .part} file to be resumed by the next run.
+     *
+     * @return {@code true} if the archive is complete
+     * @throws IOException if the archive cannot be closed or moved
+     */
+    public boolean finish() throws IOException {
+        lock.lock();
+        try {
+            return doFinish();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean doFinish() throws IOException {
+        if (writer == null) {
+            return false;
+        }
+
+        reorderBuffer.clear();
+        final boolean complete = writeFailure == null && expectedPages > 0 && nextPage == expectedPages;
+        try {
+            if (complete) {
+                writer.writeEntry(ComicInfo.FILE_NAME, ComicInfo.toXml(pageInfos), FileTime.fromMillis(System.currentTimeMillis()));
+            }
+        } finally {
+            writer.close();
+            writer = null;
+        }
+
+        if (!complete) {
+            return false;
+        }
+        Files.move(tempArchive, archive, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        Files.deleteIfExists(urlsFile);
+        return true;
+    }
+
+    /**
+     * Returns the number of pages written so far.
+     *
+     * @return the number of consecutive pages in the archive
+     */
+    public int getWrittenPages() {
+        lock.lock();
+        try {
+            return nextPage;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Copies the entries of an interrupted archive, as long as they are intact, numbered consecutively
+     * and within the given number of pages whose URL has not changed.
+     *
+     * @return the number of pages carried over
+     */
+    private int copyValidPrefix(final Path previous, final int unchangedPages) throws IOException {
+        int copied = 0;
+        try (ZipInputStream zipInputStream = new ZipInputStream(Files.newInputStream(previous))) {
+            ZipEntry entry;
+            while (copied < Math.min(expectedPages, unchangedPages) && (entry = zipInputStream.getNextEntry()) != null) {
+                if (!entry.getName().startsWith(Page.getPaddedNumber(copied) + ".")) {
+                    break;
+                }
+                // reading the entry to its end verifies its size and CRC
+                final byte[] data = readEntry(zipInputStream);
+                if (data == null) {
+                    break;
+                }
+                writer.writeEntry(entry.getName(), data,
+                        entry.getLastModifiedTime() != null ? entry.getLastModifiedTime() : FileTime.fromMillis(System.currentTimeMillis()));
+                pageInfos.add(ComicInfo.describe(data));
+                copied++;
+            }
+        } catch (final ZipException | EOFException e) {
+            logger.debug("Interrupted archive '{}' ends after {} valid pages: {}", previous.getFileName(), copied, e.getMessage());
+        }
+        return copied;
+    }
+
+    private static byte[] readEntry(final InputStream zipInputStream) {
+        try {
+            return zipInputStream.readAllBytes();
+        } catch (final IOException e) {
+            return null;
+        }
+    }
+}
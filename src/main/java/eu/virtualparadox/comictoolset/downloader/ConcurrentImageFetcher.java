@@ -0,0 +1,146 @@
+package eu.virtualparadox.comictoolset.downloader;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Fetches many images concurrently, one virtual thread per image.
+ * <p>
+ * The actual number of parallel requests and their rate are bounded per host by a {@link HostThrottle}.
+ * Results are always reported with the index of the URL in the input list, so callers can keep
+ * the original page order no matter in which order the downloads finish.
+ * </p>
+ */
+public class ConcurrentImageFetcher {
+
+    private final ImageDownloader imageDownloader;
+    private final HostThrottle hostThrottle;
+
+    /**
+     * Constructs a fetcher.
+     *
+     * @param imageDownloader the downloader performing the individual requests
+     * @param hostThrottle    the per-host concurrency and rate limits
+     */
+    public ConcurrentImageFetcher(final ImageDownloader imageDownloader, final HostThrottle hostThrottle) {
+        this.imageDownloader = imageDownloader;
+        this.hostThrottle = hostThrottle;
+    }
+
+    /**
+     * Downloads all URLs and returns their content in the order of the input list.
+     *
+     * @param urls the image URLs
+     * @return the image bytes, {@code result.get(i)} belonging to {@code urls.get(i)}
+     * @throws IOException if any of the downloads fails
+     */
+    public List<byte[]> fetchAll(final List<String> urls) throws IOException {
+        final byte[][] results = new byte[urls.size()][];
+        fetchAll(urls, (index, url, data) -> results[index] = data);
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Downloads all URLs and hands every image to the consumer as soon as it arrives.
+     * <p>
+     * The consumer is called from the download threads, possibly concurrently and out of order.
+     * If any download fails, the remaining downloads are cancelled and the failure is rethrown.
+     * </p>
+     *
+     * @param urls     the image URLs
+     * @param consumer receives each downloaded image with the index of its URL
+     * @throws IOException if any of the downloads or the consumer fails
+     */
+    public void fetchAll(final List<String> urls, final ImageConsumer consumer) throws IOException {
+        fetchAll(urls, (index, url) -> {
+        }, consumer);
+    }
+
+    /**
+     * Downloads all URLs and hands every image to the consumer as soon as it arrives,
+     * letting the gate hold back each download before its request is sent.
+     * <p>
+     * The gate is called from the download thread of the image, before the host throttle is entered,
+     * so a blocked download neither holds image data nor a connection slot of the host.
+     * </p>
+     *
+     * @param urls     the image URLs
+     * @param gate     called before each download, may block until the image is allowed to be fetched
+     * @param consumer receives each downloaded image with the index of its URL
+     * @throws IOException if any of the downloads, the gate or the consumer fails
+     */
+    public void fetchAll(final List<String> urls, final ImageGate gate, final ImageConsumer consumer) throws IOException {
+        try (final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < urls.size(); i++) {
+                final int index = i;
+                final String url = urls.get(i);
+                futures.add(executor.submit(() -> {
+                    gate.await(index, url);
+                    final byte[] data = hostThrottle.execute(url, () -> imageDownloader.readImageBytes(url));
+                    consumer.accept(index, url, data);
+                    return null;
+                }));
+            }
+
+            awaitAll(futures);
+        }
+    }
+
+    private void awaitAll(final List<Future<?>> futures) throws IOException {
+        try {
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        } catch (final ExecutionException e) {
+            futures.forEach(f -> f.cancel(true));
+            if (e.getCause() instanceof final IOException ioException) {
+                throw ioException;
+            }
+            throw new IOException("Image download failed", e.getCause());
+        } catch (final InterruptedException e) {
+            futures.forEach(f -> f.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while downloading images", e);
+        }
+    }
+
+    /**
+     * Decides when an image may be downloaded.
+     */
+    @FunctionalInterface
+    public interface ImageGate {
+
+        /**
+         * Called once per image, before it is downloaded.
+         *
+         * @param index the index of the URL in the input list
+         * @param url   the image URL
+         * @throws IOException if the image must not be downloaded at all
+         */
+        void await(int index, String url) throws IOException;
+    }
+
+    /**
+     * Receives downloaded images.
+     */
+    @FunctionalInterface
+    public interface ImageConsumer {
+
+        /**
+         * Called once per downloaded image.
+         *
+         * @param index the index of the URL in the input list
+         * @param url   the image URL
+         * @param data  the raw image bytes
+         * @throws IOException if the image cannot be processed
+         */
+        void accept(int index, String url, byte[] data) throws IOException;
+    }
+}
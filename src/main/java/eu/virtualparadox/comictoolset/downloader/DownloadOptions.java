@@ -0,0 +1,211 @@
+package eu.virtualparadox.comictoolset.downloader;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Tuning options of the download process.
+ * <p>
+ * Controls how many page images may be fetched from the same host at once and how many
+ * requests per second a single host receives, so the image CDN is not hammered, and how many
+ * headless browsers are kept alive to scrape issues in parallel. Also selects whether pages are
+ * saved as loose files or written straight into a .cbz archive per issue, and, when a list of series is
+ * downloaded in one run, how many series are processed at once, overall and per host. Finally, sets up
+ * the {@link ListingCache} of the series listing pages, which is off unless a cache folder is configured.
+ * </p>
+ */
+public final class DownloadOptions {
+
+    /** Maximum number of concurrent requests to the same host */
+    private final int downloadConcurrency;
+
+    /** Maximum number of requests started per second against the same host (0 = unlimited) */
+    private final double requestsPerSecond;
+
+    /** Number of long-lived browser sessions, which is also the number of issues scraped in parallel */
+    private final int browserPoolSize;
+
+    /** Number of issues a browser session scrapes before it is replaced by a fresh one */
+    private final int browserMaxUses;
+
+    /** Whether each issue is written straight into a .cbz archive instead of a folder of pages */
+    private final boolean packToCbz;
+
+    /** Maximum number of series downloaded at the same time in one run */
+    private final int seriesConcurrency;
+
+    /** Maximum number of series of the same host downloaded at the same time */
+    private final int seriesPerHost;
+
+    /** Folder of the listing page cache, {@code null} if listing pages are not cached */
+    private final Path listingCacheFolder;
+
+    /** How long a cached listing page is used without revalidation */
+    private final Duration listingCacheTtl;
+
+    private DownloadOptions(final int downloadConcurrency,
+                            final double requestsPerSecond,
+                            final int browserPoolSize,
+                            final int browserMaxUses,
+                            final boolean packToCbz,
+                            final int seriesConcurrency,
+                            final int seriesPerHost,
+                            final Path listingCacheFolder,
+                            final Duration listingCacheTtl) {
+        this.downloadConcurrency = downloadConcurrency;
+        this.requestsPerSecond = requestsPerSecond;
+        this.browserPoolSize = browserPoolSize;
+        this.browserMaxUses = browserMaxUses;
+        this.packToCbz = packToCbz;
+        this.seriesConcurrency = seriesConcurrency;
+        this.seriesPerHost = seriesPerHost;
+        this.listingCacheFolder = listingCacheFolder;
+        this.listingCacheTtl = listingCacheTtl;
+    }
+
+    /**
+     * Returns the options used when nothing is configured.
+     *
+     * @return the default options
+     */
+    public static DownloadOptions defaults() {
+        return DownloadOptionsBuilder.builder().build();
+    }
+
+    public int getDownloadConcurrency() {
+        return downloadConcurrency;
+    }
+
+    public double getRequestsPerSecond() {
+        return requestsPerSecond;
+    }
+
+    public int getBrowserPoolSize() {
+        return browserPoolSize;
+    }
+
+    public int getBrowserMaxUses() {
+        return browserMaxUses;
+    }
+
+    public boolean isPackToCbz() {
+        return packToCbz;
+    }
+
+    public int getSeriesConcurrency() {
+        return seriesConcurrency;
+    }
+
+    public int getSeriesPerHost() {
+        return seriesPerHost;
+    }
+
+    public Path getListingCacheFolder() {
+        return listingCacheFolder;
+    }
+
+    public Duration getListingCacheTtl() {
+        return listingCacheTtl;
+    }
+
+    /**
+     * Builder for {@link DownloadOptions}.
+     */
+    public static class DownloadOptionsBuilder {
+        private int downloadConcurrency = 4;
+        private double requestsPerSecond = 8;
+        private int browserPoolSize = 1;
+        private int browserMaxUses = 20;
+        private boolean packToCbz;
+        private int seriesConcurrency = 4;
+        private int seriesPerHost = 2;
+        private Path listingCacheFolder;
+        private Duration listingCacheTtl = ListingCache.DEFAULT_TTL;
+
+        public static DownloadOptionsBuilder builder() {
+            return new DownloadOptionsBuilder();
+        }
+
+        public DownloadOptionsBuilder downloadConcurrency(final int downloadConcurrency) {
+            this.downloadConcurrency = downloadConcurrency;
+            return this;
+        }
+
+        public DownloadOptionsBuilder requestsPerSecond(final double requestsPerSecond) {
+            this.requestsPerSecond = requestsPerSecond;
+            return this;
+        }
+
+        public DownloadOptionsBuilder browserPoolSize(final int browserPoolSize) {
+            this.browserPoolSize = browserPoolSize;
+            return this;
+        }
+
+        public DownloadOptionsBuilder browserMaxUses(final int browserMaxUses) {
+            this.browserMaxUses = browserMaxUses;
+            return this;
+        }
+
+        public DownloadOptionsBuilder packToCbz(final boolean packToCbz) {
+            this.packToCbz = packToCbz;
+            return this;
+        }
+
+        public DownloadOptionsBuilder seriesConcurrency(final int seriesConcurrency) {
+            this.seriesConcurrency = seriesConcurrency;
+            return this;
+        }
+
+        public DownloadOptionsBuilder seriesPerHost(final int seriesPerHost) {
+            this.seriesPerHost = seriesPerHost;
+            return this;
+        }
+
+        /**
+         * Caches the series listing pages in the given folder, e.g. {@link ListingCache#defaultFolder()}.
+         * {@code null}, the default, fetches every listing page without a cache.
+         */
+        public DownloadOptionsBuilder listingCacheFolder(final Path listingCacheFolder) {
+            this.listingCacheFolder = listingCacheFolder;
+            return this;
+        }
+
+        public DownloadOptionsBuilder listingCacheTtl(final Duration listingCacheTtl) {
+            this.listingCacheTtl = listingCacheTtl;
+            return this;
+        }
+
+        public DownloadOptions build() {
+            if (downloadConcurrency <= 0) {
+                throw new IllegalArgumentException("Download concurrency must be a positive integer");
+            }
+
+            if (requestsPerSecond < 0) {
+                throw new IllegalArgumentException("Requests per second must not be negative");
+            }
+
+            if (browserPoolSize <= 0) {
+                throw new IllegalArgumentException("Browser pool size must be a positive integer");
+            }
+
+            if (browserMaxUses <= 0) {
+                throw new IllegalArgumentException("Browser max uses must be a positive integer");
+            }
+
+            if (seriesConcurrency <= 0) {
+                throw new IllegalArgumentException("Series concurrency must be a positive integer");
+            }
+
+            if (seriesPerHost <= 0) {
+                throw new IllegalArgumentException("Series per host must be a positive integer");
+            }
+
+            if (listingCacheTtl == null || listingCacheTtl.isNegative()) {
+                throw new IllegalArgumentException("Listing cache TTL must not be negative");
+            }
+
+            return new DownloadOptions(downloadConcurrency, requestsPerSecond, browserPoolSize, browserMaxUses, packToCbz,
+                    seriesConcurrency, seriesPerHost, listingCacheFolder, listingCacheTtl);
+        }
+    }
+}
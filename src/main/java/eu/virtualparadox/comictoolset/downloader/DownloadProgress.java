@@ -0,0 +1,89 @@
+package eu.virtualparadox.comictoolset.downloader;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Thread-safe tally of how the issues of one or more series ended up.
+ * <p>
+ * Every {@link Downloader} reports its issues into its own instance; when many series are downloaded
+ * in one run, the per-series tallies are added to a single aggregate by {@link LibraryDownloader}.
+ * </p>
+ */
+public final class DownloadProgress {
+
+    /**
+     * How the download of a single issue ended.
+     */
+    public enum Outcome {
+        /** All pages were downloaded in this run */
+        DOWNLOADED,
+        /** The issue was already complete on disk */
+        SKIPPED,
+        /** Some pages are missing, the issue is resumed by the next run */
+        INCOMPLETE,
+        /** The issue could not be downloaded or stored */
+        FAILED
+    }
+
+    private final Map<Outcome, AtomicInteger> counts = new EnumMap<>(Outcome.class);
+
+    /**
+     * Constructs an empty tally.
+     */
+    public DownloadProgress() {
+        for (final Outcome outcome : Outcome.values()) {
+            counts.put(outcome, new AtomicInteger());
+        }
+    }
+
+    /**
+     * Records the outcome of one issue.
+     *
+     * @param outcome how the issue ended
+     */
+    public void record(final Outcome outcome) {
+        counts.get(outcome).incrementAndGet();
+    }
+
+    /**
+     * Adds every count of another tally to this one.
+     *
+     * @param other the tally to add
+     */
+    public void add(final DownloadProgress other) {
+        for (final Outcome outcome : Outcome.values()) {
+            counts.get(outcome).addAndGet(other.count(outcome));
+        }
+    }
+
+    /**
+     * Returns the number of issues with the given outcome.
+     *
+     * @param outcome the outcome to count
+     * @return the number of issues recorded with it
+     */
+    public int count(final Outcome outcome) {
+        return counts.get(outcome).get();
+    }
+
+    /**
+     * Returns the number of issues recorded so far.
+     *
+     * @return the number of issues of every outcome
+     */
+    public int total() {
+        int total = 0;
+        for (final AtomicInteger count : counts.values()) {
+            total += count.get();
+        }
+        return total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d downloaded, %d skipped, %d incomplete, %d failed",
+                count(Outcome.DOWNLOADED), count(Outcome.SKIPPED), count(Outcome.INCOMPLETE), count(Outcome.FAILED));
+    }
+}
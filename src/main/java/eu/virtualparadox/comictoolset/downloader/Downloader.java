@@ -3,16 +3,20 @@ package eu.virtualparadox.comictoolset.downloader;
 import eu.virtualparadox.comictoolset.downloader.issuecollector.Issue;
 import eu.virtualparadox.comictoolset.downloader.issuecollector.IssueCollector;
 import eu.virtualparadox.comictoolset.downloader.issuecollector.IssueCollectorFactory;
-import eu.virtualparadox.comictoolset.downloader.pagecollector.Page;
 import eu.virtualparadox.comictoolset.downloader.pagecollector.PageCollector;
 import eu.virtualparadox.comictoolset.downloader.pagecollector.PageCollectorFactory;
+import eu.virtualparadox.comictoolset.packer.CompressionMode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Downloads comic issues and their page images from a remote source to a local folder.
@@ -26,87 +30,255 @@ public class Downloader {
 
     private static final Logger logger = LoggerFactory.getLogger(Downloader.class);
 
+    /** Suffix of the folder an issue is downloaded into before it is complete */
+    private static final String STAGING_SUFFIX = ".part";
+
+    /** File in the comic folder holding the hash of the issue list of the last complete run */
+    private static final String SYNC_MARKER = ".sync";
+
+    /** Extension of the archives written when pages are packed while downloading */
+    private static final String CBZ_EXTENSION = ".cbz";
+
     private final Path comicFolder;
     private final IssueCollector issueCollector;
     private final PageCollector pageCollector;
+    private final boolean ownsPageCollector;
+    private final int issueConcurrency;
+    private final boolean packToCbz;
 
     /**
      * Constructs a {@code Downloader} for the given comic source and output directory.
      *
      * @param comicRoot   the root URL of the comic (e.g., title page on ReadComicOnline)
      * @param comicFolder the local folder where downloaded issues will be saved
+     * @param options     the download options (concurrency, rate limits and browser pool)
+     */
+    public Downloader(final String comicRoot, final Path comicFolder, final DownloadOptions options) {
+        this(IssueCollectorFactory.createIssueCollector(comicRoot, options),
+                PageCollectorFactory.createPageCollector(comicRoot, options),
+                true, comicFolder, options);
+    }
+
+    /**
+     * Constructs a {@code Downloader} that borrows a page collector shared with other series.
+     * The shared collector, with its browser sessions and host limits, is not closed by {@link #download()}.
+     *
+     * @param issueCollector the issue collector of the series
+     * @param pageCollector  the shared page collector of the series' site
+     * @param comicFolder    the local folder where downloaded issues will be saved
+     * @param options        the download options
      */
-    public Downloader(final String comicRoot, final Path comicFolder) {
+    public Downloader(final IssueCollector issueCollector,
+                      final PageCollector pageCollector,
+                      final Path comicFolder,
+                      final DownloadOptions options) {
+        this(issueCollector, pageCollector, false, comicFolder, options);
+    }
+
+    private Downloader(final IssueCollector issueCollector,
+                       final PageCollector pageCollector,
+                       final boolean ownsPageCollector,
+                       final Path comicFolder,
+                       final DownloadOptions options) {
         this.comicFolder = comicFolder;
-        this.issueCollector = IssueCollectorFactory.createIssueCollector(comicRoot);
-        this.pageCollector = PageCollectorFactory.createPageCollector(comicRoot);
+        this.issueConcurrency = options.getBrowserPoolSize();
+        this.packToCbz = options.isPackToCbz();
+        this.issueCollector = issueCollector;
+        this.pageCollector = pageCollector;
+        this.ownsPageCollector = ownsPageCollector;
     }
 
     /**
      * Starts the download process for all available issues from the source.
      * <p>
-     * Issues already downloaded (i.e., folders exist) are skipped.
+     * Issues whose manifest is already satisfied (or, when packing to CBZ, whose archive exists) are skipped. As many issues are processed in parallel
+     * as there are browser sessions in the pool; an owned page collector is closed once all issues are done.
      * </p>
+     * <p>
+     * After a run in which every issue ended up complete, the hash of the issue list is stored in a
+     * {@code .sync} marker of the comic folder. As long as the listing stays the same, later runs end right
+     * after fetching it, without looking at any issue. Issue folders or .cbz files deleted locally are therefore
+     * not noticed, and not downloaded again, until the marker is deleted, which forces a full check.
+     * </p>
+     *
+     * @return the outcome of every issue of the series
+     * @throws IllegalStateException if the issue list cannot be fetched
      */
-    public void download() {
-        final List<Issue> issues = issueCollector.collectIssues();
+    public DownloadProgress download() {
+        try {
+            final List<Issue> issues = issueCollector.collectIssues();
+            final DownloadProgress progress = new DownloadProgress();
 
-        for (Issue issue : issues) {
-            final Path issueFolder = comicFolder.resolve(issue.getPaddedName());
-            downloadContent(issueFolder, issue);
+            final String issueListHash = hashIssueList(issues);
+            if (issueListHash.equals(readSyncMarker())) {
+                logger.info("Skipping '{}': its {} issues are unchanged since the last complete run", comicFolder.getFileName(), issues.size());
+                issues.forEach(issue -> progress.record(DownloadProgress.Outcome.SKIPPED));
+                return progress;
+            }
+
+            try (ExecutorService executor = Executors.newFixedThreadPool(issueConcurrency)) {
+                for (Issue issue : issues) {
+                    final Path issueFolder = comicFolder.resolve(issue.getPaddedName());
+                    executor.execute(() -> {
+                        try {
+                            progress.record(packToCbz
+                                    ? downloadArchive(comicFolder.resolve(issue.getPaddedName() + CBZ_EXTENSION), issue)
+                                    : downloadContent(issueFolder, issue));
+                        } catch (RuntimeException e) {
+                            logger.error("Failed to download issue '{}'", issue.getPaddedName(), e);
+                            progress.record(DownloadProgress.Outcome.FAILED);
+                        }
+                    });
+                }
+            }
+
+            if (progress.count(DownloadProgress.Outcome.INCOMPLETE) == 0 && progress.count(DownloadProgress.Outcome.FAILED) == 0) {
+                writeSyncMarker(issueListHash);
+            }
+            logger.info("Finished '{}': {}", comicFolder.getFileName(), progress);
+            return progress;
+        } finally {
+            if (ownsPageCollector) {
+                pageCollector.close();
+            }
         }
     }
 
     /**
-     * Downloads and saves all pages for a given issue, unless the target folder already exists.
+     * Downloads and saves the pages of a given issue, unless its manifest shows that it is already complete.
+     * <p>
+     * New issues are written to a {@code .part} staging folder as the pages arrive, and the folder is renamed
+     * to its final name only once the manifest is satisfied. Incomplete issues are resumed on the next run:
+     * only the pages missing from the manifest, or failing its checksum, are downloaded again.
+     * Issue folders without a manifest (downloaded by older versions) are verified the same way and
+     * receive a manifest.
+     * </p>
      *
      * @param issueFolder the destination folder for the issue's pages
      * @param issue       the issue to download
+     * @return how the download of the issue ended
      */
-    private void downloadContent(final Path issueFolder, final Issue issue) {
-        if (Files.exists(issueFolder)) {
+    private DownloadProgress.Outcome downloadContent(final Path issueFolder, final Issue issue) {
+        final IssueManifest existingManifest = IssueManifest.read(issueFolder);
+        if (existingManifest != null && existingManifest.isSatisfiedBy(issueFolder)) {
             logger.info("Skipping '{}': already downloaded", issue.getPaddedName());
-            return;
+            return DownloadProgress.Outcome.SKIPPED;
         }
 
+        final Path targetFolder = Files.exists(issueFolder)
+                ? issueFolder
+                : issueFolder.resolveSibling(issueFolder.getFileName() + STAGING_SUFFIX);
+
+        IssueManifest manifest = null;
+        FilePageSink sink = null;
         try {
-            final List<Page> pages = pageCollector.collectPages(issue);
-            writePages(issueFolder, pages);
+            sink = new FilePageSink(targetFolder, issue.getUrl());
+            pageCollector.streamPages(issue, sink);
         } catch (IOException e) {
             logger.error("Failed to download issue '{}': {}", issue.getPaddedName(), e.getMessage());
+        } finally {
+            manifest = writeManifest(sink, issue);
+        }
 
+        if (manifest == null || !manifest.isSatisfiedBy(targetFolder)) {
+            final long written = manifest == null ? 0 : manifest.countWrittenPages();
+            final int expected = manifest == null ? 0 : manifest.getPages().size();
+            logger.warn("Issue '{}' is incomplete ({} of {} pages), it will be resumed on the next run",
+                    issue.getPaddedName(), written, expected);
+            return DownloadProgress.Outcome.INCOMPLETE;
+        }
+
+        if (!targetFolder.equals(issueFolder)) {
             try {
-                Files.deleteIfExists(issueFolder);
-            } catch (IOException cleanupException) {
-                logger.error("Cleanup failed for '{}': {}", issueFolder, cleanupException.getMessage());
+                Files.move(targetFolder, issueFolder, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                logger.error("Failed to move '{}' to '{}': {}", targetFolder, issueFolder, e.getMessage());
+                return DownloadProgress.Outcome.FAILED;
             }
         }
+        return DownloadProgress.Outcome.DOWNLOADED;
     }
 
     /**
-     * Writes page image data to the specified issue folder.
+     * Downloads the pages of a given issue straight into its .cbz archive, unless the archive already exists.
      * <p>
-     * Skips individual pages that already exist to support partial retries.
+     * No loose page files are written; see {@link CbzPageSink} for ordering and for resuming interrupted archives.
      * </p>
      *
-     * @param issueFolder the target folder to write page files into
-     * @param pages       the list of pages to write
+     * @param archive the destination .cbz file
+     * @param issue   the issue to download
+     * @return how the download of the issue ended
      */
-    private void writePages(final Path issueFolder, final List<Page> pages) {
+    private DownloadProgress.Outcome downloadArchive(final Path archive, final Issue issue) {
+        if (Files.exists(archive)) {
+            logger.info("Skipping '{}': already downloaded", issue.getPaddedName());
+            return DownloadProgress.Outcome.SKIPPED;
+        }
+
+        final CbzPageSink sink = new CbzPageSink(archive, CompressionMode.AUTO);
         try {
-            if (!Files.exists(issueFolder)) {
-                Files.createDirectories(issueFolder);
+            pageCollector.streamPages(issue, sink);
+        } catch (IOException | RuntimeException e) {
+            // the pages written so far are kept either way, finishing the sink below keeps them resumable
+            logger.error("Failed to download issue '{}': {}", issue.getPaddedName(), e.getMessage());
+        }
+
+        try {
+            if (!sink.finish()) {
+                logger.warn("Archive of issue '{}' is incomplete ({} pages written), it will be resumed on the next run",
+                        issue.getPaddedName(), sink.getWrittenPages());
+                return DownloadProgress.Outcome.INCOMPLETE;
             }
+            return DownloadProgress.Outcome.DOWNLOADED;
+        } catch (IOException e) {
+            logger.error("Failed to finish archive of issue '{}': {}", issue.getPaddedName(), e.getMessage());
+            return DownloadProgress.Outcome.FAILED;
+        }
+    }
 
-            for (Page page : pages) {
-                final Path pagePath = issueFolder.resolve(page.getPaddedName());
+    /**
+     * Hashes the issue list together with the output format, so switching to or from CBZ output
+     * is never mistaken for an unchanged series.
+     */
+    private String hashIssueList(final List<Issue> issues) {
+        final StringBuilder builder = new StringBuilder(packToCbz ? "cbz" : "pages").append('\n');
+        for (final Issue issue : issues) {
+            builder.append(issue.getPaddedName()).append(' ').append(issue.getUrl()).append('\n');
+        }
+        return IssueManifest.sha256(builder.toString().getBytes(StandardCharsets.UTF_8));
+    }
 
-                if (!Files.exists(pagePath)) {
-                    Files.write(pagePath, page.getData());
-                }
-            }
+    private String readSyncMarker() {
+        final Path marker = comicFolder.resolve(SYNC_MARKER);
+        try {
+            return Files.isRegularFile(marker) ? Files.readString(marker).trim() : null;
+        } catch (IOException e) {
+            logger.warn("Ignoring unreadable sync marker '{}': {}", marker, e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeSyncMarker(final String issueListHash) {
+        final Path marker = comicFolder.resolve(SYNC_MARKER);
+        final Path tempMarker = comicFolder.resolve(SYNC_MARKER + STAGING_SUFFIX);
+        try {
+            Files.createDirectories(comicFolder);
+            Files.writeString(tempMarker, issueListHash);
+            Files.move(tempMarker, marker, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            logger.warn("Failed to write sync marker '{}': {}", marker, e.getMessage());
+        }
+    }
+
+    private IssueManifest writeManifest(final FilePageSink sink, final Issue issue) {
+        if (sink == null) {
+            return null;
+        }
+        try {
+            return sink.writeManifest();
         } catch (IOException e) {
-            throw new IllegalStateException("Failed to write pages to: " + issueFolder, e);
+            logger.error("Failed to write manifest of issue '{}': {}", issue.getPaddedName(), e.getMessage());
+            return null;
         }
     }
 }
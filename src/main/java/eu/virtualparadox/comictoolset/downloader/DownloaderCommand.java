@@ -5,14 +5,19 @@ import com.beust.jcommander.Parameters;
 import eu.virtualparadox.comictoolset.command.AbstractCommand;
 import eu.virtualparadox.comictoolset.command.StringArgumentToPathConverter;
 
+import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
 
 /**
  * CLI command for downloading comic issues and pages from an online reader.
  * <p>
  * This command uses {@code --comicRoot} to specify the source URL of the comic,
  * and {@code --outputFolder} to determine where the downloaded issues will be stored.
- * It currently supports sites like ReadComicOnline.li.
+ * Alternatively, {@code --comicRootList} names a file of comic roots, which are downloaded concurrently
+ * in one run into one sub-folder per series. It currently supports sites like ReadComicOnline.li.
  * </p>
  */
 @Parameters(commandDescription = "To download issues and pages from an online comic reader (eg. ReadComicOnline.li)")
@@ -24,11 +29,20 @@ public class DownloaderCommand extends AbstractCommand {
      */
     @Parameter(
             names = "--comicRoot",
-            description = "URL to the comic (eg.: https://readcomiconline.li/Comic/Dylan-Dog-1986)",
-            required = true
+            description = "URL to the comic (eg.: https://readcomiconline.li/Comic/Dylan-Dog-1986)"
     )
     private String comicRoot;
 
+    /**
+     * A file listing the root URLs of many series, one per line, to be downloaded in one run.
+     */
+    @Parameter(
+            names = "--comicRootList",
+            description = "File with one comic URL per line; every series is downloaded into its own sub-folder of the output folder",
+            converter = StringArgumentToPathConverter.class
+    )
+    private Path comicRootList;
+
     /**
      * The local folder where downloaded comic issues will be saved.
      */
@@ -40,6 +54,87 @@ public class DownloaderCommand extends AbstractCommand {
     )
     private Path outputFolder;
 
+    /**
+     * The maximum number of page images downloaded at the same time from one host.
+     */
+    @Parameter(
+            names = "--downloadConcurrency",
+            description = "Maximum number of parallel image downloads per host (default: 4)"
+    )
+    private int downloadConcurrency = 4;
+
+    /**
+     * The maximum number of requests per second sent to one host.
+     */
+    @Parameter(
+            names = "--requestsPerSecond",
+            description = "Maximum number of image requests per second per host, 0 for unlimited (default: 8)"
+    )
+    private double requestsPerSecond = 8;
+
+    /**
+     * The number of long-lived headless browsers, i.e. the number of issues scraped in parallel.
+     */
+    @Parameter(
+            names = "--browserPoolSize",
+            description = "Number of headless browsers kept alive to scrape issues in parallel (default: 1)"
+    )
+    private int browserPoolSize = 1;
+
+    /**
+     * The number of issues a browser scrapes before it is restarted.
+     */
+    @Parameter(
+            names = "--browserMaxUses",
+            description = "Number of issues a browser scrapes before it is replaced by a fresh one (default: 20)"
+    )
+    private int browserMaxUses = 20;
+
+    /**
+     * Whether every issue is written straight into a .cbz archive instead of a folder of pages.
+     */
+    @Parameter(
+            names = "--cbz",
+            description = "Write every issue straight into a .cbz archive instead of a folder of page images"
+    )
+    private boolean packToCbz = false;
+
+    /**
+     * The number of series downloaded at the same time when a comic root list is given.
+     */
+    @Parameter(
+            names = "--seriesConcurrency",
+            description = "Number of series of the --comicRootList downloaded in parallel (default: 4)"
+    )
+    private int seriesConcurrency = 4;
+
+    /**
+     * The number of series of the same host downloaded at the same time when a comic root list is given.
+     */
+    @Parameter(
+            names = "--seriesPerHost",
+            description = "Number of series of the same host downloaded in parallel (default: 2)"
+    )
+    private int seriesPerHost = 2;
+
+    /**
+     * The number of minutes a cached series listing page is used without asking the server.
+     */
+    @Parameter(
+            names = "--listingCacheTtl",
+            description = "Minutes a cached series page is used before it is revalidated with a conditional request (default: 15)"
+    )
+    private int listingCacheTtl = 15;
+
+    /**
+     * Whether the series listing pages are fetched without the on-disk cache.
+     */
+    @Parameter(
+            names = "--noListingCache",
+            description = "Always fetch the series pages in full, without the on-disk listing cache"
+    )
+    private boolean noListingCache = false;
+
     /**
      * Returns the CLI command keyword ("download").
      *
@@ -57,6 +152,7 @@ public class DownloaderCommand extends AbstractCommand {
     protected void printDetailedDescription() {
         System.out.println("`download` command is to download all accessible issue of a given comic from an online reader to a folder");
         System.out.println("Example: java -jar ComicToolSet.jar download --comicRoot https://readcomiconline.li/Comic/Dylan-Dog-1986 --outputFolder /Users/jack/Documents/comics/dylan-dog");
+        System.out.println("Example: java -jar ComicToolSet.jar download --comicRootList /Users/jack/Documents/comics/series.txt --outputFolder /Users/jack/Documents/comics");
     }
 
     /**
@@ -64,18 +160,86 @@ public class DownloaderCommand extends AbstractCommand {
      */
     @Override
     protected void internalRun() {
-        final Downloader downloader = new Downloader(comicRoot, outputFolder);
+        final DownloadOptions options = DownloadOptions.DownloadOptionsBuilder.builder()
+                .downloadConcurrency(downloadConcurrency)
+                .requestsPerSecond(requestsPerSecond)
+                .browserPoolSize(browserPoolSize)
+                .browserMaxUses(browserMaxUses)
+                .packToCbz(packToCbz)
+                .seriesConcurrency(seriesConcurrency)
+                .seriesPerHost(seriesPerHost)
+                .listingCacheFolder(noListingCache ? null : ListingCache.defaultFolder())
+                .listingCacheTtl(Duration.ofMinutes(listingCacheTtl))
+                .build();
+
+        if (comicRootList != null) {
+            final List<String> comicRoots;
+            try {
+                comicRoots = LibraryDownloader.readComicRoots(comicRootList);
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to read comic root list " + comicRootList, e);
+            }
+            new LibraryDownloader(comicRoots, outputFolder, options).download();
+            return;
+        }
+
+        final Downloader downloader = new Downloader(comicRoot, outputFolder, options);
         downloader.download();
     }
 
     /**
-     * Validates the command-line parameters. This version always returns true
-     * because required parameters are already enforced by JCommander.
+     * Validates the command-line parameters. Required parameters are already enforced by JCommander,
+     * only the source of the series and the numeric limits are checked here.
      *
      * @return true if validation passes
      */
     @Override
     protected boolean validateAndPrint() {
+        if ((comicRoot == null) == (comicRootList == null)) {
+            logger.error("Exactly one of --comicRoot and --comicRootList must be given");
+            return false;
+        }
+
+        if (comicRootList != null && !Files.isRegularFile(comicRootList)) {
+            logger.error("--comicRootList must be an existing file: {}", comicRootList);
+            return false;
+        }
+
+        if (downloadConcurrency <= 0) {
+            logger.error("--downloadConcurrency must be a positive integer");
+            return false;
+        }
+
+        if (requestsPerSecond < 0) {
+            logger.error("--requestsPerSecond must not be negative");
+            return false;
+        }
+
+        if (browserPoolSize <= 0) {
+            logger.error("--browserPoolSize must be a positive integer");
+            return false;
+        }
+
+        if (browserMaxUses <= 0) {
+            logger.error("--browserMaxUses must be a positive integer");
+            return false;
+        }
+
+        if (seriesConcurrency <= 0) {
+            logger.error("--seriesConcurrency must be a positive integer");
+            return false;
+        }
+
+        if (seriesPerHost <= 0) {
+            logger.error("--seriesPerHost must be a positive integer");
+            return false;
+        }
+
+        if (listingCacheTtl < 0) {
+            logger.error("--listingCacheTtl must not be negative");
+            return false;
+        }
+
         return true;
     }
 }
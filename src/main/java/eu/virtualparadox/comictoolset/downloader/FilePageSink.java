@@ -0,0 +1,196 @@
+package eu.virtualparadox.comictoolset.downloader;
+
+import eu.virtualparadox.comictoolset.downloader.pagecollector.Page;
+import eu.virtualparadox.comictoolset.downloader.pagecollector.PageSink;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link PageSink} writing every page into an issue folder as soon as it has been downloaded,
+ * and keeping the {@link IssueManifest} of the folder up to date.
+ * <p>
+ * Each page is first written to a temporary file next to its final name and then moved in place
+ * atomically, so a crash or a failed download never leaves a truncated page behind.
+ * When a download is resumed, pages recorded in the previous manifest are kept if they were downloaded
+ * from the same URL and their size and checksum still match, and page files without a manifest entry
+ * (e.g. written by older versions) are adopted. Only missing, corrupt or replaced pages are requested again.
+ * </p>
+ */
+public class FilePageSink implements PageSink {
+
+    private static final Logger logger = LoggerFactory.getLogger(FilePageSink.class);
+
+    /** Suffix of the temporary file a page is written to before it is moved in place */
+    private static final String TEMP_SUFFIX = ".part";
+
+    private final Path folder;
+    private final IssueManifest previousManifest;
+    private final String issueUrl;
+
+    private IssueManifest.PageEntry[] entries = new IssueManifest.PageEntry[0];
+    private List<String> urls = List.of();
+    private boolean begun;
+
+    /**
+     * Constructs a sink writing into the given folder, creating it if needed.
+     *
+     * @param folder   the target folder of the pages
+     * @param issueUrl the URL of the issue, recorded in the manifest
+     * @throws IOException if the folder cannot be created
+     */
+    public FilePageSink(final Path folder, final String issueUrl) throws IOException {
+        this.folder = Files.createDirectories(folder);
+        this.previousManifest = IssueManifest.read(folder);
+        this.issueUrl = issueUrl;
+    }
+
+    /**
+     * Registers the expected pages and verifies the pages that are already on disk.
+     *
+     * @param urls the page image URLs in page order
+     * @throws IOException if an existing page cannot be read
+     */
+    @Override
+    public synchronized void begin(final List<String> urls) throws IOException {
+        this.urls = List.copyOf(urls);
+        this.entries = new IssueManifest.PageEntry[urls.size()];
+        this.begun = true;
+
+        int reused = 0;
+        for (int number = 0; number < urls.size(); number++) {
+            entries[number] = findValidPage(number, urls.get(number));
+            if (entries[number] != null) {
+                reused++;
+            }
+        }
+
+        if (reused > 0) {
+            logger.info("{} of {} pages already on disk in '{}'", reused, urls.size(), folder.getFileName());
+        }
+    }
+
+    @Override
+    public synchronized boolean needs(final int number, final String url) {
+        return number >= entries.length || entries[number] == null;
+    }
+
+    /**
+     * Writes the page to {@code <folder>/<padded name>} via a temporary file and an atomic move,
+     * and records it for the manifest.
+     *
+     * @param page the downloaded page
+     * @throws IOException if writing or moving the file fails
+     */
+    @Override
+    public void accept(final Page page) throws IOException {
+        final Path pagePath = folder.resolve(page.getPaddedName());
+        final Path tempPath = folder.resolve(page.getPaddedName() + TEMP_SUFFIX);
+        Files.write(tempPath, page.getData());
+        Files.move(tempPath, pagePath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        final IssueManifest.PageEntry entry = new IssueManifest.PageEntry(
+                page.getNumber(), page.getUrl(), page.getPaddedName(), page.getData().length, IssueManifest.sha256(page.getData()));
+        synchronized (this) {
+            if (page.getNumber() < entries.length) {
+                entries[page.getNumber()] = entry;
+            }
+        }
+    }
+
+    /**
+     * Writes the manifest of every expected page, written or not, into the folder.
+     * If the pages of the issue were never listed, the previous manifest is left untouched.
+     *
+     * @return the written manifest, or the previous one (possibly {@code null}) if nothing was listed
+     * @throws IOException if the manifest cannot be written
+     */
+    public synchronized IssueManifest writeManifest() throws IOException {
+        if (!begun) {
+            return previousManifest;
+        }
+
+        final IssueManifest manifest = new IssueManifest();
+        manifest.setIssueUrl(issueUrl);
+        for (int number = 0; number < entries.length; number++) {
+            manifest.getPages().add(entries[number] != null
+                    ? entries[number]
+                    : new IssueManifest.PageEntry(number, urls.get(number), null, 0, null));
+        }
+        manifest.write(folder);
+        return manifest;
+    }
+
+    /**
+     * Finds an intact file of the page, either recorded in the previous manifest or left behind without one.
+     * A page the previous manifest recorded under another URL has been replaced on the site, so its files are deleted.
+     */
+    private IssueManifest.PageEntry findValidPage(final int number, final String url) throws IOException {
+        final IssueManifest.PageEntry recorded = findRecordedEntry(number);
+        if (recorded != null && !url.equals(recorded.getUrl())) {
+            logger.info("Page {} of '{}' has a new URL, downloading it again", number, folder.getFileName());
+            deletePageFiles(number);
+            return null;
+        }
+
+        if (recorded != null && recorded.getFileName() != null) {
+            final Path pagePath = folder.resolve(recorded.getFileName());
+            if (Files.isRegularFile(pagePath)
+                    && Files.size(pagePath) == recorded.getSize()
+                    && IssueManifest.sha256(pagePath).equals(recorded.getSha256())) {
+                return new IssueManifest.PageEntry(number, url, recorded.getFileName(), recorded.getSize(), recorded.getSha256());
+            }
+            logger.warn("Page '{}' of '{}' is missing or corrupt, downloading it again", recorded.getFileName(), folder.getFileName());
+            Files.deleteIfExists(pagePath);
+            return null;
+        }
+
+        final Path pagePath = findUnrecordedFile(number);
+        if (pagePath == null || Files.size(pagePath) == 0) {
+            return null;
+        }
+        return new IssueManifest.PageEntry(number, url, pagePath.getFileName().toString(), Files.size(pagePath), IssueManifest.sha256(pagePath));
+    }
+
+    private IssueManifest.PageEntry findRecordedEntry(final int number) {
+        if (previousManifest == null) {
+            return null;
+        }
+        for (final IssueManifest.PageEntry entry : previousManifest.getPages()) {
+            if (entry.getNumber() == number) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    private Path findUnrecordedFile(final int number) throws IOException {
+        final List<Path> candidates = listPageFiles(number);
+        return candidates.size() == 1 ? candidates.get(0) : null;
+    }
+
+    private void deletePageFiles(final int number) throws IOException {
+        for (final Path path : listPageFiles(number)) {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    private List<Path> listPageFiles(final int number) throws IOException {
+        final List<Path> pageFiles = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(folder, Page.getPaddedNumber(number) + ".*")) {
+            for (final Path path : stream) {
+                if (Files.isRegularFile(path) && !path.getFileName().toString().endsWith(TEMP_SUFFIX)) {
+                    pageFiles.add(path);
+                }
+            }
+        }
+        return pageFiles;
+    }
+}
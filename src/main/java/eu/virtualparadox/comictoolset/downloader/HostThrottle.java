@@ -0,0 +1,122 @@
+package eu.virtualparadox.comictoolset.downloader;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits the load put on each remote host.
+ * <p>
+ * Every host gets its own cap on concurrent requests and its own request-rate limit.
+ * Requests to different hosts never wait for each other. Waiting is done by blocking,
+ * which is cheap on virtual threads.
+ * </p>
+ */
+public final class HostThrottle {
+
+    private final int maxConcurrentPerHost;
+    private final long minIntervalNanos;
+    private final Map<String, HostState> hosts = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a throttle with the given per-host limits.
+     *
+     * @param maxConcurrentPerHost maximum number of in-flight requests per host
+     * @param requestsPerSecond    maximum number of requests started per second per host (0 = unlimited)
+     */
+    public HostThrottle(final int maxConcurrentPerHost, final double requestsPerSecond) {
+        this.maxConcurrentPerHost = maxConcurrentPerHost;
+        this.minIntervalNanos = requestsPerSecond > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / requestsPerSecond) : 0;
+    }
+
+    /**
+     * Constructs a throttle from the download options.
+     *
+     * @param options the download options
+     */
+    public HostThrottle(final DownloadOptions options) {
+        this(options.getDownloadConcurrency(), options.getRequestsPerSecond());
+    }
+
+    /**
+     * Executes the call once the host of the URL has a free slot and its rate limit allows a new request.
+     *
+     * @param url  the URL the call is going to fetch
+     * @param call the request to execute
+     * @param <T>  the type of the result
+     * @return the result of the call
+     * @throws IOException if the call fails or the wait is interrupted
+     */
+    public <T> T execute(final String url, final ThrottledCall<T> call) throws IOException {
+        final HostState host = hosts.computeIfAbsent(hostOf(url), h -> new HostState(maxConcurrentPerHost));
+
+        try {
+            host.permits.acquire();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for a connection to " + url, e);
+        }
+
+        try {
+            host.awaitRateSlot(minIntervalNanos);
+            return call.call();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the rate limit of " + url, e);
+        } finally {
+            host.permits.release();
+        }
+    }
+
+    private static String hostOf(final String url) {
+        try {
+            final String host = URI.create(url).getHost();
+            return host == null ? "" : host.toLowerCase();
+        } catch (final IllegalArgumentException e) {
+            return "";
+        }
+    }
+
+    /**
+     * A request executed under the throttle.
+     *
+     * @param <T> the type of the result
+     */
+    @FunctionalInterface
+    public interface ThrottledCall<T> {
+        T call() throws IOException;
+    }
+
+    /**
+     * Concurrency permits and the next free request slot of one host.
+     */
+    private static final class HostState {
+        private final Semaphore permits;
+        private long nextSlotNanos = System.nanoTime();
+
+        private HostState(final int maxConcurrent) {
+            this.permits = new Semaphore(maxConcurrent, true);
+        }
+
+        private void awaitRateSlot(final long minIntervalNanos) throws InterruptedException {
+            if (minIntervalNanos <= 0) {
+                return;
+            }
+
+            final long waitNanos;
+            synchronized (this) {
+                final long now = System.nanoTime();
+                final long slot = Math.max(now, nextSlotNanos);
+                nextSlotNanos = slot + minIntervalNanos;
+                waitNanos = slot - now;
+            }
+
+            if (waitNanos > 0) {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            }
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package eu.virtualparadox.comictoolset.downloader;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Per-issue record of the expected pages, stored as {@value #FILE_NAME} inside the issue folder.
+ * <p>
+ * Every expected page is listed with its source URL, and pages that are on disk additionally with
+ * their file name, size and SHA-256 checksum. An issue is complete only when every listed page
+ * has been written and its file still has the recorded size.
+ * </p>
+ */
+@Data
+@NoArgsConstructor
+public class IssueManifest {
+
+    /** Name of the manifest file inside the issue folder */
+    public static final String FILE_NAME = ".manifest.json";
+
+    private static final Logger logger = LoggerFactory.getLogger(IssueManifest.class);
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    /** The URL of the issue the pages were collected from */
+    private String issueUrl;
+
+    /** One entry per expected page, ordered by page number */
+    private List<PageEntry> pages = new ArrayList<>();
+
+    /**
+     * A single expected page. {@code fileName} is {@code null} until the page has been written.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PageEntry {
+
+        /** The zero-based page number within the issue */
+        private int number;
+
+        /** The source URL of the page image */
+        private String url;
+
+        /** The file name of the page inside the issue folder, or {@code null} if missing */
+        private String fileName;
+
+        /** The size of the page file in bytes */
+        private long size;
+
+        /** The lowercase hex SHA-256 checksum of the page file */
+        private String sha256;
+    }
+
+    /**
+     * Reads the manifest of an issue folder.
+     *
+     * @param issueFolder the issue folder
+     * @return the manifest, or {@code null} if the folder has none or it cannot be parsed
+     */
+    public static IssueManifest read(final Path issueFolder) {
+        final Path manifestPath = issueFolder.resolve(FILE_NAME);
+        if (!Files.isRegularFile(manifestPath)) {
+            return null;
+        }
+
+        try {
+            return MAPPER.readValue(manifestPath.toFile(), IssueManifest.class);
+        } catch (final IOException e) {
+            logger.warn("Ignoring unreadable manifest '{}': {}", manifestPath, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Writes the manifest into the issue folder, replacing any previous version atomically.
+     *
+     * @param issueFolder the issue folder
+     * @throws IOException if the manifest cannot be written
+     */
+    public void write(final Path issueFolder) throws IOException {
+        final Path tempPath = issueFolder.resolve(FILE_NAME + ".part");
+        MAPPER.writeValue(tempPath.toFile(), this);
+        Files.move(tempPath, issueFolder.resolve(FILE_NAME), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Checks whether every expected page is present in the folder with its recorded size.
+     * Checksums are not recomputed here, so this check stays cheap for issues that are already done.
+     *
+     * @param issueFolder the issue folder
+     * @return {@code true} if the issue is complete
+     */
+    public boolean isSatisfiedBy(final Path issueFolder) {
+        if (pages.isEmpty()) {
+            return false;
+        }
+
+        for (final PageEntry entry : pages) {
+            if (entry.getFileName() == null) {
+                return false;
+            }
+            final Path pagePath = issueFolder.resolve(entry.getFileName());
+            try {
+                if (!Files.isRegularFile(pagePath) || Files.size(pagePath) != entry.getSize()) {
+                    return false;
+                }
+            } catch (final IOException e) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the number of expected pages that have been written.
+     *
+     * @return the number of pages on disk
+     */
+    public long countWrittenPages() {
+        return pages.stream().filter(entry -> entry.getFileName() != null).count();
+    }
+
+    /**
+     * Computes the SHA-256 checksum of raw bytes.
+     *
+     * @param data the bytes to hash
+     * @return the lowercase hex checksum
+     */
+    public static String sha256(final byte[] data) {
+        return HexFormat.of().formatHex(createDigest().digest(data));
+    }
+
+    /**
+     * Computes the SHA-256 checksum of a file, streaming its content.
+     *
+     * @param file the file to hash
+     * @return the lowercase hex checksum
+     * @throws IOException if the file cannot be read
+     */
+    public static String sha256(final Path file) throws IOException {
+        final MessageDigest digest = createDigest();
+        try (InputStream in = new DigestInputStream(Files.newInputStream(file), digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package eu.virtualparadox.comictoolset.downloader;
+
+import eu.virtualparadox.comictoolset.TimeWatch;
+import eu.virtualparadox.comictoolset.downloader.issuecollector.IssueCollector;
+import eu.virtualparadox.comictoolset.downloader.issuecollector.IssueCollectorFactory;
+import eu.virtualparadox.comictoolset.downloader.pagecollector.PageCollector;
+import eu.virtualparadox.comictoolset.downloader.pagecollector.PageCollectorFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Downloads many comic series in a single run.
+ * <p>
+ * Every series is downloaded by its own {@link Downloader} into {@code <outputFolder>/<series name>}, or into
+ * {@code <outputFolder>/<host>/<series name>} if series of several hosts in the run have the same name, and
+ * up to {@link DownloadOptions#getSeriesConcurrency()} series run at the same time, at most
+ * {@link DownloadOptions#getSeriesPerHost()} of them against the same host. All series of a host share one
+ * {@link PageCollector}, so its browser pool and its per-host image request limits apply to the whole run,
+ * not to each series separately. The outcome of every series is added to one aggregate
+ * {@link DownloadProgress}, which is logged whenever a series finishes.
+ * </p>
+ */
+public class LibraryDownloader {
+
+    private static final Logger logger = LoggerFactory.getLogger(LibraryDownloader.class);
+
+    /** Lines of a comic root list starting with this prefix are ignored */
+    private static final String COMMENT_PREFIX = "#";
+
+    private final List<String> comicRoots;
+    private final Map<String, Path> seriesFolders;
+    private final DownloadOptions options;
+    private final Function<String, IssueCollector> issueCollectorFactory;
+    private final Function<String, PageCollector> pageCollectorFactory;
+
+    /**
+     * Constructs a downloader for the given series, picking the collectors of each series by its site.
+     *
+     * @param comicRoots   the root URLs of the series
+     * @param outputFolder the folder receiving one sub-folder per series
+     * @param options      the download options
+     */
+    public LibraryDownloader(final List<String> comicRoots, final Path outputFolder, final DownloadOptions options) {
+        this(comicRoots, outputFolder, options,
+                comicRoot -> IssueCollectorFactory.createIssueCollector(comicRoot, options),
+                comicRoot -> PageCollectorFactory.createPageCollector(comicRoot, options));
+    }
+
+    /**
+     * Constructs a downloader with custom collector factories.
+     *
+     * @param comicRoots            the root URLs of the series
+     * @param outputFolder          the folder receiving one sub-folder per series
+     * @param options               the download options
+     * @param issueCollectorFactory creates the issue collector of a series from its root URL
+     * @param pageCollectorFactory  creates the shared page collector of a host from the root URL of its first series
+     */
+    LibraryDownloader(final List<String> comicRoots,
+                      final Path outputFolder,
+                      final DownloadOptions options,
+                      final Function<String, IssueCollector> issueCollectorFactory,
+                      final Function<String, PageCollector> pageCollectorFactory) {
+        this.comicRoots = List.copyOf(comicRoots);
+        this.seriesFolders = assignSeriesFolders(this.comicRoots, outputFolder);
+        this.options = options;
+        this.issueCollectorFactory = issueCollectorFactory;
+        this.pageCollectorFactory = pageCollectorFactory;
+    }
+
+    /**
+     * Reads a list of comic roots: one URL per line, blank lines and lines starting with {@code #} are ignored,
+     * and duplicates are dropped.
+     *
+     * @param listFile the file to read
+     * @return the comic roots in the order of the file
+     * @throws IOException if the file cannot be read
+     */
+    public static List<String> readComicRoots(final Path listFile) throws IOException {
+        final Set<String> comicRoots = new LinkedHashSet<>();
+        for (final String line : Files.readAllLines(listFile)) {
+            final String comicRoot = line.trim();
+            if (!comicRoot.isEmpty() && !comicRoot.startsWith(COMMENT_PREFIX)) {
+                comicRoots.add(comicRoot);
+            }
+        }
+        return new ArrayList<>(comicRoots);
+    }
+
+    /**
+     * Downloads every series and closes the shared page collectors afterwards.
+     * A series that fails (e.g. because its site is unsupported or its issue list cannot be fetched)
+     * is counted as failed without affecting the others.
+     *
+     * @return the aggregate outcome of the issues of every series
+     */
+    public DownloadProgress download() {
+        final TimeWatch watch = TimeWatch.start();
+        final DownloadProgress total = new DownloadProgress();
+        final Semaphore seriesPermits = new Semaphore(options.getSeriesConcurrency(), true);
+        final Map<String, Semaphore> hostPermits = new ConcurrentHashMap<>();
+        final Map<String, PageCollector> pageCollectors = new ConcurrentHashMap<>();
+        final AtomicInteger finishedSeries = new AtomicInteger();
+        final AtomicInteger failedSeries = new AtomicInteger();
+
+        logger.info("Downloading {} series, {} at a time, {} per host", comicRoots.size(),
+                options.getSeriesConcurrency(), options.getSeriesPerHost());
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (final String comicRoot : comicRoots) {
+                final String host = hostKey(comicRoot);
+                final Semaphore perHost = hostPermits.computeIfAbsent(host, h -> new Semaphore(options.getSeriesPerHost(), true));
+                executor.execute(() -> {
+                    // the host permit is taken first, so a series waiting for its host never holds a global slot
+                    if (!acquire(perHost, comicRoot)) {
+                        return;
+                    }
+                    try {
+                        if (!acquire(seriesPermits, comicRoot)) {
+                            return;
+                        }
+                        try {
+                            final DownloadProgress series = downloadSeries(comicRoot, host, pageCollectors);
+                            total.add(series);
+                            logger.info("[{}/{} series] '{}': {} | total: {}", finishedSeries.incrementAndGet(), comicRoots.size(),
+                                    seriesName(comicRoot), series, total);
+                        } catch (RuntimeException e) {
+                            failedSeries.incrementAndGet();
+                            logger.error("[{}/{} series] Failed to download '{}': {}", finishedSeries.incrementAndGet(), comicRoots.size(),
+                                    comicRoot, e.getMessage());
+                        } finally {
+                            seriesPermits.release();
+                        }
+                    } finally {
+                        perHost.release();
+                    }
+                });
+            }
+        } finally {
+            pageCollectors.values().forEach(PageCollector::close);
+        }
+
+        logger.info("Downloaded {} series ({} failed) in {}: {}", comicRoots.size(), failedSeries.get(), watch.toMilliSeconds(), total);
+        return total;
+    }
+
+    private DownloadProgress downloadSeries(final String comicRoot, final String host, final Map<String, PageCollector> pageCollectors) {
+        final IssueCollector issueCollector = issueCollectorFactory.apply(comicRoot);
+        final PageCollector pageCollector = pageCollectors.computeIfAbsent(host, h -> pageCollectorFactory.apply(comicRoot));
+        final Downloader downloader = new Downloader(issueCollector, pageCollector, seriesFolders.get(comicRoot), options);
+        return downloader.download();
+    }
+
+    /**
+     * Gives every series its own folder: the series name, qualified with the host if series of several hosts share it.
+     */
+    private static Map<String, Path> assignSeriesFolders(final List<String> comicRoots, final Path outputFolder) {
+        final Map<String, Set<String>> hostsByName = new HashMap<>();
+        for (final String comicRoot : comicRoots) {
+            hostsByName.computeIfAbsent(seriesName(comicRoot), n -> new HashSet<>()).add(hostKey(comicRoot));
+        }
+
+        final Map<String, Path> folders = new HashMap<>();
+        for (final String comicRoot : comicRoots) {
+            final String name = seriesName(comicRoot);
+            folders.put(comicRoot, hostsByName.get(name).size() > 1
+                    ? outputFolder.resolve(hostKey(comicRoot)).resolve(name)
+                    : outputFolder.resolve(name));
+        }
+        return folders;
+    }
+
+    private static boolean acquire(final Semaphore semaphore, final String comicRoot) {
+        try {
+            semaphore.acquire();
+            return true;
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Interrupted before downloading '{}'", comicRoot);
+            return false;
+        }
+    }
+
+    private static String hostKey(final String comicRoot) {
+        final String host = UrlUtils.getHost(comicRoot);
+        return host == null ? "" : host;
+    }
+
+    private static String seriesName(final String comicRoot) {
+        final String name = UrlUtils.getSeriesName(comicRoot);
+        return name == null ? hostKey(comicRoot) : name;
+    }
+}
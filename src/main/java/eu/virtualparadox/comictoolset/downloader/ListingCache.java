@@ -0,0 +1,180 @@
+package eu.virtualparadox.comictoolset.downloader;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.jsoup.Connection;
+import org.jsoup.HttpStatusException;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+
+/**
+ * On-disk HTTP cache of the listing pages of comic series.
+ * <p>
+ * A cached page younger than the TTL is served without any request. Older pages are revalidated with a
+ * conditional request ({@code If-None-Match} / {@code If-Modified-Since} from the stored {@code ETag} and
+ * {@code Last-Modified}); on {@code 304 Not Modified} the cached page is reused and its age is reset.
+ * Every URL is stored as two files named after the SHA-256 of the URL: the page body and its metadata.
+ * A cache without folder passes every request through.
+ * </p>
+ */
+public class ListingCache {
+
+    /** How long a cached page is used without revalidation by default */
+    public static final Duration DEFAULT_TTL = Duration.ofMinutes(15);
+
+    private static final Logger logger = LoggerFactory.getLogger(ListingCache.class);
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final String BODY_EXTENSION = ".html";
+    private static final String ENTRY_EXTENSION = ".json";
+    private static final String TEMP_SUFFIX = ".part";
+    private static final int HTTP_NOT_MODIFIED = 304;
+    private static final int HTTP_OK = 200;
+
+    private final Path folder;
+    private final Duration ttl;
+
+    /**
+     * Metadata of a cached page.
+     */
+    @Data
+    @NoArgsConstructor
+    public static class CacheEntry {
+
+        /** The URL the page was fetched from */
+        private String url;
+
+        /** The {@code ETag} response header, or {@code null} if the server sent none */
+        private String etag;
+
+        /** The {@code Last-Modified} response header, or {@code null} if the server sent none */
+        private String lastModified;
+
+        /** When the page was last fetched or revalidated, in epoch milliseconds */
+        private long fetchedAt;
+    }
+
+    /**
+     * Constructs a cache.
+     *
+     * @param folder the folder of the cached pages, or {@code null} to disable caching
+     * @param ttl    how long a cached page is used without revalidation
+     */
+    public ListingCache(final Path folder, final Duration ttl) {
+        this.folder = folder;
+        this.ttl = ttl;
+    }
+
+    /**
+     * Returns the default cache folder in the user's home directory.
+     *
+     * @return the default cache folder
+     */
+    public static Path defaultFolder() {
+        return Path.of(System.getProperty("user.home"), ".comictoolset", "listing-cache");
+    }
+
+    /**
+     * Returns the listing page at the given URL, from the cache whenever it is still valid.
+     *
+     * @param url the URL of the listing page
+     * @return the parsed page
+     * @throws IOException if the page is neither cached nor can be fetched
+     */
+    public Document fetch(final String url) throws IOException {
+        if (folder == null) {
+            return Jsoup.connect(url).get();
+        }
+
+        final String key = IssueManifest.sha256(url.getBytes(StandardCharsets.UTF_8));
+        final Path bodyPath = folder.resolve(key + BODY_EXTENSION);
+        final Path entryPath = folder.resolve(key + ENTRY_EXTENSION);
+        final CacheEntry entry = readEntry(entryPath, bodyPath, url);
+
+        if (entry != null && System.currentTimeMillis() - entry.getFetchedAt() < ttl.toMillis()) {
+            logger.debug("Listing '{}' served from cache", url);
+            return Jsoup.parse(Files.readString(bodyPath), url);
+        }
+
+        final Connection connection = Jsoup.connect(url).ignoreHttpErrors(true);
+        if (entry != null && entry.getEtag() != null) {
+            connection.header("If-None-Match", entry.getEtag());
+        }
+        if (entry != null && entry.getLastModified() != null) {
+            connection.header("If-Modified-Since", entry.getLastModified());
+        }
+        final Connection.Response response = connection.execute();
+
+        if (entry != null && response.statusCode() == HTTP_NOT_MODIFIED) {
+            logger.debug("Listing '{}' not modified", url);
+            entry.setFetchedAt(System.currentTimeMillis());
+            writeEntry(entryPath, entry);
+            return Jsoup.parse(Files.readString(bodyPath), url);
+        }
+
+        if (response.statusCode() != HTTP_OK) {
+            throw new HttpStatusException("HTTP error fetching URL", response.statusCode(), url);
+        }
+
+        final String body = response.body();
+        final CacheEntry fresh = new CacheEntry();
+        fresh.setUrl(url);
+        fresh.setEtag(response.header("ETag"));
+        fresh.setLastModified(response.header("Last-Modified"));
+        fresh.setFetchedAt(System.currentTimeMillis());
+        store(bodyPath, body, entryPath, fresh);
+        return Jsoup.parse(body, url);
+    }
+
+    private CacheEntry readEntry(final Path entryPath, final Path bodyPath, final String url) {
+        if (!Files.isRegularFile(entryPath) || !Files.isRegularFile(bodyPath)) {
+            return null;
+        }
+
+        try {
+            final CacheEntry entry = MAPPER.readValue(entryPath.toFile(), CacheEntry.class);
+            return url.equals(entry.getUrl()) ? entry : null;
+        } catch (final IOException e) {
+            logger.warn("Ignoring unreadable cache entry '{}': {}", entryPath, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Writes the body before its metadata, so a metadata file never points to a missing or older body.
+     * The cache is an optimization only, failing to write it is not an error.
+     */
+    private void store(final Path bodyPath, final String body, final Path entryPath, final CacheEntry entry) {
+        try {
+            Files.createDirectories(folder);
+            final Path tempPath = bodyPath.resolveSibling(bodyPath.getFileName() + TEMP_SUFFIX);
+            Files.writeString(tempPath, body);
+            Files.move(tempPath, bodyPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (final IOException e) {
+            logger.warn("Failed to cache listing '{}': {}", entry.getUrl(), e.getMessage());
+            return;
+        }
+        writeEntry(entryPath, entry);
+    }
+
+    private void writeEntry(final Path entryPath, final CacheEntry entry) {
+        try {
+            final Path tempPath = entryPath.resolveSibling(entryPath.getFileName() + TEMP_SUFFIX);
+            MAPPER.writeValue(tempPath.toFile(), entry);
+            Files.move(tempPath, entryPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (final IOException e) {
+            logger.warn("Failed to cache listing '{}': {}", entry.getUrl(), e.getMessage());
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package eu.virtualparadox.comictoolset.downloader;
 
 import java.net.MalformedURLException;
+import java.net.URI;
 import java.net.URL;
 
 /**
@@ -33,4 +34,74 @@ public class UrlUtils {
             return null;
         }
     }
+
+    /**
+     * Extracts the lower-case host name from a full URL.
+     * <p>
+     * Example: {@code https://ReadComicOnline.li/Comic/Dylan-Dog} → {@code readcomiconline.li}
+     * </p>
+     *
+     * @param url the full URL
+     * @return the host name, or {@code null} if invalid
+     */
+    public static String getHost(final String url) {
+        if (url == null || url.isEmpty()) {
+            return null;
+        }
+
+        try {
+            final String host = URI.create(url).getHost();
+            return host == null || host.isEmpty() ? null : host.toLowerCase();
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Extracts the name of a comic series from its root URL: the path segment after {@code /Comic/},
+     * or the last path segment if the URL does not follow that structure.
+     * <p>
+     * Example: {@code https://readcomiconline.li/Comic/Dylan-Dog-1986} → {@code Dylan-Dog-1986}
+     * </p>
+     * <p>
+     * The name is used as a folder name, so {@code .}, {@code ..} and names containing a backslash are rejected.
+     * </p>
+     *
+     * @param url the root URL of the comic
+     * @return the series name, or {@code null} if the URL is invalid, has no path or its name is not a safe folder name
+     */
+    public static String getSeriesName(final String url) {
+        if (url == null || url.isEmpty()) {
+            return null;
+        }
+
+        try {
+            final String path = URI.create(url).getPath();
+            if (path == null) {
+                return null;
+            }
+            final String[] segments = path.split("/");
+            for (int i = 0; i < segments.length - 1; i++) {
+                if ("Comic".equalsIgnoreCase(segments[i]) && !segments[i + 1].isEmpty()) {
+                    return toFolderName(segments[i + 1]);
+                }
+            }
+            for (int i = segments.length - 1; i >= 0; i--) {
+                if (!segments[i].isEmpty()) {
+                    return toFolderName(segments[i]);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+
+        return null;
+    }
+
+    private static String toFolderName(final String segment) {
+        if (".".equals(segment) || "..".equals(segment) || segment.contains("\\")) {
+            return null;
+        }
+        return segment;
+    }
 }
@@ -0,0 +1,192 @@
+package eu.virtualparadox.comictoolset.downloader;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+/**
+ * Pool of long-lived {@link WebDriver} sessions.
+ * <p>
+ * Starting a headless browser takes seconds, so sessions are created lazily, up to the pool size,
+ * and handed out again and again. A session is health-checked before every borrow, and it is
+ * replaced by a fresh one after a configurable number of uses to keep the memory of the browser bounded.
+ * Borrowed sessions must be returned by closing their {@link Lease}, preferably via try-with-resources.
+ * </p>
+ */
+public class WebDriverPool implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(WebDriverPool.class);
+
+    /** Page loaded into a returned session, so the previous page stops running scripts */
+    private static final String BLANK_PAGE = "about:blank";
+
+    private final Supplier<WebDriver> driverFactory;
+    private final int maxUses;
+    private final Semaphore permits;
+    private final Deque<PooledDriver> idle = new ArrayDeque<>();
+    private boolean closed;
+
+    /**
+     * Constructs a pool.
+     *
+     * @param driverFactory creates a new browser session
+     * @param size          maximum number of sessions alive at the same time
+     * @param maxUses       number of borrows after which a session is quit and replaced
+     */
+    public WebDriverPool(final Supplier<WebDriver> driverFactory, final int size, final int maxUses) {
+        if (size <= 0 || maxUses <= 0) {
+            throw new IllegalArgumentException("Pool size and max uses must be positive integers");
+        }
+        this.driverFactory = driverFactory;
+        this.maxUses = maxUses;
+        this.permits = new Semaphore(size, true);
+    }
+
+    /**
+     * Borrows a healthy session, waiting until one is available.
+     *
+     * @return the lease of the session; close it to return the session to the pool
+     * @throws InterruptedException if interrupted while waiting for a free session
+     */
+    public Lease borrow() throws InterruptedException {
+        permits.acquire();
+        try {
+            while (true) {
+                final PooledDriver pooled = pollIdle();
+                if (pooled == null) {
+                    logger.debug("Starting a new browser session");
+                    return new Lease(new PooledDriver(driverFactory.get()));
+                }
+                if (isHealthy(pooled.driver)) {
+                    return new Lease(pooled);
+                }
+                logger.info("Replacing an unresponsive browser session");
+                quit(pooled.driver);
+            }
+        } catch (final RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Quits every idle session. Sessions still borrowed are quit when they are returned.
+     */
+    @Override
+    public void close() {
+        synchronized (idle) {
+            closed = true;
+            idle.forEach(pooled -> quit(pooled.driver));
+            idle.clear();
+        }
+    }
+
+    private PooledDriver pollIdle() {
+        synchronized (idle) {
+            if (closed) {
+                throw new IllegalStateException("WebDriver pool is closed");
+            }
+            return idle.pollFirst();
+        }
+    }
+
+    private void giveBack(final PooledDriver pooled, final boolean broken) {
+        try {
+            pooled.uses++;
+            if (broken || pooled.uses >= maxUses || !reset(pooled.driver)) {
+                quit(pooled.driver);
+                return;
+            }
+
+            synchronized (idle) {
+                if (closed) {
+                    quit(pooled.driver);
+                } else {
+                    idle.addFirst(pooled);
+                }
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    private static boolean isHealthy(final WebDriver driver) {
+        try {
+            driver.getWindowHandle();
+            return true;
+        } catch (final WebDriverException e) {
+            return false;
+        }
+    }
+
+    private static boolean reset(final WebDriver driver) {
+        try {
+            driver.get(BLANK_PAGE);
+            return true;
+        } catch (final WebDriverException e) {
+            return false;
+        }
+    }
+
+    private static void quit(final WebDriver driver) {
+        try {
+            driver.quit();
+        } catch (final WebDriverException e) {
+            logger.warn("Failed to quit browser session: {}", e.getMessage());
+        }
+    }
+
+    private static final class PooledDriver {
+        private final WebDriver driver;
+        private int uses;
+
+        private PooledDriver(final WebDriver driver) {
+            this.driver = driver;
+        }
+    }
+
+    /**
+     * A borrowed session. Closing the lease returns the session to the pool,
+     * or quits it if it was marked broken or has reached its maximum number of uses.
+     */
+    public final class Lease implements AutoCloseable {
+
+        private final PooledDriver pooled;
+        private boolean broken;
+        private boolean returned;
+
+        private Lease(final PooledDriver pooled) {
+            this.pooled = pooled;
+        }
+
+        /**
+         * Returns the borrowed session.
+         *
+         * @return the web driver
+         */
+        public WebDriver driver() {
+            return pooled.driver;
+        }
+
+        /**
+         * Marks the session as broken, so it is quit instead of being reused.
+         */
+        public void invalidate() {
+            broken = true;
+        }
+
+        @Override
+        public void close() {
+            if (!returned) {
+                returned = true;
+                giveBack(pooled, broken);
+            }
+        }
+    }
+}
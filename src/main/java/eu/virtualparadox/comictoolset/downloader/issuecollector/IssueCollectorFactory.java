@@ -1,5 +1,7 @@
 package eu.virtualparadox.comictoolset.downloader.issuecollector;
 
+import eu.virtualparadox.comictoolset.downloader.DownloadOptions;
+import eu.virtualparadox.comictoolset.downloader.ListingCache;
 import eu.virtualparadox.comictoolset.downloader.issuecollector.readcomiconline.ReadComicOnlineIssueCollector;
 
 /**
@@ -20,15 +22,28 @@ public class IssueCollectorFactory {
     }
 
     /**
-     * Creates an {@link IssueCollector} for the given comic root URL.
+     * Creates an {@link IssueCollector} for the given comic root URL, fetching the listing page without caching.
      *
      * @param comicRoot the full root URL of the comic series
      * @return an appropriate {@link IssueCollector} for the source
      * @throws IllegalArgumentException if the source is unsupported
      */
     public static IssueCollector createIssueCollector(final String comicRoot) {
+        return createIssueCollector(comicRoot, DownloadOptions.defaults());
+    }
+
+    /**
+     * Creates an {@link IssueCollector} for the given comic root URL, caching the listing page as configured.
+     *
+     * @param comicRoot the full root URL of the comic series
+     * @param options   the download options (listing cache folder and TTL)
+     * @return an appropriate {@link IssueCollector} for the source
+     * @throws IllegalArgumentException if the source is unsupported
+     */
+    public static IssueCollector createIssueCollector(final String comicRoot, final DownloadOptions options) {
         if (comicRoot.contains(READ_COMIC_ONLINE_IDENTIFIER)) {
-            return new ReadComicOnlineIssueCollector(comicRoot);
+            final ListingCache listingCache = new ListingCache(options.getListingCacheFolder(), options.getListingCacheTtl());
+            return new ReadComicOnlineIssueCollector(comicRoot, listingCache);
         }
         throw new IllegalArgumentException("Unsupported comic root: " + comicRoot);
     }
@@ -1,9 +1,9 @@
 package eu.virtualparadox.comictoolset.downloader.issuecollector.readcomiconline;
 
+import eu.virtualparadox.comictoolset.downloader.ListingCache;
 import eu.virtualparadox.comictoolset.downloader.UrlUtils;
 import eu.virtualparadox.comictoolset.downloader.issuecollector.Issue;
 import eu.virtualparadox.comictoolset.downloader.issuecollector.IssueCollector;
-import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
 import org.jsoup.select.Elements;
@@ -24,6 +24,8 @@ import java.util.regex.Pattern;
  * <p>
  * This implementation connects to a comic's root URL, parses the HTML content,
  * extracts issue URLs based on the naming convention (e.g., Issue-001), and wraps them into {@link Issue} objects.
+ * The root page is fetched through a {@link ListingCache}, so polling an unchanged series costs at most
+ * a conditional request.
  * </p>
  */
 public class ReadComicOnlineIssueCollector implements IssueCollector {
@@ -39,14 +41,26 @@ public class ReadComicOnlineIssueCollector implements IssueCollector {
 
     private final Logger logger = LoggerFactory.getLogger(ReadComicOnlineIssueCollector.class);
     private final String comicRoot;
+    private final ListingCache listingCache;
 
     /**
-     * Constructs a new issue collector for the given comic root URL.
+     * Constructs a new issue collector for the given comic root URL, fetching the root page without caching.
      *
      * @param comicRoot the full URL to the main comic page on ReadComicOnline
      */
     public ReadComicOnlineIssueCollector(final String comicRoot) {
+        this(comicRoot, new ListingCache(null, ListingCache.DEFAULT_TTL));
+    }
+
+    /**
+     * Constructs a new issue collector for the given comic root URL.
+     *
+     * @param comicRoot    the full URL to the main comic page on ReadComicOnline
+     * @param listingCache the cache the root page is fetched through
+     */
+    public ReadComicOnlineIssueCollector(final String comicRoot, final ListingCache listingCache) {
         this.comicRoot = comicRoot;
+        this.listingCache = listingCache;
     }
 
     /**
@@ -62,7 +76,7 @@ public class ReadComicOnlineIssueCollector implements IssueCollector {
 
         try {
             final List<String> issueUrls = new ArrayList<>();
-            final Document doc = Jsoup.connect(comicRoot).get();
+            final Document doc = listingCache.fetch(comicRoot);
             final Elements issueLinks = doc.select(String.format(ISSUE_LINK_SELECTOR, comicName));
 
             for (Element link : issueLinks) {
@@ -49,7 +49,16 @@ public class Page {
      * @return the padded filename
      */
     public String getPaddedName() {
-        final String paddedPage = StringUtils.leftPad(String.valueOf(number), 4, '0');
-        return paddedPage + "." + format;
+        return getPaddedNumber(number) + "." + format;
+    }
+
+    /**
+     * Returns the zero-padded page number used as the base of page file names, e.g. "0005" for page 5.
+     *
+     * @param number the page number
+     * @return the padded page number
+     */
+    public static String getPaddedNumber(final int number) {
+        return StringUtils.leftPad(String.valueOf(number), 4, '0');
     }
 }
@@ -3,22 +3,50 @@ package eu.virtualparadox.comictoolset.downloader.pagecollector;
 import eu.virtualparadox.comictoolset.downloader.issuecollector.Issue;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 
 /**
  * Interface for collecting individual comic pages from a given {@link Issue}.
  * <p>
- * Implementations are responsible for downloading or extracting page images and returning them as {@link Page} objects.
+ * Implementations are responsible for downloading or extracting page images and handing them over as {@link Page} objects.
+ * A collector may be used for many issues, also concurrently, and releases its resources when it is closed.
  * </p>
  */
-public interface PageCollector {
+public interface PageCollector extends AutoCloseable {
 
     /**
-     * Collects all pages (images) of a specific comic issue.
+     * Downloads all pages of a specific comic issue and passes each page to the sink as soon as it arrives.
+     * <p>
+     * Only the pages currently in flight are held in memory, independently of the size of the issue.
+     * </p>
      *
      * @param issue the comic issue to collect pages from
-     * @return a list of {@link Page} objects containing image data and metadata
+     * @param sink  receives every page, possibly out of order and concurrently
+     * @throws IOException if downloading a page or storing it in the sink fails
+     */
+    void streamPages(final Issue issue, final PageSink sink) throws IOException;
+
+    /**
+     * Collects all pages (images) of a specific comic issue into memory.
+     *
+     * @param issue the comic issue to collect pages from
+     * @return a list of {@link Page} objects containing image data and metadata, ordered by page number
      * @throws IOException if downloading or reading page data fails
      */
-    List<Page> collectPages(final Issue issue) throws IOException;
+    default List<Page> collectPages(final Issue issue) throws IOException {
+        final List<Page> pages = Collections.synchronizedList(new ArrayList<>());
+        streamPages(issue, pages::add);
+        pages.sort(Comparator.comparingInt(Page::getNumber));
+        return pages;
+    }
+
+    /**
+     * Releases the resources held across issues (e.g. browser sessions).
+     */
+    @Override
+    default void close() {
+    }
 }
@@ -1,5 +1,6 @@
 package eu.virtualparadox.comictoolset.downloader.pagecollector;
 
+import eu.virtualparadox.comictoolset.downloader.DownloadOptions;
 import eu.virtualparadox.comictoolset.downloader.pagecollector.readcomiconline.ReadComicOnlinePageCollector;
 
 /**
@@ -22,12 +23,13 @@ public class PageCollectorFactory {
      * Creates a {@link PageCollector} instance for the given comic root URL.
      *
      * @param comicRoot the root URL of the comic series (e.g., homepage of a title)
+     * @param options   the download options (concurrency and rate limits)
      * @return a suitable {@link PageCollector} implementation
      * @throws IllegalArgumentException if the comic source is unsupported
      */
-    public static PageCollector createPageCollector(final String comicRoot) {
+    public static PageCollector createPageCollector(final String comicRoot, final DownloadOptions options) {
         if (comicRoot.contains(READ_COMIC_ONLINE_IDENTIFIER)) {
-            return new ReadComicOnlinePageCollector();
+            return new ReadComicOnlinePageCollector(options);
         }
         throw new IllegalArgumentException("Unsupported comic root: " + comicRoot);
     }
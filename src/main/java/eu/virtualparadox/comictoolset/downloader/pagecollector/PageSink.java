@@ -0,0 +1,56 @@
+package eu.virtualparadox.comictoolset.downloader.pagecollector;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Receives the pages of an issue one by one, as soon as each of them has been downloaded.
+ * <p>
+ * Pages may arrive out of order and from several download threads at once, so implementations
+ * must be thread-safe. A sink is expected to persist or otherwise consume the page and then drop
+ * its reference to the image data, so an issue never has to fit in memory as a whole.
+ * </p>
+ */
+@FunctionalInterface
+public interface PageSink {
+
+    /**
+     * Called once, before any download, with the image URLs of every page of the issue.
+     * The index of a URL in the list is the number of its page.
+     *
+     * @param urls the page image URLs in page order
+     * @throws IOException if the sink cannot prepare for the pages
+     */
+    default void begin(final List<String> urls) throws IOException {
+    }
+
+    /**
+     * Tells whether the page still has to be downloaded. Sinks that resume a previous download
+     * return {@code false} for pages they already hold.
+     *
+     * @param number the page number
+     * @param url    the page image URL
+     * @return {@code true} if the page should be downloaded and passed to {@link #accept(Page)}
+     */
+    default boolean needs(final int number, final String url) {
+        return true;
+    }
+
+    /**
+     * Called from the download thread right before the page is downloaded. Sinks that buffer pages
+     * may block here until the page fits, so downloads cannot run arbitrarily far ahead of the sink.
+     *
+     * @param number the page number
+     * @throws IOException if the wait is interrupted or the sink has already failed
+     */
+    default void reserve(final int number) throws IOException {
+    }
+
+    /**
+     * Consumes a single downloaded page.
+     *
+     * @param page the downloaded page including its image data
+     * @throws IOException if the page cannot be stored
+     */
+    void accept(final Page page) throws IOException;
+}
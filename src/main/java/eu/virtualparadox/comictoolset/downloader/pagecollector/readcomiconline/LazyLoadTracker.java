@@ -0,0 +1,82 @@
+package eu.virtualparadox.comictoolset.downloader.pagecollector.readcomiconline;
+
+import java.time.Duration;
+
+/**
+ * Decides when the lazy loading of a reader page is finished and how long to wait between two polls.
+ * <p>
+ * Polls start with a short delay that doubles while nothing new shows up and drops back to the minimum
+ * as soon as new images appear. Loading is finished when the expected number of images is reached
+ * (if the page exposes it), or when the set of images has not grown for a while.
+ * </p>
+ */
+final class LazyLoadTracker {
+
+    private final int expectedCount;
+    private final long minBackoffMillis;
+    private final long maxBackoffMillis;
+    private final long stableNanos;
+    private final long expectedTimeoutNanos;
+
+    private int lastCount;
+    private long lastProgressNanos;
+    private long backoffMillis;
+
+    /**
+     * Constructs a tracker.
+     *
+     * @param expectedCount   the number of images announced by the page, or a non-positive value if unknown
+     * @param minBackoff      the delay after a poll that found new images
+     * @param maxBackoff      the upper bound of the growing delay
+     * @param stableTimeout   how long the set must stay unchanged to count as complete, if the count is unknown
+     * @param expectedTimeout how long to wait for the missing images, if the count is known but not reached
+     * @param startNanos      the current {@link System#nanoTime()}
+     */
+    LazyLoadTracker(final int expectedCount,
+                    final Duration minBackoff,
+                    final Duration maxBackoff,
+                    final Duration stableTimeout,
+                    final Duration expectedTimeout,
+                    final long startNanos) {
+        this.expectedCount = expectedCount;
+        this.minBackoffMillis = minBackoff.toMillis();
+        this.maxBackoffMillis = maxBackoff.toMillis();
+        this.stableNanos = stableTimeout.toNanos();
+        this.expectedTimeoutNanos = expectedTimeout.toNanos();
+        this.lastProgressNanos = startNanos;
+        this.backoffMillis = minBackoffMillis;
+    }
+
+    /**
+     * Records the result of a poll.
+     *
+     * @param count      the number of images found by the poll
+     * @param nowNanos   the current {@link System#nanoTime()}
+     * @return {@code true} if loading is finished
+     */
+    boolean update(final int count, final long nowNanos) {
+        if (count > lastCount) {
+            lastCount = count;
+            lastProgressNanos = nowNanos;
+            backoffMillis = minBackoffMillis;
+        } else {
+            backoffMillis = Math.min(backoffMillis * 2, maxBackoffMillis);
+        }
+
+        if (expectedCount > 0 && count >= expectedCount) {
+            return true;
+        }
+
+        final long idleNanos = nowNanos - lastProgressNanos;
+        return idleNanos >= (expectedCount > 0 ? expectedTimeoutNanos : stableNanos);
+    }
+
+    /**
+     * Returns the delay before the next poll.
+     *
+     * @return the delay in milliseconds
+     */
+    long nextDelayMillis() {
+        return backoffMillis;
+    }
+}
@@ -1,15 +1,20 @@
 package eu.virtualparadox.comictoolset.downloader.pagecollector.readcomiconline;
 
+import eu.virtualparadox.comictoolset.TimeWatch;
+import eu.virtualparadox.comictoolset.downloader.ConcurrentImageFetcher;
+import eu.virtualparadox.comictoolset.downloader.DownloadOptions;
+import eu.virtualparadox.comictoolset.downloader.HostThrottle;
 import eu.virtualparadox.comictoolset.downloader.ImageDownloader;
 import eu.virtualparadox.comictoolset.downloader.ImageFormatDetector;
+import eu.virtualparadox.comictoolset.downloader.WebDriverPool;
 import eu.virtualparadox.comictoolset.downloader.issuecollector.Issue;
 import eu.virtualparadox.comictoolset.downloader.pagecollector.Page;
 import eu.virtualparadox.comictoolset.downloader.pagecollector.PageCollector;
+import eu.virtualparadox.comictoolset.downloader.pagecollector.PageSink;
 import io.github.bonigarcia.wdm.WebDriverManager;
 import org.openqa.selenium.*;
 import org.openqa.selenium.chrome.ChromeDriver;
 import org.openqa.selenium.chrome.ChromeOptions;
-import org.openqa.selenium.support.ui.WebDriverWait;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -20,65 +25,117 @@ import java.util.*;
 /**
  * PageCollector implementation for the ReadComicOnline website.
  * <p>
- * This collector loads the issue's full-read page using Selenium in headless Chrome,
+ * This collector loads the issue's full-read page using Selenium in headless Chrome
+ * (borrowed from a pool of long-lived sessions, so the browser is not restarted for every issue),
  * scrolls through the page to trigger lazy-loading of comic images,
- * and downloads the image data with detected format.
+ * and streams the downloaded image data with detected format to a {@link PageSink}.
  * </p>
  */
 public class ReadComicOnlinePageCollector implements PageCollector {
 
     private static final String ALL_PAGE_READ_TYPE = "&readType=1";
-    private static final int MAX_NO_PROGRESS_TRIES = 5;
+
+    /** Delay between two polls right after new images appeared */
+    private static final Duration MIN_POLL_DELAY = Duration.ofMillis(100);
+
+    /** Upper bound of the growing delay between polls */
+    private static final Duration MAX_POLL_DELAY = Duration.ofMillis(1600);
+
+    /** How long the image set has to stay unchanged when the page does not announce its image count */
+    private static final Duration STABLE_TIMEOUT = Duration.ofSeconds(4);
+
+    /** How long to wait for missing images when the page announces more images than were found */
     private static final Duration WAIT_TIMEOUT = Duration.ofSeconds(10);
 
+    /** Returns the source of every comic image in the DOM in a single round trip */
+    private static final String COLLECT_IMAGE_SOURCES_SCRIPT = """
+            window.scrollTo(0, document.body.scrollHeight);
+            return Array.from(document.images, img => img.src).filter(src => src && src.includes('blogspot'));
+            """;
+
+    /** Returns the number of pages announced by the reader's image list, or -1 if the page does not expose it */
+    private static final String EXPECTED_IMAGE_COUNT_SCRIPT = """
+            return (typeof lstImages !== 'undefined' && Array.isArray(lstImages)) ? lstImages.length : -1;
+            """;
+
     private final Logger logger = LoggerFactory.getLogger(ReadComicOnlinePageCollector.class);
 
-    private final ImageDownloader imageDownloader;
+    private final ConcurrentImageFetcher imageFetcher;
     private final ImageFormatDetector imageFormatDetector;
+    private final WebDriverPool driverPool;
+    private boolean driverSetUp;
 
     /**
-     * Constructs a new ReadComicOnlinePageCollector with internal image downloader and format detector.
+     * Constructs a new ReadComicOnlinePageCollector with the default download options.
      */
     public ReadComicOnlinePageCollector() {
-        imageDownloader = new ImageDownloader();
+        this(DownloadOptions.defaults());
+    }
+
+    /**
+     * Constructs a new ReadComicOnlinePageCollector that downloads images concurrently
+     * within the per-host limits of the given options, and scrapes with the configured number of browsers.
+     *
+     * @param options the download options
+     */
+    public ReadComicOnlinePageCollector(final DownloadOptions options) {
+        imageFetcher = new ConcurrentImageFetcher(new ImageDownloader(), new HostThrottle(options));
         imageFormatDetector = new ImageFormatDetector();
+        driverPool = new WebDriverPool(this::createDriver, options.getBrowserPoolSize(), options.getBrowserMaxUses());
+    }
+
+    /**
+     * Quits every browser session of the collector.
+     */
+    @Override
+    public void close() {
+        driverPool.close();
     }
 
     /**
-     * Collects all pages of a comic issue by simulating browser behavior and downloading all images.
+     * Collects all pages of a comic issue by simulating browser behavior and streams every image to the sink.
      *
      * @param issue the comic issue to process
-     * @return list of {@link Page} objects representing each page image
+     * @param sink  receives each {@link Page} as soon as its image is downloaded
      * @throws IOException if image download fails
      */
     @Override
-    public List<Page> collectPages(final Issue issue) throws IOException {
+    public void streamPages(final Issue issue, final PageSink sink) throws IOException {
         final String url = issue.getUrl() + ALL_PAGE_READ_TYPE;
         final Set<String> imageUrls = emulateScrollAndCollectImages(url);
-        return downloadImages(imageUrls);
+        downloadImages(imageUrls, sink);
     }
 
     /**
-     * Downloads images from the provided image URLs and wraps them into {@link Page} objects.
+     * Downloads images from the provided image URLs concurrently and hands them to the sink as {@link Page} objects.
+     * Pages are numbered in the iteration order of {@code imageUrls}, regardless of download completion order.
+     * Pages the sink already holds are not downloaded again.
      *
      * @param imageUrls the URLs to fetch
-     * @return a list of page objects with content and format
-     * @throws IOException if reading any image fails
+     * @param sink      receives each page with content and format
+     * @throws IOException if reading any image or storing it fails
      */
-    private List<Page> downloadImages(final Set<String> imageUrls) throws IOException {
-        final List<Page> images = new ArrayList<>();
-        logger.info("Downloading images...");
-        int id = 0;
-        for (String url : imageUrls) {
-            logger.debug("{} / {}", id, imageUrls.size());
-            final byte[] imageData = imageDownloader.readImageBytes(url);
-            final String format = imageFormatDetector.detectFormatFromHeader(imageData);
-            final Page image = new Page(id, url, imageData, format);
-            images.add(image);
-            id++;
+    private void downloadImages(final Set<String> imageUrls, final PageSink sink) throws IOException {
+        final List<String> urls = new ArrayList<>(imageUrls);
+        sink.begin(urls);
+
+        final List<Integer> missingNumbers = new ArrayList<>();
+        final List<String> missingUrls = new ArrayList<>();
+        for (int number = 0; number < urls.size(); number++) {
+            if (sink.needs(number, urls.get(number))) {
+                missingNumbers.add(number);
+                missingUrls.add(urls.get(number));
+            }
         }
+
+        logger.info("Downloading {} of {} images...", missingUrls.size(), urls.size());
+        imageFetcher.fetchAll(missingUrls, (index, url) -> sink.reserve(missingNumbers.get(index)), (index, url, imageData) -> {
+            final int id = missingNumbers.get(index);
+            logger.debug("{} / {}", id, urls.size());
+            final String format = imageFormatDetector.detectFormatFromHeader(imageData);
+            sink.accept(new Page(id, url, imageData, format));
+        });
         logger.info("Done.");
-        return images;
     }
 
     /**
@@ -86,76 +143,103 @@ public class ReadComicOnlinePageCollector implements PageCollector {
      *
      * @param url the full URL to the comic issue's "read all pages" view
      * @return a set of image URLs found after scrolling
+     * @throws IOException if no browser session can be borrowed or the session fails
      */
-    private Set<String> emulateScrollAndCollectImages(final String url) {
-        WebDriverManager.chromedriver().setup();
-
-        final ChromeOptions options = new ChromeOptions();
-        options.addArguments("--headless");
-        options.addArguments("--disable-gpu");
-        options.addArguments("--window-size=1920,1080");
-
-        final WebDriver driver = new ChromeDriver(options);
+    private Set<String> emulateScrollAndCollectImages(final String url) throws IOException {
+        final WebDriverPool.Lease lease;
+        try {
+            lease = driverPool.borrow();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for a browser session", e);
+        }
 
+        final TimeWatch watch = TimeWatch.start();
         try {
+            final WebDriver driver = lease.driver();
             driver.get(url);
 
             final JavascriptExecutor js = (JavascriptExecutor) driver;
-            final WebDriverWait wait = new WebDriverWait(driver, WAIT_TIMEOUT);
+            final int expectedCount = readExpectedImageCount(js);
+            final LazyLoadTracker tracker = new LazyLoadTracker(
+                    expectedCount, MIN_POLL_DELAY, MAX_POLL_DELAY, STABLE_TIMEOUT, WAIT_TIMEOUT, System.nanoTime());
             final Set<String> allImageSrcs = new LinkedHashSet<>();
-            int noProgressTries = 0;
-
-            logger.info("Performing lazy load and scrolling. Please wait...");
-            while (noProgressTries < MAX_NO_PROGRESS_TRIES) {
-                js.executeScript("window.scrollTo(0, document.body.scrollHeight);");
-
-                boolean newImagesLoaded = waitForNewImages(wait, allImageSrcs);
-                if (newImagesLoaded) {
-                    noProgressTries = 0;
-                } else {
-                    logger.info("Next try...");
-                    noProgressTries++;
+
+            logger.info("Performing lazy load and scrolling ({} images expected). Please wait...",
+                    expectedCount > 0 ? expectedCount : "unknown");
+            while (true) {
+                allImageSrcs.addAll(collectImageSources(js));
+                if (tracker.update(allImageSrcs.size(), System.nanoTime())) {
+                    break;
                 }
+                Thread.sleep(tracker.nextDelayMillis());
             }
-            logger.info("Scrolling complete. Total images: {}", allImageSrcs.size());
+
+            if (expectedCount > 0 && allImageSrcs.size() < expectedCount) {
+                logger.warn("Only {} of {} images were loaded from {}", allImageSrcs.size(), expectedCount, url);
+            }
+            logger.info("Scrolling complete. Total images: {}, scraped in {} sec",
+                    allImageSrcs.size(), String.format("%.1f", watch.time() / 1e9));
             return allImageSrcs;
 
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while scraping " + url, e);
+        } catch (final WebDriverException e) {
+            lease.invalidate();
+            throw new IOException("Browser session failed while scraping " + url, e);
         } finally {
-            driver.quit();
+            lease.close();
         }
     }
 
     /**
-     * Waits for newly loaded images to appear in the DOM and updates the set of collected image sources.
+     * Starts a new headless Chrome session. The driver binary is resolved once per collector.
      *
-     * @param wait           the WebDriverWait instance used to poll for changes
-     * @param allImageSrcs   the current known set of image URLs
-     * @return true if new images were found and added, false if no progress
+     * @return the new session
      */
-    private boolean waitForNewImages(final WebDriverWait wait,
-                                     final Set<String> allImageSrcs) {
-        try {
-            return wait.until(d -> {
-                final List<WebElement> imgs = d.findElements(By.tagName("img"));
-                final Set<String> current = new LinkedHashSet<>();
-                for (WebElement img : imgs) {
-                    final String src = img.getAttribute("src");
-                    if (src != null && src.contains("blogspot")) {
-                        current.add(src);
-                    }
-                }
+    private WebDriver createDriver() {
+        synchronized (this) {
+            if (!driverSetUp) {
+                WebDriverManager.chromedriver().setup();
+                driverSetUp = true;
+            }
+        }
 
-                if (current.size() > allImageSrcs.size()) {
-                    int newCount = current.size() - allImageSrcs.size();
-                    logger.debug("New images loaded: {} [{} total]", newCount, current.size());
-                    allImageSrcs.addAll(current);
-                    return true;
-                }
+        final ChromeOptions options = new ChromeOptions();
+        options.addArguments("--headless");
+        options.addArguments("--disable-gpu");
+        options.addArguments("--window-size=1920,1080");
+
+        return new ChromeDriver(options);
+    }
 
-                return false;
-            });
-        } catch (TimeoutException e) {
-            return false;
+    /**
+     * Scrolls to the bottom of the page and returns the source of every comic image in the DOM,
+     * using one script call instead of one WebDriver round trip per element.
+     *
+     * @param js the script executor of the browser session
+     * @return the image URLs in document order
+     */
+    private List<String> collectImageSources(final JavascriptExecutor js) {
+        final Object result = js.executeScript(COLLECT_IMAGE_SOURCES_SCRIPT);
+        final List<String> sources = new ArrayList<>();
+        if (result instanceof final List<?> list) {
+            for (final Object src : list) {
+                sources.add(String.valueOf(src));
+            }
         }
+        return sources;
+    }
+
+    /**
+     * Reads the number of images the reader is going to load, if the page exposes it.
+     *
+     * @param js the script executor of the browser session
+     * @return the expected number of images, or -1 if unknown
+     */
+    private int readExpectedImageCount(final JavascriptExecutor js) {
+        final Object result = js.executeScript(EXPECTED_IMAGE_COUNT_SCRIPT);
+        return result instanceof final Number number ? number.intValue() : -1;
     }
 }
@@ -0,0 +1,118 @@
+package eu.virtualparadox.comictoolset.packer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Compares an existing .cbz archive with the pages of its issue folder.
+ * <p>
+ * Only the central directory of the archive is read: entry names, uncompressed sizes and modification
+ * times are compared with the page files. Times match within {@value #MTIME_TOLERANCE_SECONDS} seconds,
+ * the resolution of the DOS timestamps in ZIP entries. The {@link ComicInfo} index is not a page
+ * and is left out of the comparison.
+ * </p>
+ */
+final class ArchiveDiff {
+
+    /** Tolerance of modification time comparison, the resolution of a DOS timestamp */
+    private static final long MTIME_TOLERANCE_SECONDS = 2;
+
+    /**
+     * Result of the comparison.
+     */
+    enum Status {
+        /** The archive does not exist yet */
+        MISSING,
+        /** Every page is in the archive with the same size and time, and the archive has nothing else */
+        UNCHANGED,
+        /** Every entry of the archive is unchanged, and the folder has new pages that sort after all of them */
+        APPENDABLE,
+        /** Pages were modified or removed, or the archive cannot be read */
+        CHANGED
+    }
+
+    private final Status status;
+    private final List<Path> newPages;
+
+    private ArchiveDiff(final Status status, final List<Path> newPages) {
+        this.status = status;
+        this.newPages = newPages;
+    }
+
+    /**
+     * Compares the archive with the page files.
+     *
+     * @param archive the existing or missing .cbz file
+     * @param pages   the page files of the issue folder, in archive order
+     * @return the result of the comparison
+     */
+    static ArchiveDiff compare(final Path archive, final List<Path> pages) {
+        if (!Files.isRegularFile(archive)) {
+            return new ArchiveDiff(Status.MISSING, pages);
+        }
+
+        final Map<String, ZipEntry> entries = new HashMap<>();
+        try (ZipFile zipFile = new ZipFile(archive.toFile())) {
+            for (final ZipEntry entry : Collections.list(zipFile.entries())) {
+                if (!ComicInfo.FILE_NAME.equals(entry.getName())) {
+                    entries.put(entry.getName(), entry);
+                }
+            }
+
+            final List<Path> newPages = new ArrayList<>();
+            for (final Path page : pages) {
+                final ZipEntry entry = entries.remove(page.getFileName().toString());
+                if (entry == null) {
+                    newPages.add(page);
+                } else if (!matches(entry, page) || !newPages.isEmpty()) {
+                    // a modified page, or a new page that would have to be inserted before existing ones
+                    return new ArchiveDiff(Status.CHANGED, List.of());
+                }
+            }
+
+            if (!entries.isEmpty()) {
+                return new ArchiveDiff(Status.CHANGED, List.of());
+            }
+            return newPages.isEmpty()
+                    ? new ArchiveDiff(Status.UNCHANGED, List.of())
+                    : new ArchiveDiff(Status.APPENDABLE, newPages);
+        } catch (final IOException e) {
+            return new ArchiveDiff(Status.CHANGED, List.of());
+        }
+    }
+
+    Status getStatus() {
+        return status;
+    }
+
+    /**
+     * Returns the pages missing from the archive.
+     *
+     * @return the new pages, or every page if the archive is missing
+     */
+    List<Path> getNewPages() {
+        return newPages;
+    }
+
+    private static boolean matches(final ZipEntry entry, final Path page) throws IOException {
+        if (entry.getSize() != Files.size(page)) {
+            return false;
+        }
+        final FileTime entryTime = entry.getLastModifiedTime();
+        if (entryTime == null) {
+            return false;
+        }
+        final long difference = Math.abs(entryTime.to(TimeUnit.SECONDS) - Files.getLastModifiedTime(page).to(TimeUnit.SECONDS));
+        return difference <= MTIME_TOLERANCE_SECONDS;
+    }
+}
@@ -0,0 +1,107 @@
+package eu.virtualparadox.comictoolset.packer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.attribute.FileTime;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Writes pages into a .cbz archive, choosing STORED or DEFLATED per page by the {@link CompressionMode}.
+ * <p>
+ * Each page is passed in memory: a STORED entry needs its size and CRC before its data,
+ * so both are computed from the same array that is then written, in a single pass.
+ * </p>
+ */
+public final class CbzWriter implements Closeable {
+
+    private final ZipOutputStream zipOutputStream;
+    private final CompressionMode compressionMode;
+
+    /**
+     * Constructs a writer on top of an output stream. The stream is closed with the writer.
+     *
+     * @param out             the destination of the archive
+     * @param compressionMode how the pages are stored
+     */
+    public CbzWriter(final OutputStream out, final CompressionMode compressionMode) {
+        this.zipOutputStream = new ZipOutputStream(out);
+        this.compressionMode = compressionMode;
+    }
+
+    /**
+     * Writes a single page as the next entry of the archive.
+     *
+     * @param name         the entry name
+     * @param data         the page content
+     * @param lastModified the modification time recorded for the entry
+     * @throws IOException if writing the entry fails
+     */
+    public void writeEntry(final String name, final byte[] data, final FileTime lastModified) throws IOException {
+        final ZipEntry zipEntry = new ZipEntry(name);
+        zipEntry.setLastModifiedTime(lastModified);
+
+        if (compressionMode.shouldStore(data)) {
+            final CRC32 crc = new CRC32();
+            crc.update(data);
+            zipEntry.setMethod(ZipEntry.STORED);
+            zipEntry.setSize(data.length);
+            zipEntry.setCompressedSize(data.length);
+            zipEntry.setCrc(crc.getValue());
+        } else {
+            zipEntry.setMethod(ZipEntry.DEFLATED);
+        }
+
+        zipOutputStream.putNextEntry(zipEntry);
+        zipOutputStream.write(data);
+        zipOutputStream.closeEntry();
+    }
+
+    /**
+     * Copies an entry of another archive as the next entry, keeping its name, time and compression method.
+     * <p>
+     * A STORED entry is copied byte for byte, with the CRC and size of the source central directory
+     * written up front, and its CRC is verified while copying. A DEFLATED entry is inflated and deflated again,
+     * since {@link ZipOutputStream} cannot take compressed data as it is.
+     * </p>
+     *
+     * @param source the archive the entry belongs to
+     * @param entry  the entry to copy
+     * @throws IOException if reading the entry or writing the copy fails
+     */
+    public void copyEntry(final ZipFile source, final ZipEntry entry) throws IOException {
+        final ZipEntry zipEntry = new ZipEntry(entry.getName());
+        if (entry.getLastModifiedTime() != null) {
+            zipEntry.setLastModifiedTime(entry.getLastModifiedTime());
+        }
+
+        if (entry.getMethod() == ZipEntry.STORED) {
+            zipEntry.setMethod(ZipEntry.STORED);
+            zipEntry.setSize(entry.getSize());
+            zipEntry.setCompressedSize(entry.getSize());
+            zipEntry.setCrc(entry.getCrc());
+        } else {
+            zipEntry.setMethod(ZipEntry.DEFLATED);
+        }
+
+        zipOutputStream.putNextEntry(zipEntry);
+        try (InputStream in = source.getInputStream(entry)) {
+            in.transferTo(zipOutputStream);
+        }
+        zipOutputStream.closeEntry();
+    }
+
+    /**
+     * Writes the central directory and closes the underlying stream.
+     *
+     * @throws IOException if the archive cannot be finished
+     */
+    @Override
+    public void close() throws IOException {
+        zipOutputStream.close();
+    }
+}
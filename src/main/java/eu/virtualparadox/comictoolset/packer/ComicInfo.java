@@ -0,0 +1,119 @@
+package eu.virtualparadox.comictoolset.packer;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Builds the {@value #FILE_NAME} page index of a .cbz archive (ComicRack schema).
+ * <p>
+ * The index lists the page count and, per page, its size and dimensions, so a reader can open
+ * a page by its index without scanning or sorting the entries of the archive. Dimensions are read
+ * from the image header only, without decoding the image.
+ * </p>
+ */
+public final class ComicInfo {
+
+    /** Entry name of the page index inside the archive */
+    public static final String FILE_NAME = "ComicInfo.xml";
+
+    private ComicInfo() {
+        // Prevent instantiation
+    }
+
+    /**
+     * Size and dimensions of a page. Width and height are -1 if the image format cannot be read.
+     *
+     * @param size   the size of the page in bytes
+     * @param width  the width of the image in pixels
+     * @param height the height of the image in pixels
+     */
+    public record PageInfo(long size, int width, int height) {
+    }
+
+    /**
+     * Describes a page file.
+     *
+     * @param page the page file
+     * @return the size and dimensions of the page
+     * @throws IOException if the file cannot be read
+     */
+    public static PageInfo describe(final Path page) throws IOException {
+        try (InputStream in = Files.newInputStream(page)) {
+            return describe(in, Files.size(page));
+        }
+    }
+
+    /**
+     * Describes a page held in memory.
+     *
+     * @param data the page content
+     * @return the size and dimensions of the page
+     */
+    public static PageInfo describe(final byte[] data) {
+        try {
+            return describe(new ByteArrayInputStream(data), data.length);
+        } catch (final IOException e) {
+            return new PageInfo(data.length, -1, -1);
+        }
+    }
+
+    /**
+     * Renders the page index.
+     *
+     * @param pages the pages in archive order
+     * @return the UTF-8 encoded XML document
+     */
+    public static byte[] toXml(final List<PageInfo> pages) {
+        final StringBuilder xml = new StringBuilder();
+        xml.append("<?xml version=\"1.0\" encoding=\"utf-8\"?>\n");
+        xml.append("<ComicInfo xmlns:xsd=\"http://www.w3.org/2001/XMLSchema\" xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\">\n");
+        xml.append("  <PageCount>").append(pages.size()).append("</PageCount>\n");
+        xml.append("  <Pages>\n");
+        for (int index = 0; index < pages.size(); index++) {
+            final PageInfo page = pages.get(index);
+            xml.append("    <Page Image=\"").append(index).append('"');
+            if (index == 0) {
+                xml.append(" Type=\"FrontCover\"");
+            }
+            xml.append(" ImageSize=\"").append(page.size()).append('"');
+            if (page.width() > 0 && page.height() > 0) {
+                xml.append(" ImageWidth=\"").append(page.width()).append('"');
+                xml.append(" ImageHeight=\"").append(page.height()).append('"');
+            }
+            xml.append(" />\n");
+        }
+        xml.append("  </Pages>\n");
+        xml.append("</ComicInfo>\n");
+        return xml.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static PageInfo describe(final InputStream in, final long size) throws IOException {
+        try (ImageInputStream imageInputStream = new MemoryCacheImageInputStream(in)) {
+            final Iterator<ImageReader> readers = ImageIO.getImageReaders(imageInputStream);
+            if (!readers.hasNext()) {
+                return new PageInfo(size, -1, -1);
+            }
+
+            final ImageReader reader = readers.next();
+            try {
+                // seekForwardOnly + ignoreMetadata: only the header is parsed
+                reader.setInput(imageInputStream, true, true);
+                return new PageInfo(size, reader.getWidth(0), reader.getHeight(0));
+            } catch (final IOException | RuntimeException e) {
+                return new PageInfo(size, -1, -1);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package eu.virtualparadox.comictoolset.packer;
+
+import eu.virtualparadox.comictoolset.downloader.ImageFormatDetector;
+
+import java.util.Set;
+
+/**
+ * How the pages of an issue are stored in the .cbz archive.
+ */
+public enum CompressionMode {
+
+    /** Store already-compressed images (JPEG, PNG, GIF, WebP) as they are and deflate everything else */
+    AUTO,
+
+    /** Store every page without compression */
+    STORE,
+
+    /** Deflate every page */
+    DEFLATE;
+
+    /** Image formats that are compressed already and gain nothing from DEFLATE */
+    private static final Set<String> COMPRESSED_FORMATS = Set.of("jpg", "png", "gif", "webp");
+
+    private static final ImageFormatDetector IMAGE_FORMAT_DETECTOR = new ImageFormatDetector();
+
+    /**
+     * Tells whether a page is written as a STORED entry in this mode.
+     *
+     * @param header the page data, or at least its first 12 bytes
+     * @return {@code true} for STORED, {@code false} for DEFLATED
+     */
+    public boolean shouldStore(final byte[] header) {
+        return switch (this) {
+            case STORE -> true;
+            case DEFLATE -> false;
+            case AUTO -> COMPRESSED_FORMATS.contains(IMAGE_FORMAT_DETECTOR.detectFormatFromHeader(header));
+        };
+    }
+}
@@ -0,0 +1,33 @@
+package eu.virtualparadox.comictoolset.packer;
+
+import com.beust.jcommander.IStringConverter;
+import com.beust.jcommander.ParameterException;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * A JCommander converter that transforms {@code auto}, {@code store} or {@code deflate}
+ * (case-insensitive) into a {@link CompressionMode}.
+ *
+ * @see IStringConverter
+ */
+public class CompressionModeConverter implements IStringConverter<CompressionMode> {
+
+    /**
+     * Converts the given string to a {@link CompressionMode}.
+     *
+     * @param s the input string from the command line
+     * @return the corresponding compression mode
+     * @throws ParameterException if the value is not a known mode
+     */
+    @Override
+    public CompressionMode convert(final String s) {
+        try {
+            return CompressionMode.valueOf(s.trim().toUpperCase(Locale.ROOT));
+        } catch (final IllegalArgumentException e) {
+            throw new ParameterException("Unknown compression mode '" + s + "', expected one of "
+                    + Arrays.toString(CompressionMode.values()).toLowerCase(Locale.ROOT));
+        }
+    }
+}
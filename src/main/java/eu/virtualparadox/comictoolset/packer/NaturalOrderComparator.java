@@ -0,0 +1,81 @@
+package eu.virtualparadox.comictoolset.packer;
+
+import java.util.Comparator;
+
+/**
+ * Compares strings the way humans sort file names: runs of digits are compared by their numeric value,
+ * so {@code "page2.jpg"} comes before {@code "page10.jpg"}.
+ * <p>
+ * Text runs are compared case-insensitively first. Ties are broken by the number of leading zeros and finally
+ * by plain string order, so the ordering is total and consistent with {@link String#equals(Object)}.
+ * </p>
+ */
+public final class NaturalOrderComparator implements Comparator<String> {
+
+    /** Shared, stateless instance */
+    public static final NaturalOrderComparator INSTANCE = new NaturalOrderComparator();
+
+    @Override
+    public int compare(final String left, final String right) {
+        int i = 0;
+        int j = 0;
+        int zerosTieBreak = 0;
+
+        while (i < left.length() && j < right.length()) {
+            final char a = left.charAt(i);
+            final char b = right.charAt(j);
+
+            if (isDigit(a) && isDigit(b)) {
+                final int leftStart = i;
+                final int rightStart = j;
+                while (i < left.length() && left.charAt(i) == '0') {
+                    i++;
+                }
+                while (j < right.length() && right.charAt(j) == '0') {
+                    j++;
+                }
+                final int leftDigitsStart = i;
+                final int rightDigitsStart = j;
+                while (i < left.length() && isDigit(left.charAt(i))) {
+                    i++;
+                }
+                while (j < right.length() && isDigit(right.charAt(j))) {
+                    j++;
+                }
+
+                // without leading zeros, the longer run is the bigger number
+                final int leftLength = i - leftDigitsStart;
+                final int rightLength = j - rightDigitsStart;
+                if (leftLength != rightLength) {
+                    return Integer.compare(leftLength, rightLength);
+                }
+                for (int k = 0; k < leftLength; k++) {
+                    final int digit = Character.compare(left.charAt(leftDigitsStart + k), right.charAt(rightDigitsStart + k));
+                    if (digit != 0) {
+                        return digit;
+                    }
+                }
+                if (zerosTieBreak == 0) {
+                    zerosTieBreak = Integer.compare(leftDigitsStart - leftStart, rightDigitsStart - rightStart);
+                }
+            } else {
+                final int text = Character.compare(Character.toLowerCase(a), Character.toLowerCase(b));
+                if (text != 0) {
+                    return text;
+                }
+                i++;
+                j++;
+            }
+        }
+
+        final int remaining = Integer.compare(left.length() - i, right.length() - j);
+        if (remaining != 0) {
+            return remaining;
+        }
+        return zerosTieBreak != 0 ? zerosTieBreak : left.compareTo(right);
+    }
+
+    private static boolean isDigit(final char c) {
+        return c >= '0' && c <= '9';
+    }
+}
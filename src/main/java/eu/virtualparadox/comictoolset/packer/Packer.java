@@ -1,88 +1,361 @@
 package eu.virtualparadox.comictoolset.packer;
 
+import eu.virtualparadox.comictoolset.TimeWatch;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.File;
 import java.io.IOException;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
 import java.util.List;
-import java.util.stream.Stream;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.zip.ZipEntry;
-import java.util.zip.ZipOutputStream;
+import java.util.zip.ZipFile;
 
 /**
  * Packs subfolders of a comic directory into .cbz (Comic Book Zip) files.
  * Each subfolder is treated as a comic issue.
+ * <p>
+ * Issues are packed in parallel on a fixed pool of threads. Every archive is written to a temporary
+ * file first and atomically renamed to its final name, so an interrupted run never leaves a
+ * half-written .cbz behind.
+ * </p>
+ * <p>
+ * Pages that are already compressed (JPEG, PNG, GIF, WebP) gain almost nothing from DEFLATE,
+ * so by default they are written as STORED entries; other formats (e.g. BMP) are still deflated.
+ * See {@link CompressionMode}.
+ * </p>
+ * <p>
+ * Pages are written in natural order of their file names, preceded by a {@link ComicInfo} page index.
+ * </p>
+ * <p>
+ * Packing is incremental: an archive whose entries still match the pages of its folder (name, size and
+ * modification time) is skipped, and an archive that only lacks new pages gets them appended; its stored
+ * entries are copied as they are instead of being read back from the issue folder. Use {@link PackerBuilder#force(boolean)} to repack everything.
+ * </p>
  */
 public final class Packer {
 
     private static final Logger logger = LoggerFactory.getLogger(Packer.class);
 
+    /** Suffix of issue folders that are still being downloaded */
+    private static final String INCOMPLETE_SUFFIX = ".part";
+
+    /** Suffix of the temporary archive written before it is renamed into place */
+    private static final String TEMP_SUFFIX = ".part";
+
+    private final int threads;
+    private final CompressionMode compressionMode;
+    private final boolean force;
+
+    /**
+     * Constructs a packer using one thread per available processor, {@link CompressionMode#AUTO}
+     * and incremental packing.
+     */
+    public Packer() {
+        this(Runtime.getRuntime().availableProcessors(), CompressionMode.AUTO, false);
+    }
+
+    private Packer(final int threads, final CompressionMode compressionMode, final boolean force) {
+        this.threads = threads;
+        this.compressionMode = compressionMode;
+        this.force = force;
+    }
+
     /**
-     * Runs the packing process for all subfolders in the specified comic folder.
+     * Runs the packing process for all subfolders in the specified comic folder
+     * and logs the throughput of the run.
      *
      * @param comicFolder the root folder containing issue subfolders.
      */
     public void run(final Path comicFolder) {
+        final TimeWatch watch = TimeWatch.start();
         final List<Path> issues = collectSubfolders(comicFolder);
 
-        for (final Path issueFolder : issues) {
-            compressAndPackIssue(comicFolder, issueFolder);
+        final List<Future<PackResult>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            for (final Path issueFolder : issues) {
+                results.add(executor.submit(() -> compressAndPackIssue(comicFolder, issueFolder)));
+            }
+        }
+
+        final Map<Outcome, Integer> outcomes = new EnumMap<>(Outcome.class);
+        long packedBytes = 0;
+        for (final Future<PackResult> result : results) {
+            final PackResult packResult = getQuietly(result);
+            outcomes.merge(packResult.outcome(), 1, Integer::sum);
+            packedBytes += packResult.bytes();
         }
+
+        final double seconds = watch.time() / 1e9;
+        final double megabytes = packedBytes / (1024.0 * 1024.0);
+        logger.info("{} issues: {} packed, {} appended, {} unchanged, {} failed; {} MB in {} sec with {} threads, {} mode: {} MB/s",
+                issues.size(),
+                outcomes.getOrDefault(Outcome.PACKED, 0),
+                outcomes.getOrDefault(Outcome.APPENDED, 0),
+                outcomes.getOrDefault(Outcome.UNCHANGED, 0),
+                outcomes.getOrDefault(Outcome.FAILED, 0),
+                String.format("%.1f", megabytes),
+                String.format("%.1f", seconds),
+                threads,
+                compressionMode.name().toLowerCase(),
+                String.format("%.1f", seconds > 0 ? megabytes / seconds : 0));
     }
 
     /**
-     * Compresses a single issue folder into a .cbz file.
+     * Brings the .cbz file of a single issue folder up to date.
      *
      * @param comicFolder the root comic folder (used to place the .cbz file).
      * @param issueFolder the subfolder representing a comic issue.
+     * @return what was done and how many page bytes were written
      */
-    private void compressAndPackIssue(final Path comicFolder, final Path issueFolder) {
-        final File[] files = issueFolder.toFile().listFiles(File::isFile);
+    private PackResult compressAndPackIssue(final Path comicFolder, final Path issueFolder) {
+        final List<Path> pages;
+        try {
+            pages = collectPages(issueFolder);
+        } catch (final IOException e) {
+            logger.error("Failed to list issue folder '{}': {}", issueFolder, e.getMessage());
+            return new PackResult(Outcome.FAILED, 0);
+        }
 
-        if (files == null || files.length == 0) {
+        if (pages.isEmpty()) {
             logger.warn("No files found in issue folder: {}", issueFolder);
-            return;
+            return new PackResult(Outcome.FAILED, 0);
         }
 
-        final String zipFileName = issueFolder.getFileName() + ".cbz";
-        final Path zipFilePath = comicFolder.resolve(zipFileName);
+        final Path zipFilePath = comicFolder.resolve(issueFolder.getFileName() + ".cbz");
 
-        try (ZipOutputStream zipOutputStream = new ZipOutputStream(Files.newOutputStream(zipFilePath))) {
-            for (final File file : files) {
-                final ZipEntry zipEntry = new ZipEntry(file.getName());
-                zipOutputStream.putNextEntry(zipEntry);
-                Files.copy(file.toPath(), zipOutputStream);
-                zipOutputStream.closeEntry();
+        try {
+            if (!force) {
+                final ArchiveDiff diff = ArchiveDiff.compare(zipFilePath, pages);
+                if (diff.getStatus() == ArchiveDiff.Status.UNCHANGED) {
+                    logger.debug("Issue '{}' is up to date", issueFolder.getFileName());
+                    return new PackResult(Outcome.UNCHANGED, 0);
+                }
+                if (diff.getStatus() == ArchiveDiff.Status.APPENDABLE) {
+                    final long bytes = appendPages(zipFilePath, pages);
+                    logger.info("Appended {} pages of issue '{}' to '{}'", diff.getNewPages().size(), issueFolder.getFileName(), zipFilePath.getFileName());
+                    return new PackResult(Outcome.APPENDED, bytes);
+                }
             }
+
+            final long bytes = packPages(zipFilePath, pages);
             logger.info("Packed issue '{}' into '{}'", issueFolder.getFileName(), zipFilePath.getFileName());
+            return new PackResult(Outcome.PACKED, bytes);
         } catch (final IOException e) {
             logger.error("Failed to pack issue '{}': {}", issueFolder.getFileName(), e.getMessage(), e);
+            return new PackResult(Outcome.FAILED, 0);
+        }
+    }
+
+    /**
+     * Writes the {@link ComicInfo} page index and every page, in order, into a new archive
+     * via a temporary file and an atomic rename.
+     *
+     * @param zipFilePath the archive to create or replace
+     * @param pages       the page files
+     * @return the number of page bytes written
+     * @throws IOException if reading a page or writing the archive fails
+     */
+    private long packPages(final Path zipFilePath, final List<Path> pages) throws IOException {
+        final Path tempFilePath = zipFilePath.resolveSibling(zipFilePath.getFileName() + TEMP_SUFFIX);
+
+        long packedBytes = 0;
+        try {
+            try (CbzWriter cbzWriter = new CbzWriter(Files.newOutputStream(tempFilePath), compressionMode)) {
+                // the index comes first, so streaming readers have it before any page
+                cbzWriter.writeEntry(ComicInfo.FILE_NAME, createComicInfo(pages), FileTime.fromMillis(System.currentTimeMillis()));
+                for (final Path page : pages) {
+                    final byte[] data = Files.readAllBytes(page);
+                    // the page time is what incremental packing compares with later
+                    cbzWriter.writeEntry(page.getFileName().toString(), data, Files.getLastModifiedTime(page));
+                    packedBytes += data.length;
+                }
+            }
+            Files.move(tempFilePath, zipFilePath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            return packedBytes;
+        } catch (final IOException e) {
+            deleteQuietly(tempFilePath);
+            throw e;
+        }
+    }
+
+    /**
+     * Adds new pages to an existing archive and replaces its {@link ComicInfo} page index.
+     * <p>
+     * The archive is rebuilt through a {@link CbzWriter} into a temporary file that is then renamed into place:
+     * existing STORED entries are copied byte for byte, and every STORED entry is written with its CRC and
+     * size known up front, so the result can still be read by streaming readers such as
+     * {@link java.util.zip.ZipInputStream}. Existing DEFLATED entries (pages the compression mode does not store)
+     * are inflated and deflated again.
+     * </p>
+     *
+     * @param zipFilePath the existing archive
+     * @param pages       every page of the issue, in archive order
+     * @return the number of page bytes written
+     * @throws IOException if reading a page or updating the archive fails
+     */
+    private long appendPages(final Path zipFilePath, final List<Path> pages) throws IOException {
+        final Path tempFilePath = zipFilePath.resolveSibling(zipFilePath.getFileName() + TEMP_SUFFIX);
+
+        long appendedBytes = 0;
+        try {
+            try (ZipFile zipFile = new ZipFile(zipFilePath.toFile());
+                 CbzWriter cbzWriter = new CbzWriter(Files.newOutputStream(tempFilePath), compressionMode)) {
+                cbzWriter.writeEntry(ComicInfo.FILE_NAME, createComicInfo(pages), FileTime.fromMillis(System.currentTimeMillis()));
+                for (final Path page : pages) {
+                    final ZipEntry entry = zipFile.getEntry(page.getFileName().toString());
+                    if (entry != null) {
+                        cbzWriter.copyEntry(zipFile, entry);
+                    } else {
+                        final byte[] data = Files.readAllBytes(page);
+                        cbzWriter.writeEntry(page.getFileName().toString(), data, Files.getLastModifiedTime(page));
+                        appendedBytes += data.length;
+                    }
+                }
+            }
+            Files.move(tempFilePath, zipFilePath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            return appendedBytes;
+        } catch (final IOException e) {
+            deleteQuietly(tempFilePath);
+            throw e;
+        }
+    }
+
+    private static byte[] createComicInfo(final List<Path> pages) throws IOException {
+        final List<ComicInfo.PageInfo> pageInfos = new ArrayList<>(pages.size());
+        for (final Path page : pages) {
+            pageInfos.add(ComicInfo.describe(page));
+        }
+        return ComicInfo.toXml(pageInfos);
+    }
+
+    private static PackResult getQuietly(final Future<PackResult> result) {
+        try {
+            return result.get();
+        } catch (final ExecutionException e) {
+            logger.error("Packing failed", e.getCause());
+            return new PackResult(Outcome.FAILED, 0);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new PackResult(Outcome.FAILED, 0);
+        }
+    }
+
+    private static void deleteQuietly(final Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (final IOException e) {
+            logger.warn("Could not delete temporary file '{}': {}", path, e.getMessage());
+        }
+    }
+
+    /**
+     * Collects the pages of an issue folder in a single directory pass, in natural order of their names.
+     * Hidden files (e.g. the download manifest) are not pages.
+     *
+     * @param issueFolder the issue folder
+     * @return the page files in archive order
+     * @throws IOException if the folder cannot be listed
+     */
+    private static List<Path> collectPages(final Path issueFolder) throws IOException {
+        final List<Path> pages = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(issueFolder,
+                path -> !path.getFileName().toString().startsWith(".") && Files.isRegularFile(path))) {
+            stream.forEach(pages::add);
         }
+        pages.sort(Comparator.comparing(path -> path.getFileName().toString(), NaturalOrderComparator.INSTANCE));
+        return pages;
     }
 
     /**
-     * Collects all subdirectories of the given comic folder.
+     * Collects all subdirectories of the given comic folder in a single directory pass, skipping the staging
+     * folders of issues whose download has not completed yet.
      *
      * @param comicFolder the root comic folder.
-     * @return a list of paths to issue subfolders.
+     * @return a list of paths to issue subfolders, in natural order of their names.
      * @throws IllegalArgumentException if the path is not a valid directory.
      */
     private List<Path> collectSubfolders(final Path comicFolder) {
-        final File[] subdirs = comicFolder.toFile().listFiles(File::isDirectory);
-
-        if (!comicFolder.toFile().isDirectory()) {
+        if (!Files.isDirectory(comicFolder)) {
             throw new IllegalArgumentException("Provided path is not a directory: " + comicFolder);
         }
 
-        if (subdirs == null) {
-            throw new IllegalArgumentException("Could not list subdirectories in: " + comicFolder);
+        final List<Path> subfolders = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(comicFolder,
+                path -> Files.isDirectory(path) && !path.getFileName().toString().endsWith(INCOMPLETE_SUFFIX))) {
+            stream.forEach(subfolders::add);
+        } catch (final IOException e) {
+            throw new IllegalArgumentException("Could not list subdirectories in: " + comicFolder, e);
         }
 
-        return Stream.of(subdirs)
-                .map(File::toPath)
-                .toList();
+        subfolders.sort(Comparator.comparing(path -> path.getFileName().toString(), NaturalOrderComparator.INSTANCE));
+        return subfolders;
+    }
+
+    /**
+     * What packing did with an issue.
+     */
+    private enum Outcome {
+        PACKED, APPENDED, UNCHANGED, FAILED
+    }
+
+    /**
+     * Outcome of packing an issue and the number of page bytes written.
+     */
+    private record PackResult(Outcome outcome, long bytes) {
+    }
+
+    /**
+     * Builder for {@link Packer}.
+     */
+    public static class PackerBuilder {
+        private int threads = Runtime.getRuntime().availableProcessors();
+        private CompressionMode compressionMode = CompressionMode.AUTO;
+        private boolean force;
+
+        public static PackerBuilder builder() {
+            return new PackerBuilder();
+        }
+
+        public PackerBuilder threads(final int threads) {
+            this.threads = threads;
+            return this;
+        }
+
+        public PackerBuilder compressionMode(final CompressionMode compressionMode) {
+            this.compressionMode = compressionMode;
+            return this;
+        }
+
+        /**
+         * Repacks every issue, even if its archive is up to date.
+         */
+        public PackerBuilder force(final boolean force) {
+            this.force = force;
+            return this;
+        }
+
+        public Packer build() {
+            if (threads <= 0) {
+                throw new IllegalArgumentException("Number of threads must be a positive integer");
+            }
+
+            if (compressionMode == null) {
+                throw new IllegalArgumentException("CompressionMode must not be null");
+            }
+
+            return new Packer(threads, compressionMode, force);
+        }
     }
 }
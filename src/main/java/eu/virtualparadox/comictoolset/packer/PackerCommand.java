@@ -19,6 +19,25 @@ public class PackerCommand extends AbstractCommand {
     )
     private Path comicFolder;
 
+    @Parameter(
+            names = "--threads",
+            description = "Number of issues packed in parallel (default: number of available processors)"
+    )
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    @Parameter(
+            names = "--compression",
+            description = "auto: store JPEG/PNG/GIF/WebP pages and deflate the rest, store: no compression, deflate: compress every page (default: auto)",
+            converter = CompressionModeConverter.class
+    )
+    private CompressionMode compression = CompressionMode.AUTO;
+
+    @Parameter(
+            names = "--force",
+            description = "Repack every issue, even if its .cbz file is up to date"
+    )
+    private boolean force = false;
+
     @Override
     public String getCommand() {
         return "pack";
@@ -32,12 +51,20 @@ public class PackerCommand extends AbstractCommand {
 
     @Override
     protected void internalRun() {
-        final Packer packer = new Packer();
+        final Packer packer = Packer.PackerBuilder.builder()
+                .threads(threads)
+                .compressionMode(compression)
+                .force(force)
+                .build();
         packer.run(comicFolder);
     }
 
     @Override
     protected boolean validateAndPrint() {
+        if (threads <= 0) {
+            logger.error("--threads must be a positive integer");
+            return false;
+        }
         return Files.exists(comicFolder);
     }
 }
\ No newline at end of file
@@ -2,6 +2,8 @@ package eu.virtualparadox.comictoolset.translator;
 
 import com.beust.jcommander.Parameter;
 import eu.virtualparadox.comictoolset.command.AbstractCommand;
+import eu.virtualparadox.comictoolset.translator.translator.PipelineOptions;
+import eu.virtualparadox.comictoolset.translator.translator.TranslationStage;
 import eu.virtualparadox.comictoolset.translator.translator.Translator;
 
 import java.io.IOException;
@@ -19,6 +21,29 @@ public class TranslatorCommand extends AbstractCommand {
     @Parameter(names = "--output", description = "Path to output folder", required = true)
     private Path outputPath;
 
+    @Parameter(names = "--parallelism", description = "Number of workers of every pipeline stage (default: 1)")
+    private int parallelism = 1;
+
+    @Parameter(names = "--decodeWorkers", description = "Number of image decoding workers (default: --parallelism)")
+    private int decodeWorkers;
+
+    @Parameter(names = "--detectWorkers", description = "Number of bubble detection workers (default: --parallelism)")
+    private int detectWorkers;
+
+    @Parameter(names = "--recognizeWorkers", description = "Number of text mask and OCR workers (default: --parallelism)")
+    private int recognizeWorkers;
+
+    @Parameter(names = "--inpaintWorkers", description = "Number of inpainting workers (default: --parallelism)")
+    private int inpaintWorkers;
+
+    @Parameter(names = "--renderWorkers", description = "Number of text rendering workers (default: --parallelism)")
+    private int renderWorkers;
+
+    @Parameter(names = "--encodeWorkers", description = "Number of PNG encoding workers (default: --parallelism)")
+    private int encodeWorkers;
+
+    @Parameter(names = "--queueCapacity", description = "Number of pages waiting in front of each stage (default: 4)")
+    private int queueCapacity = 4;
 
     @Override
     public String getCommand() {
@@ -32,12 +57,28 @@ public class TranslatorCommand extends AbstractCommand {
 
     @Override
     protected void internalRun() {
-        final Translator translator = new Translator(url, inputPath, outputPath);
+        final PipelineOptions pipelineOptions = PipelineOptions.PipelineOptionsBuilder.builder()
+                .parallelism(parallelism)
+                .queueCapacity(queueCapacity)
+                .workers(TranslationStage.DECODE, decodeWorkers)
+                .workers(TranslationStage.DETECT, detectWorkers)
+                .workers(TranslationStage.RECOGNIZE, recognizeWorkers)
+                .workers(TranslationStage.INPAINT, inpaintWorkers)
+                .workers(TranslationStage.RENDER, renderWorkers)
+                .workers(TranslationStage.ENCODE, encodeWorkers)
+                .build();
+
+        final Translator translator = new Translator(url, inputPath, outputPath, pipelineOptions);
         translator.translate();
     }
 
     @Override
     protected boolean validateAndPrint() {
+        if (parallelism <= 0 || queueCapacity <= 0) {
+            logger.error("--parallelism and --queueCapacity must be positive integers");
+            return false;
+        }
+
         if (!Files.exists(inputPath)) {
             logger.error("Input path does not exist: {}", inputPath);
             return false;
@@ -1,8 +1,14 @@
 package eu.virtualparadox.comictoolset.translator.bubblecollector;
 
+import eu.virtualparadox.comictoolset.translator.page.PageContext;
+
 import java.nio.file.Path;
 import java.util.List;
 
 public interface BubbleCollector extends AutoCloseable{
-    List<DetectedBubbleBox> extractBubbleBoxes(Path imagePath) throws Exception;
+    List<DetectedBubbleBox> extractBubbleBoxes(PageContext page) throws Exception;
+
+    default List<DetectedBubbleBox> extractBubbleBoxes(Path imagePath) throws Exception {
+        return extractBubbleBoxes(PageContext.load(imagePath));
+    }
 }
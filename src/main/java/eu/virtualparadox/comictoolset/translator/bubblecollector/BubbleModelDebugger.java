@@ -1,5 +1,6 @@
 package eu.virtualparadox.comictoolset.translator.bubblecollector;
 
+import eu.virtualparadox.comictoolset.translator.page.PageContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -8,7 +9,6 @@ import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.Path;
 import java.util.List;
 
 public class BubbleModelDebugger {
@@ -18,15 +18,15 @@ public class BubbleModelDebugger {
     /**
      * Saves a debug image to the system temp directory with visual bounding boxes.
      *
-     * @param imagePath the original input image path
+     * @param page      the decoded input page
      * @param boxes     the list of bounding boxes
      * @param boxColor  the color of the bounding boxes
      * @throws Exception if writing fails
      */
-    public void saveDebugImage(final Path imagePath,
+    public void saveDebugImage(final PageContext page,
                                final List<DetectedBubbleBox> boxes,
                                final Color boxColor) throws IOException {
-        final BufferedImage originalImage = ImageIO.read(imagePath.toFile());
+        final BufferedImage originalImage = page.getImage();
 
         final BufferedImage output = new BufferedImage(originalImage.getWidth(), originalImage.getHeight(), BufferedImage.TYPE_INT_RGB);
         final Graphics2D g = output.createGraphics();
@@ -43,22 +43,11 @@ public class BubbleModelDebugger {
 
         g.dispose();
 
-        final String baseName = stripExtension(imagePath.toFile().getName());
+        final String baseName = page.getBaseName();
         final File debugFile = File.createTempFile("bubble-" + baseName + "-debug-", ".jpg");
         debugFile.deleteOnExit();
         ImageIO.write(output, "jpg", debugFile);
         logger.info("Debug image saved to temp: {}", debugFile.getAbsolutePath());
     }
 
-    /**
-     * Removes the file extension from a filename.
-     *
-     * @param filename the filename string
-     * @return the name without extension
-     */
-    private String stripExtension(final String filename) {
-        final int dotIndex = filename.lastIndexOf('.');
-        return (dotIndex == -1) ? filename : filename.substring(0, dotIndex);
-    }
-
 }
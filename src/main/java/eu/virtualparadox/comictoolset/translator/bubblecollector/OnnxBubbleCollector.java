@@ -1,18 +1,20 @@
 package eu.virtualparadox.comictoolset.translator.bubblecollector;
 
 import ai.onnxruntime.*;
+import eu.virtualparadox.comictoolset.ModelStore;
+import eu.virtualparadox.comictoolset.translator.page.PageContext;
+import eu.virtualparadox.comictoolset.translator.tensor.Normalization;
+import eu.virtualparadox.comictoolset.translator.tensor.TensorBufferPool;
+import eu.virtualparadox.comictoolset.translator.tensor.TensorConverter;
 
-import javax.imageio.ImageIO;
 import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.nio.FloatBuffer;
-import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
-import static eu.virtualparadox.comictoolset.ModelExtractor.extractModelToTempFile;
 
 /**
  * An ONNX model runner that detects comic speech bubbles in images using a pre-trained ONNX model.
@@ -52,6 +54,11 @@ public class OnnxBubbleCollector implements BubbleCollector {
      */
     private BubbleModelDebugger debugger;
 
+    /**
+     * Reusable direct input buffers; the input shape of the model is fixed, so one per concurrent call.
+     */
+    private final TensorBufferPool bufferPool = new TensorBufferPool();
+
     /**
      * Private constructor used by builder.
      */
@@ -69,31 +76,40 @@ public class OnnxBubbleCollector implements BubbleCollector {
     }
 
     /**
-     * Runs inference on a given image path and returns a list of bounding boxes.
+     * Runs inference on a decoded page and returns a list of bounding boxes.
      *
-     * @param imagePath path to an image file
+     * @param page the decoded page
      * @return list of detected {@link DetectedBubbleBox} instances
-     * @throws Exception if the image cannot be loaded or ONNX inference fails
+     * @throws Exception if ONNX inference fails
      */
     @Override
-    public List<DetectedBubbleBox> extractBubbleBoxes(final Path imagePath) throws Exception {
-        final BufferedImage image = ImageIO.read(imagePath.toFile());
+    public List<DetectedBubbleBox> extractBubbleBoxes(final PageContext page) throws Exception {
+        final BufferedImage image = page.getImage();
         final int origWidth = image.getWidth();
         final int origHeight = image.getHeight();
 
         final BufferedImage resizedImage = resizeImage(image, inputSize, inputSize);
-        final float[] inputTensor = preprocessImage(resizedImage, inputSize);
         final long[] shape = {1, 3, inputSize, inputSize};
-        final OnnxTensor tensor = OnnxTensor.createTensor(env, FloatBuffer.wrap(inputTensor), shape);
 
-        final OrtSession.Result result;
-        synchronized (session) {
-            final Map<String, OnnxTensor> inputMap =
-                    Collections.singletonMap(session.getInputNames().iterator().next(), tensor);
-            result = session.run(inputMap);
+        final Object outputObj;
+        try (final TensorBufferPool.Lease lease = bufferPool.acquire(shape)) {
+            final FloatBuffer inputTensor = lease.buffer();
+            TensorConverter.put(resizedImage, inputTensor, 3, Normalization.UNIT);
+            inputTensor.rewind();
+
+            try (final OnnxTensor tensor = OnnxTensor.createTensor(env, inputTensor, shape)) {
+                final OrtSession.Result result;
+                synchronized (session) {
+                    final Map<String, OnnxTensor> inputMap =
+                            Collections.singletonMap(session.getInputNames().iterator().next(), tensor);
+                    result = session.run(inputMap);
+                }
+                try (result) {
+                    outputObj = result.get(0).getValue();
+                }
+            }
         }
 
-        final Object outputObj = result.get(0).getValue();
         final float[][] detections;
 
         if (outputObj instanceof final float[][][] output) {
@@ -105,11 +121,9 @@ public class OnnxBubbleCollector implements BubbleCollector {
         final List<DetectedBubbleBox> boxes = extractBoxes(detections, origWidth, origHeight);
 
         if (debug) {
-            debugger.saveDebugImage(imagePath, boxes, Color.RED);
+            debugger.saveDebugImage(page, boxes, Color.RED);
         }
 
-        tensor.close();
-        result.close();
         return boxes;
     }
 
@@ -149,26 +163,6 @@ public class OnnxBubbleCollector implements BubbleCollector {
         return resized;
     }
 
-    /**
-     * Converts a resized RGB image into a normalized float tensor (NCHW format).
-     *
-     * @param image input image (already resized)
-     * @param size  expected input dimension
-     * @return float tensor normalized to [0,1] range
-     */
-    private float[] preprocessImage(final BufferedImage image,
-                                    final int size) {
-        final float[] tensor = new float[3 * size * size];
-        final int[] pixels = image.getRGB(0, 0, size, size, null, 0, size);
-        for (int i = 0; i < size * size; i++) {
-            final int rgb = pixels[i];
-            tensor[i] = ((rgb >> 16) & 0xFF) / 255.0f;
-            tensor[i + size * size] = ((rgb >> 8) & 0xFF) / 255.0f;
-            tensor[i + 2 * size * size] = (rgb & 0xFF) / 255.0f;
-        }
-        return tensor;
-    }
-
     /**
      * Converts the raw model outputs into a list of bounding boxes.
      *
@@ -262,10 +256,10 @@ public class OnnxBubbleCollector implements BubbleCollector {
 
             // initialize the ONNX environment and session
             try {
-                final String tempModelFilename = extractModelToTempFile(modelFilename);
+                final String modelFile = ModelStore.getDefault().resolve(modelFilename).toString();
 
                 final OrtEnvironment env = OrtEnvironment.getEnvironment();
-                final OrtSession session =  env.createSession(tempModelFilename, new OrtSession.SessionOptions());
+                final OrtSession session =  env.createSession(modelFile, new OrtSession.SessionOptions());
 
                 return new OnnxBubbleCollector(env, session, inputSize, confidenceThreshold, debug);
             } catch (final Exception e) {
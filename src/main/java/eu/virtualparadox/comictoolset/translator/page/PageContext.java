@@ -0,0 +1,98 @@
+package eu.virtualparadox.comictoolset.translator.page;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Holds a single decoded comic page for the whole translation pipeline.
+ * <p>
+ * The page is decoded from disk exactly once and converted to {@link BufferedImage#TYPE_INT_RGB}.
+ * Every stage (bubble detection, text mask, OCR, inpainting and rendering) reads the same in-memory
+ * raster instead of decoding the source file again. Stages must treat the image as read-only.
+ * </p>
+ */
+public final class PageContext {
+
+    /** The file the page was decoded from, or {@code null} for in-memory pages */
+    private final Path sourcePath;
+
+    /** The decoded RGB raster of the page */
+    private final BufferedImage image;
+
+    private PageContext(final Path sourcePath, final BufferedImage image) {
+        this.sourcePath = sourcePath;
+        this.image = image;
+    }
+
+    /**
+     * Decodes the page at the given path.
+     *
+     * @param imagePath path to the page image
+     * @return the decoded page
+     * @throws IOException if the file cannot be read or is not a supported image
+     */
+    public static PageContext load(final Path imagePath) throws IOException {
+        final BufferedImage decoded = ImageIO.read(imagePath.toFile());
+        if (decoded == null) {
+            throw new IOException("Unsupported image format: " + imagePath);
+        }
+        return new PageContext(imagePath, toRGBImage(decoded));
+    }
+
+    /**
+     * Wraps an already decoded image.
+     *
+     * @param image the page image
+     * @return the page context
+     */
+    public static PageContext of(final BufferedImage image) {
+        return new PageContext(null, toRGBImage(image));
+    }
+
+    public Path getSourcePath() {
+        return sourcePath;
+    }
+
+    public BufferedImage getImage() {
+        return image;
+    }
+
+    public int getWidth() {
+        return image.getWidth();
+    }
+
+    public int getHeight() {
+        return image.getHeight();
+    }
+
+    /**
+     * Returns the file name of the page without its extension, e.g. for naming debug images.
+     *
+     * @return the base name, or "page" for in-memory pages
+     */
+    public String getBaseName() {
+        if (sourcePath == null) {
+            return "page";
+        }
+        final String filename = sourcePath.getFileName().toString();
+        final int dotIndex = filename.lastIndexOf('.');
+        return (dotIndex == -1) ? filename : filename.substring(0, dotIndex);
+    }
+
+    /**
+     * Converts any image type to RGB BufferedImage. Images that are already RGB are returned as is.
+     */
+    private static BufferedImage toRGBImage(final BufferedImage input) {
+        if (input.getType() == BufferedImage.TYPE_INT_RGB) {
+            return input;
+        }
+        final BufferedImage rgbImage = new BufferedImage(input.getWidth(), input.getHeight(), BufferedImage.TYPE_INT_RGB);
+        final Graphics2D g = rgbImage.createGraphics();
+        g.drawImage(input, 0, 0, null);
+        g.dispose();
+        return rgbImage;
+    }
+}
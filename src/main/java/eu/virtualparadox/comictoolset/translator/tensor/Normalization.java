@@ -0,0 +1,35 @@
+package eu.virtualparadox.comictoolset.translator.tensor;
+
+/**
+ * How 8-bit channel values are mapped to the float inputs of a model.
+ */
+public enum Normalization {
+
+    /** {@code value / 255}, i.e. [0,1] */
+    UNIT(new float[]{0f, 0f, 0f}, new float[]{1f, 1f, 1f}),
+
+    /** {@code (value / 255 - mean) / std} with the ImageNet mean and standard deviation of R, G and B */
+    IMAGENET(new float[]{0.485f, 0.456f, 0.406f}, new float[]{0.229f, 0.224f, 0.225f});
+
+    private final float[] mean;
+    private final float[] std;
+
+    Normalization(final float[] mean, final float[] std) {
+        this.mean = mean;
+        this.std = std;
+    }
+
+    /**
+     * Returns the normalized value of every possible 8-bit value of a channel.
+     *
+     * @param channel the channel index (0 = R, 1 = G, 2 = B)
+     * @return a 256-entry lookup table
+     */
+    float[] lookupTable(final int channel) {
+        final float[] table = new float[256];
+        for (int value = 0; value < table.length; value++) {
+            table[value] = (value / 255.0f - mean[channel]) / std[channel];
+        }
+        return table;
+    }
+}
@@ -0,0 +1,14 @@
+package eu.virtualparadox.comictoolset.translator.tensor;
+
+/**
+ * How the columns right of an image are filled when it is written into a wider tensor,
+ * e.g. a text line padded to the width of its OCR batch.
+ */
+public enum PaddingMode {
+
+    /** Padding values are zero, i.e. black with {@link Normalization#UNIT} */
+    ZERO,
+
+    /** Padding columns repeat the last column of the image, which is usually bubble background */
+    REPLICATE_EDGE
+}
@@ -0,0 +1,190 @@
+package eu.virtualparadox.comictoolset.translator.tensor;
+
+import java.nio.FloatBuffer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A thread-safe pool of direct input buffers of one ONNX stage, keyed by tensor shape.
+ * <p>
+ * Every inference of a stage needs an input buffer of the same few shapes (the fixed input of a model, the
+ * size of the pages of a comic, the width of an OCR batch). Instead of allocating a new buffer per call,
+ * which costs a full native allocation and puts pressure on the GC to free the old ones, a buffer is leased
+ * from the pool and returned when the tensor created from it is closed. Since direct buffers are passed to
+ * ONNX Runtime without copying, the buffer must not be returned earlier.
+ * </p>
+ * <p>
+ * Idle buffers are bounded by a byte budget; when it would be exceeded, the idle buffers of the least
+ * recently used shapes are dropped, so a stage that sees many different shapes does not keep all of them.
+ * </p>
+ */
+public final class TensorBufferPool {
+
+    /** The default budget of idle buffers per stage */
+    public static final long DEFAULT_MAX_IDLE_BYTES = 256L * 1024 * 1024;
+
+    private final long maxIdleBytes;
+
+    /** Idle buffers per shape, in access order (least recently used first) */
+    private final Map<Shape, Deque<FloatBuffer>> idle = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long idleBytes;
+
+    /**
+     * A leased buffer, to be closed once the tensor created from it is closed.
+     */
+    public final class Lease implements AutoCloseable {
+        private final Shape shape;
+        private final FloatBuffer buffer;
+        private boolean released;
+
+        private Lease(final Shape shape, final FloatBuffer buffer) {
+            this.shape = shape;
+            this.buffer = buffer;
+        }
+
+        /**
+         * Returns the buffer, positioned at 0 with the element count of the shape as limit.
+         * Its previous content is not cleared.
+         *
+         * @return the direct buffer
+         */
+        public FloatBuffer buffer() {
+            return buffer;
+        }
+
+        /**
+         * Returns the buffer to the pool.
+         */
+        @Override
+        public void close() {
+            if (!released) {
+                released = true;
+                release(shape, buffer);
+            }
+        }
+    }
+
+    /**
+     * Constructs a pool with the default idle budget.
+     */
+    public TensorBufferPool() {
+        this(DEFAULT_MAX_IDLE_BYTES);
+    }
+
+    /**
+     * Constructs a pool.
+     *
+     * @param maxIdleBytes the maximum number of bytes held by idle buffers
+     */
+    public TensorBufferPool(final long maxIdleBytes) {
+        if (maxIdleBytes < 0) {
+            throw new IllegalArgumentException("Max idle bytes must not be negative");
+        }
+        this.maxIdleBytes = maxIdleBytes;
+    }
+
+    /**
+     * Leases a buffer for a tensor of the given shape, reusing an idle one if possible.
+     *
+     * @param shape the tensor shape
+     * @return the lease of the buffer
+     */
+    public Lease acquire(final long... shape) {
+        final Shape key = new Shape(shape);
+        FloatBuffer buffer = null;
+        synchronized (this) {
+            final Deque<FloatBuffer> buffers = idle.get(key);
+            if (buffers != null && !buffers.isEmpty()) {
+                buffer = buffers.pop();
+                idleBytes -= key.bytes();
+            }
+        }
+        if (buffer == null) {
+            buffer = TensorConverter.allocate(key.elements());
+        }
+        buffer.clear();
+        return new Lease(key, buffer);
+    }
+
+    /**
+     * Returns the number of bytes currently held by idle buffers.
+     *
+     * @return the idle bytes
+     */
+    public synchronized long getIdleBytes() {
+        return idleBytes;
+    }
+
+    private synchronized void release(final Shape shape, final FloatBuffer buffer) {
+        if (shape.bytes() > maxIdleBytes) {
+            return;
+        }
+        evict(maxIdleBytes - shape.bytes());
+        idle.computeIfAbsent(shape, s -> new ArrayDeque<>()).push(buffer);
+        idleBytes += shape.bytes();
+    }
+
+    /**
+     * Drops idle buffers, least recently used shapes first, until at most {@code limit} bytes are left.
+     */
+    private void evict(final long limit) {
+        final Iterator<Map.Entry<Shape, Deque<FloatBuffer>>> entries = idle.entrySet().iterator();
+        while (idleBytes > limit && entries.hasNext()) {
+            final Map.Entry<Shape, Deque<FloatBuffer>> entry = entries.next();
+            final Deque<FloatBuffer> buffers = entry.getValue();
+            while (idleBytes > limit && !buffers.isEmpty()) {
+                buffers.pop();
+                idleBytes -= entry.getKey().bytes();
+            }
+            if (buffers.isEmpty()) {
+                entries.remove();
+            }
+        }
+    }
+
+    /**
+     * A tensor shape as map key.
+     */
+    private static final class Shape {
+        private final long[] dimensions;
+        private final int elements;
+
+        private Shape(final long[] dimensions) {
+            long count = 1;
+            for (final long dimension : dimensions) {
+                if (dimension <= 0) {
+                    throw new IllegalArgumentException("Invalid tensor shape: " + Arrays.toString(dimensions));
+                }
+                count *= dimension;
+                if (count > Integer.MAX_VALUE / Float.BYTES) {
+                    throw new IllegalArgumentException("Tensor too large: " + Arrays.toString(dimensions));
+                }
+            }
+            this.dimensions = dimensions.clone();
+            this.elements = (int) count;
+        }
+
+        int elements() {
+            return elements;
+        }
+
+        long bytes() {
+            return (long) elements * Float.BYTES;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            return o instanceof Shape other && Arrays.equals(dimensions, other.dimensions);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(dimensions);
+        }
+    }
+}
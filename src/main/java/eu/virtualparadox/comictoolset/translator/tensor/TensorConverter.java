@@ -0,0 +1,252 @@
+package eu.virtualparadox.comictoolset.translator.tensor;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.Raster;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+
+/**
+ * Converts images into the CHW float tensors of the ONNX models.
+ * <p>
+ * The pixels are read straight from the backing {@code int[]} or {@code byte[]} of the raster of the common
+ * image types ({@code INT_RGB}, {@code INT_ARGB}, {@code 3BYTE_BGR}, {@code 4BYTE_ABGR}), including sub-images
+ * sharing a parent's raster; other types are read row by row through {@link BufferedImage#getRGB}. Every
+ * pixel is visited once for all channels, and values are normalized through per-channel lookup tables.
+ * Tensors are written into direct, native-order buffers, which ONNX Runtime uses without copying.
+ * </p>
+ * <p>
+ * With 3 channels the planes are R, G and B; with 1 channel only the R plane is written, which is what the
+ * grayscale masks need.
+ * </p>
+ */
+public final class TensorConverter {
+
+    private TensorConverter() {
+        // Prevent instantiation
+    }
+
+    /**
+     * Allocates a direct, native-order float buffer.
+     *
+     * @param floats the capacity in floats
+     * @return the buffer, positioned at 0
+     */
+    public static FloatBuffer allocate(final int floats) {
+        return ByteBuffer.allocateDirect(floats * Float.BYTES).order(ByteOrder.nativeOrder()).asFloatBuffer();
+    }
+
+    /**
+     * Converts an image into a new {@code [channels, height, width]} tensor.
+     *
+     * @param image         the image
+     * @param channels      1 or 3
+     * @param normalization the normalization of the model
+     * @return a direct buffer holding the tensor, positioned at 0
+     */
+    public static FloatBuffer toTensor(final BufferedImage image, final int channels, final Normalization normalization) {
+        final FloatBuffer buffer = allocate(channels * image.getHeight() * image.getWidth());
+        put(image, buffer, channels, normalization, image.getWidth(), PaddingMode.ZERO);
+        buffer.rewind();
+        return buffer;
+    }
+
+    /**
+     * Writes an image as {@code [channels, height, width]} tensor at the position of the buffer and advances it,
+     * e.g. to fill one slot of a batch.
+     *
+     * @param image         the image
+     * @param buffer        the target buffer
+     * @param channels      1 or 3
+     * @param normalization the normalization of the model
+     */
+    public static void put(final BufferedImage image,
+                           final FloatBuffer buffer,
+                           final int channels,
+                           final Normalization normalization) {
+        put(image, buffer, channels, normalization, image.getWidth(), PaddingMode.ZERO);
+    }
+
+    /**
+     * Writes an image as {@code [channels, height, paddedWidth]} tensor at the position of the buffer and
+     * advances it. The columns right of the image are filled according to the padding mode.
+     *
+     * @param image         the image, at most {@code paddedWidth} wide
+     * @param buffer        the target buffer
+     * @param channels      1 or 3
+     * @param normalization the normalization of the model
+     * @param paddedWidth   the width of the tensor
+     * @param paddingMode   how the padding columns are filled
+     */
+    public static void put(final BufferedImage image,
+                           final FloatBuffer buffer,
+                           final int channels,
+                           final Normalization normalization,
+                           final int paddedWidth,
+                           final PaddingMode paddingMode) {
+        if (channels != 1 && channels != 3) {
+            throw new IllegalArgumentException("Only 1 or 3 channels are supported, got: " + channels);
+        }
+        final int width = image.getWidth();
+        final int height = image.getHeight();
+        if (paddedWidth < width) {
+            throw new IllegalArgumentException("Padded width " + paddedWidth + " is smaller than the image width " + width);
+        }
+
+        final float[][] tables = new float[channels][];
+        final float[][] rows = new float[channels][paddedWidth];
+        for (int c = 0; c < channels; c++) {
+            tables[c] = normalization.lookupTable(c);
+        }
+
+        final int start = buffer.position();
+        final int plane = height * paddedWidth;
+        final PixelReader reader = PixelReader.of(image);
+        for (int y = 0; y < height; y++) {
+            reader.readRow(y, tables, rows);
+            for (int c = 0; c < channels; c++) {
+                final float[] row = rows[c];
+                final float fill = paddingMode == PaddingMode.REPLICATE_EDGE ? row[width - 1] : 0f;
+                for (int x = width; x < paddedWidth; x++) {
+                    row[x] = fill;
+                }
+                buffer.put(start + c * plane + y * paddedWidth, row);
+            }
+        }
+        buffer.position(start + channels * plane);
+    }
+
+    /**
+     * Reads one row of normalized channel values.
+     */
+    private abstract static class PixelReader {
+
+        /**
+         * Writes {@code tables[c][value]} of every pixel of row {@code y} into {@code rows[c][x]}.
+         */
+        abstract void readRow(int y, float[][] tables, float[][] rows);
+
+        static PixelReader of(final BufferedImage image) {
+            final Raster raster = image.getRaster();
+            return switch (image.getType()) {
+                case BufferedImage.TYPE_INT_RGB, BufferedImage.TYPE_INT_ARGB -> new IntReader(image.getWidth(), raster);
+                case BufferedImage.TYPE_3BYTE_BGR, BufferedImage.TYPE_4BYTE_ABGR -> new ByteReader(image.getWidth(), raster);
+                default -> new RgbReader(image);
+            };
+        }
+    }
+
+    /**
+     * Reads packed {@code 0x(AA)RRGGBB} pixels from the backing {@code int[]}.
+     */
+    private static final class IntReader extends PixelReader {
+        private final int width;
+        private final int[] data;
+        private final int origin;
+        private final int scanlineStride;
+
+        private IntReader(final int width, final Raster raster) {
+            final SinglePixelPackedSampleModel sampleModel = (SinglePixelPackedSampleModel) raster.getSampleModel();
+            final DataBufferInt dataBuffer = (DataBufferInt) raster.getDataBuffer();
+            this.width = width;
+            this.data = dataBuffer.getData();
+            this.scanlineStride = sampleModel.getScanlineStride();
+            this.origin = dataBuffer.getOffset()
+                    + sampleModel.getOffset(-raster.getSampleModelTranslateX(), -raster.getSampleModelTranslateY());
+        }
+
+        @Override
+        void readRow(final int y, final float[][] tables, final float[][] rows) {
+            final int offset = origin + y * scanlineStride;
+            final float[] red = rows[0];
+            final float[] redTable = tables[0];
+            if (rows.length == 1) {
+                for (int x = 0; x < width; x++) {
+                    red[x] = redTable[(data[offset + x] >> 16) & 0xFF];
+                }
+                return;
+            }
+
+            final float[] green = rows[1];
+            final float[] blue = rows[2];
+            final float[] greenTable = tables[1];
+            final float[] blueTable = tables[2];
+            for (int x = 0; x < width; x++) {
+                final int rgb = data[offset + x];
+                red[x] = redTable[(rgb >> 16) & 0xFF];
+                green[x] = greenTable[(rgb >> 8) & 0xFF];
+                blue[x] = blueTable[rgb & 0xFF];
+            }
+        }
+    }
+
+    /**
+     * Reads interleaved byte pixels (e.g. B, G, R or A, B, G, R) from the backing {@code byte[]}.
+     */
+    private static final class ByteReader extends PixelReader {
+        private final int width;
+        private final byte[] data;
+        private final int origin;
+        private final int scanlineStride;
+        private final int pixelStride;
+        private final int[] bandOffsets;
+
+        private ByteReader(final int width, final Raster raster) {
+            final ComponentSampleModel sampleModel = (ComponentSampleModel) raster.getSampleModel();
+            final DataBufferByte dataBuffer = (DataBufferByte) raster.getDataBuffer();
+            this.width = width;
+            this.data = dataBuffer.getData();
+            this.scanlineStride = sampleModel.getScanlineStride();
+            this.pixelStride = sampleModel.getPixelStride();
+            // the bands of the sRGB component color model are R, G, B (and A), wherever they are stored
+            this.bandOffsets = sampleModel.getBandOffsets();
+            this.origin = dataBuffer.getOffset()
+                    + sampleModel.getOffset(-raster.getSampleModelTranslateX(), -raster.getSampleModelTranslateY(), 0)
+                    - bandOffsets[0];
+        }
+
+        @Override
+        void readRow(final int y, final float[][] tables, final float[][] rows) {
+            final int rowStart = origin + y * scanlineStride;
+            for (int c = 0; c < rows.length; c++) {
+                final float[] row = rows[c];
+                final float[] table = tables[c];
+                int index = rowStart + bandOffsets[c];
+                for (int x = 0; x < width; x++) {
+                    row[x] = table[data[index] & 0xFF];
+                    index += pixelStride;
+                }
+            }
+        }
+    }
+
+    /**
+     * Fallback for all other image types: one {@link BufferedImage#getRGB} call per row.
+     */
+    private static final class RgbReader extends PixelReader {
+        private final BufferedImage image;
+        private final int[] rgbRow;
+
+        private RgbReader(final BufferedImage image) {
+            this.image = image;
+            this.rgbRow = new int[image.getWidth()];
+        }
+
+        @Override
+        void readRow(final int y, final float[][] tables, final float[][] rows) {
+            image.getRGB(0, y, rgbRow.length, 1, rgbRow, 0, rgbRow.length);
+            for (int c = 0; c < rows.length; c++) {
+                final int shift = 16 - 8 * c;
+                final float[] row = rows[c];
+                final float[] table = tables[c];
+                for (int x = 0; x < rgbRow.length; x++) {
+                    row[x] = table[(rgbRow[x] >> shift) & 0xFF];
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package eu.virtualparadox.comictoolset.translator.textboxgenerator.maskgenerator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Finds the 8-connected components of the pixels of a heatmap above a threshold.
+ * <p>
+ * The heatmap is scanned once, row by row, on a flat row-major array. Every pixel over the threshold takes
+ * the provisional label of an already visited neighbour (west, north-west, north, north-east) or a new one;
+ * labels meeting in one pixel are merged in a union-find forest. Bounding box, pixel count and activation sum
+ * are accumulated per provisional label during the scan and folded into the root labels at the end, so no
+ * label image and no second pass over the pixels is needed.
+ * </p>
+ * <p>
+ * The scratch arrays (two label rows and the per-label statistics) only grow and are reused for the next
+ * heatmap, so labeling a page allocates nothing but the returned components. Instances are therefore not
+ * thread-safe; use one per thread.
+ * </p>
+ */
+final class ConnectedComponentLabeler {
+
+    private static final int INITIAL_LABELS = 1024;
+
+    /** Labels of the previous and the current row, 0 = background */
+    private int[] previousRow = new int[0];
+    private int[] currentRow = new int[0];
+
+    /** Union-find parent of every provisional label; label 0 is unused */
+    private int[] parent = new int[INITIAL_LABELS];
+
+    private int[] minX = new int[INITIAL_LABELS];
+    private int[] minY = new int[INITIAL_LABELS];
+    private int[] maxX = new int[INITIAL_LABELS];
+    private int[] maxY = new int[INITIAL_LABELS];
+    private int[] pixelCount = new int[INITIAL_LABELS];
+    private double[] activationSum = new double[INITIAL_LABELS];
+
+    private int nextLabel;
+
+    /**
+     * A connected component.
+     *
+     * @param minX          the leftmost column
+     * @param minY          the topmost row
+     * @param maxX          the rightmost column (inclusive)
+     * @param maxY          the bottommost row (inclusive)
+     * @param pixelCount    the number of pixels
+     * @param activationSum the sum of the heatmap values of the pixels
+     */
+    record Component(int minX, int minY, int maxX, int maxY, int pixelCount, double activationSum) {
+
+        /**
+         * Returns the mean heatmap value of the pixels.
+         *
+         * @return the mean activation
+         */
+        float meanActivation() {
+            return (float) (activationSum / pixelCount);
+        }
+    }
+
+    /**
+     * Labels the pixels of a heatmap whose value is greater than the threshold.
+     *
+     * @param heatmap   the heatmap in row-major order
+     * @param width     the width of the heatmap
+     * @param height    the height of the heatmap
+     * @param threshold the value a pixel has to exceed
+     * @return the components, ordered by their first pixel in row-major order
+     */
+    List<Component> label(final float[] heatmap, final int width, final int height, final float threshold) {
+        if (heatmap.length < width * height) {
+            throw new IllegalArgumentException("Heatmap has " + heatmap.length + " values, expected " + width * height);
+        }
+        if (previousRow.length < width + 1) {
+            previousRow = new int[width + 1];
+            currentRow = new int[width + 1];
+        }
+        // the extra trailing column stays 0, so the north-east neighbour of the last column needs no check
+        Arrays.fill(previousRow, 0);
+        Arrays.fill(currentRow, 0);
+        nextLabel = 1;
+
+        for (int y = 0; y < height; y++) {
+            final int offset = y * width;
+            int west = 0;
+            for (int x = 0; x < width; x++) {
+                final float value = heatmap[offset + x];
+                if (value <= threshold) {
+                    currentRow[x] = 0;
+                    west = 0;
+                    continue;
+                }
+
+                final int north = previousRow[x];
+                final int label;
+                if (north != 0) {
+                    // west, north-west and north-east all touch north, so they are merged already
+                    label = north;
+                } else {
+                    final int northWest = x > 0 ? previousRow[x - 1] : 0;
+                    final int northEast = previousRow[x + 1];
+                    if (northWest != 0) {
+                        label = northWest;
+                        if (northEast != 0) {
+                            union(northWest, northEast);
+                        }
+                    } else if (west != 0) {
+                        label = west;
+                        if (northEast != 0) {
+                            union(west, northEast);
+                        }
+                    } else if (northEast != 0) {
+                        label = northEast;
+                    } else {
+                        label = newLabel(x, y);
+                    }
+                }
+
+                if (x < minX[label]) {
+                    minX[label] = x;
+                }
+                if (x > maxX[label]) {
+                    maxX[label] = x;
+                }
+                maxY[label] = y;
+                pixelCount[label]++;
+                activationSum[label] += value;
+
+                currentRow[x] = label;
+                west = label;
+            }
+
+            final int[] swap = previousRow;
+            previousRow = currentRow;
+            currentRow = swap;
+        }
+
+        return collectComponents();
+    }
+
+    /**
+     * Folds the statistics of every provisional label into its root and returns the roots.
+     * Roots are the smallest label of their set, so they come out in the order of their first pixel.
+     */
+    private List<Component> collectComponents() {
+        final List<Component> components = new ArrayList<>();
+        for (int label = 1; label < nextLabel; label++) {
+            final int root = find(label);
+            if (root != label) {
+                minX[root] = Math.min(minX[root], minX[label]);
+                minY[root] = Math.min(minY[root], minY[label]);
+                maxX[root] = Math.max(maxX[root], maxX[label]);
+                maxY[root] = Math.max(maxY[root], maxY[label]);
+                pixelCount[root] += pixelCount[label];
+                activationSum[root] += activationSum[label];
+            }
+        }
+        for (int label = 1; label < nextLabel; label++) {
+            if (parent[label] == label) {
+                components.add(new Component(minX[label], minY[label], maxX[label], maxY[label],
+                        pixelCount[label], activationSum[label]));
+            }
+        }
+        return components;
+    }
+
+    private int newLabel(final int x, final int y) {
+        if (nextLabel == parent.length) {
+            grow();
+        }
+        final int label = nextLabel++;
+        parent[label] = label;
+        minX[label] = x;
+        minY[label] = y;
+        maxX[label] = x;
+        maxY[label] = y;
+        pixelCount[label] = 0;
+        activationSum[label] = 0;
+        return label;
+    }
+
+    private void grow() {
+        final int capacity = parent.length * 2;
+        parent = Arrays.copyOf(parent, capacity);
+        minX = Arrays.copyOf(minX, capacity);
+        minY = Arrays.copyOf(minY, capacity);
+        maxX = Arrays.copyOf(maxX, capacity);
+        maxY = Arrays.copyOf(maxY, capacity);
+        pixelCount = Arrays.copyOf(pixelCount, capacity);
+        activationSum = Arrays.copyOf(activationSum, capacity);
+    }
+
+    /**
+     * Returns the root of a label, halving the path on the way.
+     */
+    private int find(int label) {
+        while (parent[label] != label) {
+            parent[label] = parent[parent[label]];
+            label = parent[label];
+        }
+        return label;
+    }
+
+    /**
+     * Merges the sets of two labels under the smaller root.
+     */
+    private void union(final int a, final int b) {
+        final int rootA = find(a);
+        final int rootB = find(b);
+        if (rootA < rootB) {
+            parent[rootB] = rootA;
+        } else if (rootB < rootA) {
+            parent[rootA] = rootB;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package eu.virtualparadox.comictoolset.translator.textboxgenerator.maskgenerator;
+
+/**
+ * Maps the components found on a model-resolution heatmap to boxes in image coordinates.
+ * <p>
+ * Heatmap and image are aligned at their corners, i.e. heatmap pixel {@code (0, 0)} is image pixel
+ * {@code (0, 0)} and the last heatmap pixel is the last image pixel, as with the bilinear upscaling the boxes
+ * were extracted from before. Without refinement, the integer bounds of a component are scaled and rounded.
+ * With sub-pixel refinement, every edge is first moved to where the linearly interpolated heatmap crosses the
+ * threshold between the outermost pixel of the component and its outside neighbour; the box then covers the
+ * image pixels whose interpolated value is over the threshold, as if the heatmap had been upscaled first.
+ * </p>
+ */
+final class HeatmapBoxMapper {
+
+    private final float[] heatmap;
+    private final int width;
+    private final int height;
+    private final float threshold;
+    private final int imageWidth;
+    private final int imageHeight;
+    private final boolean subPixelRefinement;
+    private final double scaleX;
+    private final double scaleY;
+
+    /**
+     * Constructs a mapper.
+     *
+     * @param heatmap            the heatmap in row-major order
+     * @param width              the width of the heatmap
+     * @param height             the height of the heatmap
+     * @param threshold          the value a text pixel exceeds
+     * @param imageWidth         the width of the image
+     * @param imageHeight        the height of the image
+     * @param subPixelRefinement whether to interpolate the edges of the boxes
+     */
+    HeatmapBoxMapper(final float[] heatmap,
+                     final int width,
+                     final int height,
+                     final float threshold,
+                     final int imageWidth,
+                     final int imageHeight,
+                     final boolean subPixelRefinement) {
+        this.heatmap = heatmap;
+        this.width = width;
+        this.height = height;
+        this.threshold = threshold;
+        this.imageWidth = imageWidth;
+        this.imageHeight = imageHeight;
+        this.subPixelRefinement = subPixelRefinement;
+        this.scaleX = width > 1 ? (imageWidth - 1.0) / (width - 1) : 1.0;
+        this.scaleY = height > 1 ? (imageHeight - 1.0) / (height - 1) : 1.0;
+    }
+
+    /**
+     * Returns the box of a component in image coordinates, with its mean activation as confidence.
+     *
+     * @param component a component of the heatmap
+     * @return the box in image coordinates
+     */
+    TextMaskRegion map(final ConnectedComponentLabeler.Component component) {
+        final int x1;
+        final int y1;
+        final int x2;
+        final int y2;
+        if (subPixelRefinement) {
+            x1 = clamp((int) Math.ceil((component.minX() - leftExtension(component)) * scaleX), imageWidth);
+            x2 = clamp((int) Math.floor((component.maxX() + rightExtension(component)) * scaleX), imageWidth);
+            y1 = clamp((int) Math.ceil((component.minY() - topExtension(component)) * scaleY), imageHeight);
+            y2 = clamp((int) Math.floor((component.maxY() + bottomExtension(component)) * scaleY), imageHeight);
+        } else {
+            x1 = clamp((int) Math.round(component.minX() * scaleX), imageWidth);
+            x2 = clamp((int) Math.round(component.maxX() * scaleX), imageWidth);
+            y1 = clamp((int) Math.round(component.minY() * scaleY), imageHeight);
+            y2 = clamp((int) Math.round(component.maxY() * scaleY), imageHeight);
+        }
+        return new TextMaskRegion(x1, y1, Math.max(x1, x2), Math.max(y1, y2), component.meanActivation());
+    }
+
+    private double leftExtension(final ConnectedComponentLabeler.Component component) {
+        if (component.minX() == 0) {
+            return 0;
+        }
+        double extension = 0;
+        for (int y = component.minY(); y <= component.maxY(); y++) {
+            final int index = y * width + component.minX();
+            extension = Math.max(extension, crossing(heatmap[index], heatmap[index - 1]));
+        }
+        return extension;
+    }
+
+    private double rightExtension(final ConnectedComponentLabeler.Component component) {
+        if (component.maxX() == width - 1) {
+            return 0;
+        }
+        double extension = 0;
+        for (int y = component.minY(); y <= component.maxY(); y++) {
+            final int index = y * width + component.maxX();
+            extension = Math.max(extension, crossing(heatmap[index], heatmap[index + 1]));
+        }
+        return extension;
+    }
+
+    private double topExtension(final ConnectedComponentLabeler.Component component) {
+        if (component.minY() == 0) {
+            return 0;
+        }
+        double extension = 0;
+        final int offset = component.minY() * width;
+        for (int x = component.minX(); x <= component.maxX(); x++) {
+            extension = Math.max(extension, crossing(heatmap[offset + x], heatmap[offset - width + x]));
+        }
+        return extension;
+    }
+
+    private double bottomExtension(final ConnectedComponentLabeler.Component component) {
+        if (component.maxY() == height - 1) {
+            return 0;
+        }
+        double extension = 0;
+        final int offset = component.maxY() * width;
+        for (int x = component.minX(); x <= component.maxX(); x++) {
+            extension = Math.max(extension, crossing(heatmap[offset + x], heatmap[offset + width + x]));
+        }
+        return extension;
+    }
+
+    /**
+     * Returns how far beyond an inside pixel the interpolated heatmap stays over the threshold, in [0, 1).
+     * Pixels of the bounding edge that are not over the threshold (other components' gaps) do not count.
+     */
+    private double crossing(final float inside, final float outside) {
+        if (inside <= threshold || outside > threshold) {
+            return 0;
+        }
+        // strictly below 1: at the outside pixel itself the value is not over the threshold
+        return Math.min((inside - threshold) / (inside - outside), Math.nextDown(1.0));
+    }
+
+    private static int clamp(final int value, final int size) {
+        return Math.max(0, Math.min(size - 1, value));
+    }
+}
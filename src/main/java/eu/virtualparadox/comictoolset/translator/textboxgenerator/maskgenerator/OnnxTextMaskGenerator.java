@@ -1,16 +1,18 @@
 package eu.virtualparadox.comictoolset.translator.textboxgenerator.maskgenerator;
 
 import ai.onnxruntime.*;
+import eu.virtualparadox.comictoolset.ModelStore;
+import eu.virtualparadox.comictoolset.translator.page.PageContext;
+import eu.virtualparadox.comictoolset.translator.tensor.Normalization;
+import eu.virtualparadox.comictoolset.translator.tensor.TensorBufferPool;
+import eu.virtualparadox.comictoolset.translator.tensor.TensorConverter;
 
-import javax.imageio.ImageIO;
 import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.nio.FloatBuffer;
-import java.nio.file.Path;
 import java.util.*;
 import java.util.List;
 
-import static eu.virtualparadox.comictoolset.ModelExtractor.extractModelToTempFile;
 
 /**
  * A utility class for extracting speech/text regions from comic images using the PaddleOCR detection model (DBNet).
@@ -18,9 +20,35 @@ import static eu.virtualparadox.comictoolset.ModelExtractor.extractModelToTempFi
  * This class provides end-to-end support for loading an ONNX model from resources, preprocessing the input image,
  * running inference, post-processing the output heatmap, and extracting bounding boxes where text is detected.
  * </p>
+ * <p>
+ * The size of the detector input is bounded: pages whose long side exceeds {@code maxSideLength} are scaled
+ * down first, and with a {@code tileSize} the (scaled) page is detected in overlapping tiles whose boxes are
+ * merged across the seams (see {@link TileBoxMerger}). The input and heatmap of one inference are then at most
+ * {@code maxSideLength} or {@code tileSize} pixels on a side, however large the scan is.
+ * </p>
  */
 public class OnnxTextMaskGenerator implements TextMaskGenerator {
 
+    /**
+     * Minimum activation level for a heatmap pixel to be considered text.
+     */
+    private static final float THRESHOLD = 0.01f;
+
+    /**
+     * The detector input has to be a multiple of this in both dimensions.
+     */
+    private static final int SIZE_DIVISOR = 32;
+
+    /**
+     * The default maximum long side of the detector input; common downloads (up to ~3000 pixels) stay unscaled.
+     */
+    public static final int DEFAULT_MAX_SIDE_LENGTH = 3200;
+
+    /**
+     * The default overlap of neighbouring detection tiles.
+     */
+    public static final int DEFAULT_TILE_OVERLAP = 128;
+
     /**
      * The ONNX Runtime environment for executing the model.
      */
@@ -37,6 +65,26 @@ public class OnnxTextMaskGenerator implements TextMaskGenerator {
     private final int paddingX;
     private final int paddingY;
 
+    /**
+     * Whether box edges are interpolated between heatmap pixels.
+     */
+    private final boolean subPixelRefinement;
+
+    /**
+     * The maximum length of the long side of the page fed to the detector, 0 for no limit.
+     */
+    private final int maxSideLength;
+
+    /**
+     * The size of the tiles the page is detected in, 0 to detect the whole page at once.
+     */
+    private final int tileSize;
+
+    /**
+     * The overlap of neighbouring tiles.
+     */
+    private final int tileOverlap;
+
     /**
      * Flag to enable or disable debug mode.
      */
@@ -47,6 +95,16 @@ public class OnnxTextMaskGenerator implements TextMaskGenerator {
      */
     private final TextMaskDebugger debugger;
 
+    /**
+     * Reusable direct input buffers, keyed by the padded page size.
+     */
+    private final TensorBufferPool bufferPool = new TensorBufferPool();
+
+    /**
+     * Connected-component labelers with their scratch buffers, one per worker thread.
+     */
+    private final ThreadLocal<ConnectedComponentLabeler> labelers = ThreadLocal.withInitial(ConnectedComponentLabeler::new);
+
     /**
      * Constructor with extracted model path.
      *
@@ -54,216 +112,239 @@ public class OnnxTextMaskGenerator implements TextMaskGenerator {
      * @param session  ORT session
      * @param paddingX text box padding for the x-axis
      * @param paddingY text box padding for the y-axis
+     * @param subPixelRefinement interpolate the box edges between heatmap pixels
+     * @param maxSideLength the maximum long side of the detector input, 0 for no limit
+     * @param tileSize the size of the detection tiles (a multiple of 32), 0 to detect whole pages
+     * @param tileOverlap the overlap of neighbouring tiles
      * @param debug    need generate debug images
      */
     public OnnxTextMaskGenerator(final OrtEnvironment env,
                                  final OrtSession session,
                                  final int paddingX,
                                  final int paddingY,
+                                 final boolean subPixelRefinement,
+                                 final int maxSideLength,
+                                 final int tileSize,
+                                 final int tileOverlap,
                                  final boolean debug) {
         this.environment = env;
         this.session = session;
         this.paddingX = paddingX;
         this.paddingY = paddingY;
+        this.subPixelRefinement = subPixelRefinement;
+        this.maxSideLength = maxSideLength;
+        this.tileSize = tileSize;
+        this.tileOverlap = tileOverlap;
         this.debug = debug;
         this.debugger = new TextMaskDebugger();
     }
 
     /**
-     * Performs inference on the given image to detect potential text regions.
+     * Performs inference on the given page to detect potential text regions.
      *
-     * @param imagePath path to the comic image
+     * @param page the decoded comic page
      * @return list of detected bounding boxes with confidence values
-     * @throws Exception if image loading or ONNX inference fails
+     * @throws Exception if ONNX inference fails
      */
-    public List<TextMaskRegion> getTextMask(final Path imagePath) throws Exception {
-        final BufferedImage originalImage = ImageIO.read(imagePath.toFile());
-        final Dimension paddedSize = padToDivisible(originalImage.getWidth(), originalImage.getHeight(), 32);
-        final BufferedImage resizedImage = resizeImage(originalImage, paddedSize.width, paddedSize.height);
-
-        final FloatBuffer inputBuffer = preprocessImage(resizedImage);
-        final long[] inputShape = {1, 3, paddedSize.height, paddedSize.width};
-
-        final OnnxTensor inputTensor = OnnxTensor.createTensor(environment, inputBuffer, inputShape);
-        final OrtSession.Result result = session.run(Collections.singletonMap("x", inputTensor));
+    @Override
+    public List<TextMaskRegion> getTextMask(final PageContext page) throws Exception {
+        final BufferedImage originalImage = page.getImage();
+        final int width = originalImage.getWidth();
+        final int height = originalImage.getHeight();
+        final double scale = maxSideLength > 0 ? Math.min(1.0, (double) maxSideLength / Math.max(width, height)) : 1.0;
+        final int scaledWidth = Math.max(1, (int) Math.round(width * scale));
+        final int scaledHeight = Math.max(1, (int) Math.round(height * scale));
+
+        final List<TextMaskRegion> regions;
+        if (tileSize > 0 && (scaledWidth > tileSize || scaledHeight > tileSize)) {
+            final BufferedImage scaledImage = scale < 1.0 ? resizeImage(originalImage, scaledWidth, scaledHeight) : originalImage;
+            regions = scaleRegions(detectTiles(scaledImage), scaledWidth, scaledHeight, width, height);
+        } else {
+            regions = detectWhole(originalImage, scaledWidth, scaledHeight);
+        }
 
-        final float[][][][] output = (float[][][][]) result.get(0).getValue();
-        final float[][] heatmap = output[0][0];
-        final float[][] upscaledHeatmap = resizeHeatmap(heatmap, originalImage.getHeight(), originalImage.getWidth());
-        final List<TextMaskRegion> textBoxes = extractTextBoxes(upscaledHeatmap, 0.01f);
+        final List<TextMaskRegion> textBoxes = regions.stream()
+                .filter(box -> box.width() > 5 && box.height() > 5)
+                .map(box -> box.enlarge(paddingX, paddingY))
+                .toList();
 
         if (debug) {
-            debugger.saveDebugImage(imagePath, textBoxes, Color.RED);
+            debugger.saveDebugImage(page, textBoxes, Color.RED);
         }
 
         return textBoxes;
     }
 
     /**
-     * Pads the image size to the next multiple of the given divisor.
-     * Required for ONNX DBNet model compatibility.
+     * Detects the text regions of the page in one inference, the page stretched to the next multiple of 32
+     * of its scaled size.
      */
-    private Dimension padToDivisible(final int width, final int height, final int divisor) {
-        final int newW = ((width + divisor - 1) / divisor) * divisor;
-        final int newH = ((height + divisor - 1) / divisor) * divisor;
-        return new Dimension(newW, newH);
+    private List<TextMaskRegion> detectWhole(final BufferedImage image,
+                                             final int scaledWidth,
+                                             final int scaledHeight) throws OrtException {
+        final Dimension paddedSize = padToDivisible(scaledWidth, scaledHeight, SIZE_DIVISOR);
+        final Heatmap heatmap = runDetector(resizeImage(image, paddedSize.width, paddedSize.height));
+
+        final HeatmapBoxMapper mapper = new HeatmapBoxMapper(heatmap.values(), heatmap.width(), heatmap.height(),
+                THRESHOLD, image.getWidth(), image.getHeight(), subPixelRefinement);
+        final List<TextMaskRegion> regions = new ArrayList<>();
+        for (final ConnectedComponentLabeler.Component component : label(heatmap)) {
+            regions.add(mapper.map(component));
+        }
+        return regions;
     }
 
     /**
-     * Smoothly resizes the image to the specified dimensions.
+     * Detects the text regions of the page tile by tile and merges them across the seams.
+     * The regions are in the coordinates of the given image.
      */
-    private BufferedImage resizeImage(final BufferedImage image, final int width, final int height) {
-        final Image tmp = image.getScaledInstance(width, height, Image.SCALE_SMOOTH);
-        final BufferedImage resized = new BufferedImage(width, height, BufferedImage.TYPE_3BYTE_BGR);
-        final Graphics2D g = resized.createGraphics();
-        g.drawImage(tmp, 0, 0, null);
-        g.dispose();
-        return resized;
+    private List<TextMaskRegion> detectTiles(final BufferedImage image) throws OrtException {
+        final List<TileBoxMerger.TileBox> boxes = new ArrayList<>();
+        final int[] tileXs = tileOrigins(image.getWidth());
+        final int[] tileYs = tileOrigins(image.getHeight());
+        int tile = 0;
+        for (final int tileY : tileYs) {
+            for (final int tileX : tileXs) {
+                final int tileWidth = Math.min(tileSize, image.getWidth() - tileX);
+                final int tileHeight = Math.min(tileSize, image.getHeight() - tileY);
+                final BufferedImage tileImage = image.getSubimage(tileX, tileY, tileWidth, tileHeight);
+                final Dimension paddedSize = padToDivisible(tileWidth, tileHeight, SIZE_DIVISOR);
+                final Heatmap heatmap = runDetector(paddedSize.width == tileWidth && paddedSize.height == tileHeight
+                        ? tileImage
+                        : resizeImage(tileImage, paddedSize.width, paddedSize.height));
+
+                final HeatmapBoxMapper mapper = new HeatmapBoxMapper(heatmap.values(), heatmap.width(), heatmap.height(),
+                        THRESHOLD, tileWidth, tileHeight, subPixelRefinement);
+                for (final ConnectedComponentLabeler.Component component : label(heatmap)) {
+                    final TextMaskRegion box = mapper.map(component);
+                    final boolean cut = (component.minX() == 0 && tileX > 0)
+                            || (component.minY() == 0 && tileY > 0)
+                            || (component.maxX() == heatmap.width() - 1 && tileX + tileWidth < image.getWidth())
+                            || (component.maxY() == heatmap.height() - 1 && tileY + tileHeight < image.getHeight());
+                    boxes.add(new TileBoxMerger.TileBox(tile, tileX + box.x1, tileY + box.y1, tileX + box.x2, tileY + box.y2,
+                            component.pixelCount(), component.activationSum(), cut));
+                }
+                tile++;
+            }
+        }
+        return TileBoxMerger.merge(boxes);
     }
 
     /**
-     * Prepares a FloatBuffer in NCHW format by normalizing RGB values.
-     * The normalization uses ImageNet mean and std.
+     * Returns the origins of the tiles along one axis: {@code tileSize - tileOverlap} apart,
+     * the last one aligned with the end of the axis.
      */
-    private FloatBuffer preprocessImage(final BufferedImage image) {
-        final int width = image.getWidth();
-        final int height = image.getHeight();
-        final FloatBuffer buffer = FloatBuffer.allocate(1 * 3 * height * width);
-
-        final float[] mean = {0.485f, 0.456f, 0.406f};
-        final float[] std = {0.229f, 0.224f, 0.225f};
-
-        for (int c = 0; c < 3; c++) {
-            for (int y = 0; y < height; y++) {
-                for (int x = 0; x < width; x++) {
-                    final int rgb = image.getRGB(x, y);
-                    final int val = switch (c) {
-                        case 0 -> (rgb >> 16) & 0xFF; // Red
-                        case 1 -> (rgb >> 8) & 0xFF;  // Green
-                        default -> rgb & 0xFF;        // Blue
-                    };
-                    final float normalized = (val / 255.0f - mean[c]) / std[c];
-                    buffer.put(normalized);
-                }
-            }
+    private int[] tileOrigins(final int length) {
+        if (length <= tileSize) {
+            return new int[]{0};
+        }
+        final int step = tileSize - tileOverlap;
+        final int count = (length - tileSize + step - 1) / step + 1;
+        final int[] origins = new int[count];
+        for (int i = 0; i < count - 1; i++) {
+            origins[i] = i * step;
         }
-        buffer.rewind();
-        return buffer;
+        origins[count - 1] = length - tileSize;
+        return origins;
     }
 
     /**
-     * Resizes the raw heatmap back to the original image resolution using bilinear interpolation.
+     * Maps regions from the scaled page to the original page, corner-aligned.
      */
-    private float[][] resizeHeatmap(final float[][] src, final int targetH, final int targetW) {
-        final float[][] dst = new float[targetH][targetW];
-        final int srcH = src.length;
-        final int srcW = src[0].length;
-
-        for (int y = 0; y < targetH; y++) {
-            for (int x = 0; x < targetW; x++) {
-                final float srcX = x * (srcW - 1f) / (targetW - 1f);
-                final float srcY = y * (srcH - 1f) / (targetH - 1f);
-
-                final int x0 = (int) Math.floor(srcX), x1 = Math.min(x0 + 1, srcW - 1);
-                final int y0 = (int) Math.floor(srcY), y1 = Math.min(y0 + 1, srcH - 1);
-                final float dx = srcX - x0, dy = srcY - y0;
-
-                final float top = src[y0][x0] * (1 - dx) + src[y0][x1] * dx;
-                final float bot = src[y1][x0] * (1 - dx) + src[y1][x1] * dx;
-                dst[y][x] = top * (1 - dy) + bot * dy;
-            }
+    private static List<TextMaskRegion> scaleRegions(final List<TextMaskRegion> regions,
+                                                     final int scaledWidth,
+                                                     final int scaledHeight,
+                                                     final int width,
+                                                     final int height) {
+        if (scaledWidth == width && scaledHeight == height) {
+            return regions;
         }
+        final double scaleX = scaledWidth > 1 ? (width - 1.0) / (scaledWidth - 1) : 1.0;
+        final double scaleY = scaledHeight > 1 ? (height - 1.0) / (scaledHeight - 1) : 1.0;
+        return regions.stream()
+                .map(region -> new TextMaskRegion(
+                        (int) Math.round(region.x1 * scaleX), (int) Math.round(region.y1 * scaleY),
+                        (int) Math.round(region.x2 * scaleX), (int) Math.round(region.y2 * scaleY),
+                        region.confidence))
+                .toList();
+    }
 
-        return dst;
+    /**
+     * The text probability map of one detector input, in row-major order.
+     */
+    private record Heatmap(float[] values, int width, int height) {
     }
 
     /**
-     * Applies thresholding and flood-fill on the upscaled heatmap to extract bounding boxes.
-     *
-     * @param heatmap   2D float array output from the ONNX model
-     * @param threshold minimum activation level for a pixel to be considered text
-     * @return list of {@link TextMaskRegion} with bounding coordinates and confidence score
+     * Runs the detector on an image whose dimensions are multiples of 32.
      */
-    private List<TextMaskRegion> extractTextBoxes(final float[][] heatmap,
-                                                  final float threshold) {
-        final int h = heatmap.length;
-        final int w = heatmap[0].length;
-        final boolean[][] visited = new boolean[h][w];
-        final List<TextMaskRegion> boxes = new ArrayList<>();
-
-        for (int y = 0; y < h; y++) {
-            for (int x = 0; x < w; x++) {
-                if (!visited[y][x] && heatmap[y][x] > threshold) {
-                    final TextMaskRegion box = floodFill(heatmap, visited, x, y, threshold);
-                    if (box.width() > 5 && box.height() > 5) {
-                        boxes.add(box);
-                    }
-                }
+    private Heatmap runDetector(final BufferedImage input) throws OrtException {
+        final long[] inputShape = {1, 3, input.getHeight(), input.getWidth()};
+
+        try (final TensorBufferPool.Lease lease = bufferPool.acquire(inputShape)) {
+            final FloatBuffer inputBuffer = lease.buffer();
+            TensorConverter.put(input, inputBuffer, 3, Normalization.IMAGENET);
+            inputBuffer.rewind();
+
+            try (final OnnxTensor inputTensor = OnnxTensor.createTensor(environment, inputBuffer, inputShape);
+                 final OrtSession.Result result = session.run(Collections.singletonMap("x", inputTensor))) {
+                // [1, 1, H, W], read as one flat array instead of nested Java arrays
+                final OnnxTensor output = (OnnxTensor) result.get(0);
+                final long[] outputShape = output.getInfo().getShape();
+                return new Heatmap(toArray(output.getFloatBuffer()), (int) outputShape[3], (int) outputShape[2]);
             }
         }
+    }
 
-        // Enlarge boxes by padding
-        return boxes.stream()
-                .map(p -> p.enlarge(paddingX, paddingY))
-                .toList();
+    private List<ConnectedComponentLabeler.Component> label(final Heatmap heatmap) {
+        return labelers.get().label(heatmap.values(), heatmap.width(), heatmap.height(), THRESHOLD);
     }
 
     /**
-     * Performs flood-fill from a seed pixel, expanding to all connected neighbors over threshold.
-     * Accumulates the sum of heatmap activations to compute average confidence.
-     *
-     * @param heatmap   output activation map
-     * @param visited   boolean mask tracking visited pixels
-     * @param startX    seed x coordinate
-     * @param startY    seed y coordinate
-     * @param threshold pixel intensity threshold
-     * @return bounding box of the region with average activation as confidence
+     * Pads the image size to the next multiple of the given divisor.
+     * Required for ONNX DBNet model compatibility.
      */
-    private TextMaskRegion floodFill(final float[][] heatmap,
-                                     final boolean[][] visited,
-                                     final int startX,
-                                     final int startY,
-                                     final float threshold) {
-        final int h = heatmap.length;
-        final int w = heatmap[0].length;
-
-        int minX = startX;
-        int minY = startY;
-        int maxX = startX;
-        int maxY = startY;
-        float sum = heatmap[startY][startX];
-        int count = 1;
-
-        final Queue<Point> queue = new LinkedList<>();
-        queue.add(new Point(startX, startY));
-        visited[startY][startX] = true;
-
-        while (!queue.isEmpty()) {
-            final Point p = queue.poll();
-            final int x = p.x;
-            final int y = p.y;
-
-            minX = Math.min(minX, x);
-            minY = Math.min(minY, y);
-            maxX = Math.max(maxX, x);
-            maxY = Math.max(maxY, y);
-
-            for (int dy = -1; dy <= 1; dy++) {
-                for (int dx = -1; dx <= 1; dx++) {
-                    final int nx = x + dx;
-                    final int ny = y + dy;
-                    if (nx >= 0 && ny >= 0 && nx < w && ny < h && !visited[ny][nx] && heatmap[ny][nx] > threshold) {
-                        visited[ny][nx] = true;
-                        queue.add(new Point(nx, ny));
-                        sum += heatmap[ny][nx];
-                        count++;
-                    }
-                }
+    private Dimension padToDivisible(final int width, final int height, final int divisor) {
+        final int newW = ((width + divisor - 1) / divisor) * divisor;
+        final int newH = ((height + divisor - 1) / divisor) * divisor;
+        return new Dimension(newW, newH);
+    }
+
+    /**
+     * Resizes the image with bilinear interpolation. Downscaling by more than half is done in halving steps,
+     * so thin strokes are averaged instead of skipped.
+     */
+    private BufferedImage resizeImage(final BufferedImage image, final int width, final int height) {
+        BufferedImage current = image;
+        int currentWidth = image.getWidth();
+        int currentHeight = image.getHeight();
+        do {
+            currentWidth = Math.max(width, currentWidth / 2);
+            currentHeight = Math.max(height, currentHeight / 2);
+            if (currentWidth < width * 2 && currentHeight < height * 2) {
+                currentWidth = width;
+                currentHeight = height;
             }
-        }
+            final BufferedImage resized = new BufferedImage(currentWidth, currentHeight, BufferedImage.TYPE_3BYTE_BGR);
+            final Graphics2D g = resized.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.drawImage(current, 0, 0, currentWidth, currentHeight, null);
+            g.dispose();
+            current = resized;
+        } while (currentWidth != width || currentHeight != height);
+        return current;
+    }
 
-        final float confidence = sum / count;
-        return new TextMaskRegion(minX, minY, maxX, maxY, confidence);
+    /**
+     * Returns the values of the buffer, without a copy if it is backed by an array of exactly its size.
+     */
+    private static float[] toArray(final FloatBuffer buffer) {
+        if (buffer.hasArray() && buffer.arrayOffset() == 0 && buffer.array().length == buffer.remaining()) {
+            return buffer.array();
+        }
+        final float[] values = new float[buffer.remaining()];
+        buffer.get(values);
+        return values;
     }
 
     @Override
@@ -273,13 +354,17 @@ public class OnnxTextMaskGenerator implements TextMaskGenerator {
     }
 
     /**
-     * Builder customization for extracting the ONNX model from resources to a temporary file.
+     * Builder of {@link OnnxTextMaskGenerator} instances, loading the model from the {@link ModelStore}.
      */
     public static class TextMaskModelRunnerBuilder {
         private String modelPath;
         private boolean debug;
         private int paddingX;
         private int paddingY;
+        private boolean subPixelRefinement = true;
+        private int maxSideLength = DEFAULT_MAX_SIDE_LENGTH;
+        private int tileSize;
+        private int tileOverlap = DEFAULT_TILE_OVERLAP;
 
         public static TextMaskModelRunnerBuilder builder() {
             return new TextMaskModelRunnerBuilder();
@@ -306,7 +391,44 @@ public class OnnxTextMaskGenerator implements TextMaskGenerator {
         }
 
         /**
-         * Builds the {@link OnnxTextMaskGenerator} by extracting the model from resources into a temporary file.
+         * Sets whether box edges are interpolated between heatmap pixels (default: true). Without it, boxes
+         * snap to the heatmap grid, which is off by up to one heatmap pixel when the heatmap is smaller than
+         * the page.
+         */
+        public TextMaskModelRunnerBuilder subPixelRefinement(boolean subPixelRefinement) {
+            this.subPixelRefinement = subPixelRefinement;
+            return this;
+        }
+
+        /**
+         * Sets the maximum length of the long side of a page fed to the detector (default: 3200); larger pages
+         * are scaled down first. 0 disables the limit.
+         */
+        public TextMaskModelRunnerBuilder maxSideLength(int maxSideLength) {
+            this.maxSideLength = maxSideLength;
+            return this;
+        }
+
+        /**
+         * Sets the size of the square tiles pages larger than it are detected in, a multiple of 32
+         * (default: 0, i.e. whole pages).
+         */
+        public TextMaskModelRunnerBuilder tileSize(int tileSize) {
+            this.tileSize = tileSize;
+            return this;
+        }
+
+        /**
+         * Sets the overlap of neighbouring tiles (default: 128). It should exceed the height of a text line,
+         * so every line is seen whole by at least one tile.
+         */
+        public TextMaskModelRunnerBuilder tileOverlap(int tileOverlap) {
+            this.tileOverlap = tileOverlap;
+            return this;
+        }
+
+        /**
+         * Builds the {@link OnnxTextMaskGenerator} from the model resolved through the {@link ModelStore}.
          *
          * @return an initialized runner instance with a usable model path
          */
@@ -314,12 +436,22 @@ public class OnnxTextMaskGenerator implements TextMaskGenerator {
             if (modelPath == null) {
                 throw new IllegalArgumentException("TextMaskModel must not be null");
             }
-            final String extracted = extractModelToTempFile(modelPath);
+            if (maxSideLength < 0) {
+                throw new IllegalArgumentException("Max side length must not be negative");
+            }
+            if (tileSize < 0 || tileSize % SIZE_DIVISOR != 0) {
+                throw new IllegalArgumentException("Tile size must be 0 or a positive multiple of " + SIZE_DIVISOR);
+            }
+            if (tileSize > 0 && (tileOverlap < 0 || tileOverlap > tileSize / 2)) {
+                throw new IllegalArgumentException("Tile overlap must be between 0 and half the tile size");
+            }
+            final String extracted = ModelStore.getDefault().resolve(modelPath).toString();
 
             final OrtEnvironment env = OrtEnvironment.getEnvironment();
             final OrtSession session = env.createSession(extracted, new OrtSession.SessionOptions());
 
-            return new OnnxTextMaskGenerator(env, session, paddingX, paddingY, debug);
+            return new OnnxTextMaskGenerator(env, session, paddingX, paddingY, subPixelRefinement,
+                    maxSideLength, tileSize, tileOverlap, debug);
         }
     }
 
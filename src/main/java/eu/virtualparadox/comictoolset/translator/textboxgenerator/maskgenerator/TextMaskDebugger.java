@@ -1,11 +1,12 @@
 package eu.virtualparadox.comictoolset.translator.textboxgenerator.maskgenerator;
 
+import eu.virtualparadox.comictoolset.translator.page.PageContext;
+
 import javax.imageio.ImageIO;
 import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.Path;
 import java.util.List;
 
 public class TextMaskDebugger {
@@ -13,15 +14,15 @@ public class TextMaskDebugger {
     /**
      * Saves a debug image to the system temp directory with visual bounding boxes.
      *
-     * @param imagePath the original input image path
+     * @param page      the decoded input page
      * @param boxes     the list of bounding boxes
      * @param boxColor  the color of the bounding boxes
      * @throws Exception if writing fails
      */
-    public void saveDebugImage(final Path imagePath,
+    public void saveDebugImage(final PageContext page,
                                final List<TextMaskRegion> boxes,
                                final Color boxColor) throws IOException {
-        final BufferedImage originalImage = ImageIO.read(imagePath.toFile());
+        final BufferedImage originalImage = page.getImage();
 
         final BufferedImage output = new BufferedImage(originalImage.getWidth(), originalImage.getHeight(), BufferedImage.TYPE_INT_RGB);
         final Graphics2D g = output.createGraphics();
@@ -35,20 +36,9 @@ public class TextMaskDebugger {
 
         g.dispose();
 
-        final String baseName = stripExtension(imagePath.toFile().getName());
+        final String baseName = page.getBaseName();
         final File debugFile = File.createTempFile("recognizer-" + baseName + "-debug-", ".jpg");
         debugFile.deleteOnExit();
         ImageIO.write(output, "jpg", debugFile);
     }
-
-    /**
-     * Removes the file extension from a filename.
-     *
-     * @param filename the filename string
-     * @return the name without extension
-     */
-    private String stripExtension(final String filename) {
-        final int dotIndex = filename.lastIndexOf('.');
-        return (dotIndex == -1) ? filename : filename.substring(0, dotIndex);
-    }
 }
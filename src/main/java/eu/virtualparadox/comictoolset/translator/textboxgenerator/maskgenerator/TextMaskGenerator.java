@@ -1,8 +1,14 @@
 package eu.virtualparadox.comictoolset.translator.textboxgenerator.maskgenerator;
 
+import eu.virtualparadox.comictoolset.translator.page.PageContext;
+
 import java.nio.file.Path;
 import java.util.List;
 
 public interface TextMaskGenerator extends AutoCloseable {
-    List<TextMaskRegion> getTextMask(Path imagePath) throws Exception;
+    List<TextMaskRegion> getTextMask(PageContext page) throws Exception;
+
+    default List<TextMaskRegion> getTextMask(Path imagePath) throws Exception {
+        return getTextMask(PageContext.load(imagePath));
+    }
 }
@@ -0,0 +1,118 @@
+package eu.virtualparadox.comictoolset.translator.textboxgenerator.maskgenerator;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Merges the text boxes detected on overlapping tiles of a page.
+ * <p>
+ * A text region crossing a seam is cut into pieces by the tiles, and a region inside the overlap of two tiles
+ * is detected by both. Boxes of different tiles are therefore merged when they intersect and either one of
+ * them touches an inner tile edge (a cut piece), or they overlap by at least half of their union (the same
+ * region seen twice). The merged box is the union of its pieces; its confidence is the pixel-weighted mean
+ * activation of the pieces.
+ * </p>
+ */
+final class TileBoxMerger {
+
+    private static final double DUPLICATE_IOU = 0.5;
+
+    private TileBoxMerger() {
+        // Prevent instantiation
+    }
+
+    /**
+     * A box detected on one tile, in page coordinates.
+     *
+     * @param tile          the index of the tile
+     * @param x1            the leftmost column
+     * @param y1            the topmost row
+     * @param x2            the rightmost column (inclusive)
+     * @param y2            the bottommost row (inclusive)
+     * @param pixelCount    the number of heatmap pixels of the region
+     * @param activationSum the sum of the heatmap values of the region
+     * @param cut           whether the region touches an edge of the tile that is not a page edge
+     */
+    record TileBox(int tile, int x1, int y1, int x2, int y2, int pixelCount, double activationSum, boolean cut) {
+
+        private boolean intersects(final TileBox other) {
+            return x1 <= other.x2 && other.x1 <= x2 && y1 <= other.y2 && other.y1 <= y2;
+        }
+
+        private double iou(final TileBox other) {
+            final long intersection = (long) (Math.min(x2, other.x2) - Math.max(x1, other.x1) + 1)
+                    * (Math.min(y2, other.y2) - Math.max(y1, other.y1) + 1);
+            return (double) intersection / (area() + other.area() - intersection);
+        }
+
+        private long area() {
+            return (long) (x2 - x1 + 1) * (y2 - y1 + 1);
+        }
+    }
+
+    /**
+     * Merges the boxes of all tiles.
+     *
+     * @param boxes the boxes of all tiles
+     * @return the merged boxes, in the order of their first piece
+     */
+    static List<TextMaskRegion> merge(final List<TileBox> boxes) {
+        final int[] parent = new int[boxes.size()];
+        for (int i = 0; i < parent.length; i++) {
+            parent[i] = i;
+        }
+
+        for (int i = 0; i < boxes.size(); i++) {
+            final TileBox a = boxes.get(i);
+            for (int j = i + 1; j < boxes.size(); j++) {
+                final TileBox b = boxes.get(j);
+                if (a.tile() != b.tile() && a.intersects(b) && (a.cut() || b.cut() || a.iou(b) >= DUPLICATE_IOU)) {
+                    union(parent, i, j);
+                }
+            }
+        }
+
+        final Map<Integer, List<TileBox>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < boxes.size(); i++) {
+            groups.computeIfAbsent(find(parent, i), root -> new ArrayList<>()).add(boxes.get(i));
+        }
+
+        final List<TextMaskRegion> merged = new ArrayList<>(groups.size());
+        for (final List<TileBox> group : groups.values()) {
+            int x1 = Integer.MAX_VALUE;
+            int y1 = Integer.MAX_VALUE;
+            int x2 = Integer.MIN_VALUE;
+            int y2 = Integer.MIN_VALUE;
+            long pixelCount = 0;
+            double activationSum = 0;
+            for (final TileBox box : group) {
+                x1 = Math.min(x1, box.x1());
+                y1 = Math.min(y1, box.y1());
+                x2 = Math.max(x2, box.x2());
+                y2 = Math.max(y2, box.y2());
+                pixelCount += box.pixelCount();
+                activationSum += box.activationSum();
+            }
+            merged.add(new TextMaskRegion(x1, y1, x2, y2, (float) (activationSum / pixelCount)));
+        }
+        return merged;
+    }
+
+    private static int find(final int[] parent, int index) {
+        while (parent[index] != index) {
+            parent[index] = parent[parent[index]];
+            index = parent[index];
+        }
+        return index;
+    }
+
+    private static void union(final int[] parent, final int a, final int b) {
+        final int rootA = find(parent, a);
+        final int rootB = find(parent, b);
+        if (rootA != rootB) {
+            parent[Math.max(rootA, rootB)] = Math.min(rootA, rootB);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package eu.virtualparadox.comictoolset.translator.textboxgenerator.recognizer;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Groups text line crops into OCR batches of similar width.
+ * <p>
+ * Crops are sorted by their resized width and every crop is assigned to a width bucket (its width rounded up
+ * to a multiple of the bucket size). Consecutive crops of the same bucket form a batch of at most
+ * {@code batchSize} crops, all padded to the widest crop of the batch, so no crop is padded by a full bucket.
+ * </p>
+ */
+final class OcrBatchPlanner {
+
+    private OcrBatchPlanner() {
+        // Prevent instantiation
+    }
+
+    /**
+     * A batch of crops sharing one padded width.
+     *
+     * @param indices the indices of the crops in the input, narrowest first
+     * @param width   the padded width of every crop of the batch
+     */
+    record Batch(List<Integer> indices, int width) {
+    }
+
+    /**
+     * Plans the batches for crops of the given widths.
+     *
+     * @param widths      the resized width of every crop
+     * @param batchSize   the maximum number of crops per batch
+     * @param widthBucket the bucket size in pixels; larger buckets give fuller batches but more padding
+     * @return the batches, every crop being part of exactly one
+     */
+    static List<Batch> plan(final int[] widths, final int batchSize, final int widthBucket) {
+        final List<Integer> order = IntStream.range(0, widths.length).boxed()
+                .sorted(Comparator.comparingInt(i -> widths[i]))
+                .toList();
+
+        final List<Batch> batches = new ArrayList<>();
+        List<Integer> current = new ArrayList<>();
+        int currentBucket = -1;
+        int currentWidth = 0;
+        for (final int index : order) {
+            final int bucket = bucketOf(widths[index], widthBucket);
+            if (!current.isEmpty() && (bucket != currentBucket || current.size() == batchSize)) {
+                batches.add(new Batch(current, currentWidth));
+                current = new ArrayList<>();
+            }
+            currentBucket = bucket;
+            currentWidth = current.isEmpty() ? widths[index] : Math.max(currentWidth, widths[index]);
+            current.add(index);
+        }
+        if (!current.isEmpty()) {
+            batches.add(new Batch(current, currentWidth));
+        }
+        return batches;
+    }
+
+    private static int bucketOf(final int width, final int widthBucket) {
+        return (Math.max(width, 1) + widthBucket - 1) / widthBucket;
+    }
+}
@@ -36,10 +36,23 @@ public class OcrDecoder {
      * @return the decoded string
      */
     public static String ctcDecode(final float[][] logits, final List<String> labelList) {
+        return ctcDecode(logits, logits.length, labelList);
+    }
+
+    /**
+     * Performs greedy CTC decoding on the first {@code timeSteps} steps of a logit matrix.
+     * Used for rows of a padded batch, whose trailing steps only see padding.
+     *
+     * @param logits     the output logits of one row; shape: [timeSteps][numClasses]
+     * @param timeSteps  the number of leading time steps covering the real image
+     * @param labelList  list of class labels, where index 0 is reserved for the blank token
+     * @return the decoded string
+     */
+    public static String ctcDecode(final float[][] logits, final int timeSteps, final List<String> labelList) {
         final StringBuilder sb = new StringBuilder();
         int lastIndex = -1;
 
-        for (int t = 0; t < logits.length; t++) {
+        for (int t = 0; t < Math.min(timeSteps, logits.length); t++) {
             int maxIndex = argmax(logits[t]);
 
             // Skip repeated characters and blank tokens (index 0)
@@ -1,52 +1,69 @@
 package eu.virtualparadox.comictoolset.translator.textboxgenerator.recognizer;
 
 import ai.onnxruntime.*;
+import eu.virtualparadox.comictoolset.ModelStore;
 import eu.virtualparadox.comictoolset.translator.bubblecollector.DetectedBubbleBox;
+import eu.virtualparadox.comictoolset.translator.page.PageContext;
+import eu.virtualparadox.comictoolset.translator.tensor.Normalization;
+import eu.virtualparadox.comictoolset.translator.tensor.PaddingMode;
+import eu.virtualparadox.comictoolset.translator.tensor.TensorBufferPool;
+import eu.virtualparadox.comictoolset.translator.tensor.TensorConverter;
 import eu.virtualparadox.comictoolset.translator.textboxgenerator.assigner.BubbleTextAssigner;
 import eu.virtualparadox.comictoolset.translator.textboxgenerator.assigner.RecognizedTextWithMask;
 import eu.virtualparadox.comictoolset.translator.textboxgenerator.maskgenerator.*;
 import eu.virtualparadox.comictoolset.translator.textboxgenerator.processor.TextProcessor;
 
-import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
 import java.nio.FloatBuffer;
-import java.nio.file.Path;
 import java.util.*;
 import java.util.List;
 
-import static eu.virtualparadox.comictoolset.ModelExtractor.extractModelToTempFile;
 
 /**
  * Text recognizer using ONNX-based PaddleOCR model.
  * Recognizes text from comic bubble images and associates text with detected mask regions.
+ * <p>
+ * Text lines are not recognized one by one: the crops are resized to the model's line height, grouped by
+ * width (see {@link OcrBatchPlanner}), padded to a common width and run as one {@code [N,3,48,W]} tensor
+ * per batch. Every row of the output is CTC-decoded only up to the time steps covering its real width,
+ * so the padding never produces characters.
+ * </p>
  */
 public final class OnnxTextRecognizer implements TextRecognizer {
 
+    /** Height of the text lines expected by the recognition model */
+    private static final int LINE_HEIGHT = 48;
+
     private final OrtEnvironment env;
     private final OrtSession session;
     private final List<String> labelList;
     private final TextMaskGenerator textMaskGenerator;
     private final TextProcessor textProcessor;
+    private final int batchSize;
+    private final int widthBucket;
+    private final PaddingMode paddingMode;
+    private final TensorBufferPool bufferPool = new TensorBufferPool();
 
-    private OnnxTextRecognizer(final TextMaskGenerator textMaskGenerator) throws Exception {
+    private OnnxTextRecognizer(final TextMaskGenerator textMaskGenerator,
+                               final int batchSize,
+                               final int widthBucket,
+                               final PaddingMode paddingMode) throws Exception {
         this.env = OrtEnvironment.getEnvironment();
-        final String modelPath = extractModelToTempFile("models/paddle/inference.onnx");
+        final String modelPath = ModelStore.getDefault().resolve("models/paddle/inference.onnx").toString();
         this.session = env.createSession(modelPath, new OrtSession.SessionOptions());
         this.labelList = OcrDecoder.loadLabelList("models/paddle/en_dict.txt");
         this.textMaskGenerator = textMaskGenerator;
         this.textProcessor = new TextProcessor();
+        this.batchSize = batchSize;
+        this.widthBucket = widthBucket;
+        this.paddingMode = paddingMode;
     }
 
     /**
-     * Builds an instance using a small ONNX-based mask model with default padding.
+     * Builds an instance using a small ONNX-based mask model with default padding and batching.
      */
     public static OnnxTextRecognizer build() throws Exception {
-        final TextMaskGenerator generator = OnnxTextMaskGenerator.TextMaskModelRunnerBuilder.builder()
-                .model(TextMaskModel.SMALL)
-                .paddingX(15)
-                .paddingY(15)
-                .build();
-        return new OnnxTextRecognizer(generator);
+        return TextRecognizerBuilder.builder().build();
     }
 
     /**
@@ -54,10 +71,10 @@ public final class OnnxTextRecognizer implements TextRecognizer {
      * Performs clustering, recognition, and assignment of recognized text to detected masks.
      */
     @Override
-    public List<RecognizedTextWithMask> recognize(final Path imagePath,
+    public List<RecognizedTextWithMask> recognize(final PageContext page,
                                                   final List<DetectedBubbleBox> mergedBoxes) throws Exception {
-        final BufferedImage image = ImageIO.read(imagePath.toFile());
-        final List<TextMaskRegion> textMaskRegions = textMaskGenerator.getTextMask(imagePath);
+        final BufferedImage image = page.getImage();
+        final List<TextMaskRegion> textMaskRegions = textMaskGenerator.getTextMask(page);
 
         final Map<DetectedBubbleBox, List<TextMaskRegion>> boxesByBubble = new HashMap<>();
         for (final TextMaskRegion box : textMaskRegions) {
@@ -69,10 +86,23 @@ public final class OnnxTextRecognizer implements TextRecognizer {
             }
         }
 
-        final List<RecognizedTextBox> recognizedWords = new ArrayList<>();
+        final List<TextLine> lines = new ArrayList<>();
         for (final TextMaskRegion box : textMaskRegions) {
-            final BufferedImage crop = image.getSubimage(box.x1, box.y1, box.width(), box.height());
-            recognizedWords.addAll(recognizeSingleBubble(crop, box.x1, box.y1));
+            // mask regions are padded and may reach over the page border
+            final int x1 = Math.max(0, box.x1);
+            final int y1 = Math.max(0, box.y1);
+            final int x2 = Math.min(image.getWidth(), box.x2);
+            final int y2 = Math.min(image.getHeight(), box.y2);
+            if (x2 > x1 && y2 > y1) {
+                final BufferedImage crop = image.getSubimage(x1, y1, x2 - x1, y2 - y1);
+                lines.add(new TextLine(ImageUtils.resizePreservingRatio(crop, LINE_HEIGHT), x1, y1, x2, y2));
+            }
+        }
+
+        final int[] widths = lines.stream().mapToInt(line -> line.image().getWidth()).toArray();
+        final List<RecognizedTextBox> recognizedWords = new ArrayList<>();
+        for (final OcrBatchPlanner.Batch batch : OcrBatchPlanner.plan(widths, batchSize, widthBucket)) {
+            recognizedWords.addAll(recognizeBatch(lines, batch));
         }
 
         final List<RecognizedTextBox> recognizedTextBoxes = mergeTextBoxes(mergedBoxes, recognizedWords);
@@ -85,19 +115,35 @@ public final class OnnxTextRecognizer implements TextRecognizer {
                 && word.y1 >= box.y1() && word.y2 <= box.y2();
     }
 
-    private List<RecognizedTextBox> recognizeSingleBubble(final BufferedImage bubbleImage,
-                                                          final int offsetX,
-                                                          final int offsetY) throws Exception {
-        final BufferedImage resized = ImageUtils.resizePreservingRatio(bubbleImage, 48);
-        final FloatBuffer tensor = ImageUtils.toFloatTensor(resized, 3);
-        final long[] shape = {1, 3, resized.getHeight(), resized.getWidth()};
-
-        try (final OnnxTensor inputTensor = OnnxTensor.createTensor(env, tensor, shape)) {
-            final OrtSession.Result result = session.run(Collections.singletonMap("x", inputTensor));
-            final float[][][] logits = (float[][][]) result.get(0).getValue();
-            final String decoded = OcrDecoder.ctcDecode(logits[0], labelList);
-            return List.of(new RecognizedTextBox(decoded, "", offsetX, offsetY,
-                    offsetX + bubbleImage.getWidth(), offsetY + bubbleImage.getHeight()));
+    /**
+     * Recognizes the lines of one batch with a single inference.
+     */
+    private List<RecognizedTextBox> recognizeBatch(final List<TextLine> lines,
+                                                   final OcrBatchPlanner.Batch batch) throws Exception {
+        final int count = batch.indices().size();
+        final long[] shape = {count, 3, LINE_HEIGHT, batch.width()};
+
+        try (final TensorBufferPool.Lease lease = bufferPool.acquire(shape)) {
+            final FloatBuffer tensor = lease.buffer();
+            for (final int index : batch.indices()) {
+                TensorConverter.put(lines.get(index).image(), tensor, 3, Normalization.UNIT, batch.width(), paddingMode);
+            }
+            tensor.rewind();
+
+            try (final OnnxTensor inputTensor = OnnxTensor.createTensor(env, tensor, shape);
+                 final OrtSession.Result result = session.run(Collections.singletonMap("x", inputTensor))) {
+                final float[][][] logits = (float[][][]) result.get(0).getValue();
+
+                final List<RecognizedTextBox> words = new ArrayList<>(count);
+                for (int row = 0; row < count; row++) {
+                    final TextLine line = lines.get(batch.indices().get(row));
+                    final int timeSteps = logits[row].length;
+                    final int validSteps = (int) Math.ceil((double) timeSteps * line.image().getWidth() / batch.width());
+                    final String decoded = OcrDecoder.ctcDecode(logits[row], validSteps, labelList);
+                    words.add(new RecognizedTextBox(decoded, "", line.x1(), line.y1(), line.x2(), line.y2()));
+                }
+                return words;
+            }
         }
     }
 
@@ -157,11 +203,80 @@ public final class OnnxTextRecognizer implements TextRecognizer {
     }
 
     /**
-     * Releases ONNX session and environment resources.
+     * A text line crop resized to the model's line height, with its bounds on the page.
+     */
+    private record TextLine(BufferedImage image, int x1, int y1, int x2, int y2) {
+    }
+
+    /**
+     * Releases ONNX session and environment resources, including the owned text mask generator.
      */
     @Override
     public void close() throws Exception {
+        textMaskGenerator.close();
         session.close();
         env.close();
     }
+
+    /**
+     * Builder for {@link OnnxTextRecognizer}.
+     */
+    public static class TextRecognizerBuilder {
+        private int batchSize = 16;
+        private int widthBucket = 64;
+        private PaddingMode paddingMode = PaddingMode.REPLICATE_EDGE;
+
+        public static TextRecognizerBuilder builder() {
+            return new TextRecognizerBuilder();
+        }
+
+        /**
+         * Sets the maximum number of text lines recognized in one inference.
+         */
+        public TextRecognizerBuilder batchSize(final int batchSize) {
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        /**
+         * Sets the width granularity (in pixels, after resizing to the line height) of the batches;
+         * only lines whose widths round up to the same multiple of it share a batch.
+         */
+        public TextRecognizerBuilder widthBucket(final int widthBucket) {
+            this.widthBucket = widthBucket;
+            return this;
+        }
+
+        /**
+         * Sets how the lines narrower than their batch are padded.
+         */
+        public TextRecognizerBuilder paddingMode(final PaddingMode paddingMode) {
+            this.paddingMode = paddingMode;
+            return this;
+        }
+
+        /**
+         * Builds the recognizer together with a small ONNX-based mask model with default padding.
+         *
+         * @return an initialized recognizer
+         */
+        public OnnxTextRecognizer build() throws Exception {
+            if (batchSize <= 0) {
+                throw new IllegalArgumentException("Batch size must be a positive integer");
+            }
+            if (widthBucket <= 0) {
+                throw new IllegalArgumentException("Width bucket must be a positive integer");
+            }
+            if (paddingMode == null) {
+                throw new IllegalArgumentException("PaddingMode must not be null");
+            }
+
+            final TextMaskGenerator generator = OnnxTextMaskGenerator.TextMaskModelRunnerBuilder.builder()
+                    .model(TextMaskModel.SMALL)
+                    .paddingX(15)
+                    .paddingY(15)
+                    .build();
+            return new OnnxTextRecognizer(generator, batchSize, widthBucket, paddingMode);
+        }
+    }
 }
@@ -1,5 +1,6 @@
 package eu.virtualparadox.comictoolset.translator.textboxgenerator.recognizer;
 
+import eu.virtualparadox.comictoolset.translator.page.PageContext;
 import eu.virtualparadox.comictoolset.translator.textboxgenerator.assigner.RecognizedTextWithMask;
 import eu.virtualparadox.comictoolset.translator.bubblecollector.DetectedBubbleBox;
 
@@ -8,6 +9,11 @@ import java.util.*;
 
 public interface TextRecognizer extends AutoCloseable {
 
-    List<RecognizedTextWithMask> recognize(final Path imagePath,
+    List<RecognizedTextWithMask> recognize(final PageContext page,
                                            final List<DetectedBubbleBox> bubbleBoxes) throws Exception;
+
+    default List<RecognizedTextWithMask> recognize(final Path imagePath,
+                                                   final List<DetectedBubbleBox> bubbleBoxes) throws Exception {
+        return recognize(PageContext.load(imagePath), bubbleBoxes);
+    }
 }
@@ -0,0 +1,180 @@
+package eu.virtualparadox.comictoolset.translator.textremover;
+
+import eu.virtualparadox.comictoolset.translator.textboxgenerator.maskgenerator.TextMaskRegion;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Plans the windows the inpainting model runs on, so only the parts of a page with text are inpainted.
+ * <p>
+ * The mask regions are clipped to the page and clustered: regions whose context-padded boxes intersect belong
+ * to one cluster. A cluster that fits into a model tile gets one tile-sized window centered on it, which gives
+ * the model as much surrounding context as possible and needs no resizing. A larger cluster is covered by a
+ * grid of tiles overlapping by {@link #tileOverlap}, of which only those containing some of its regions are
+ * kept. Every window knows the region parts it is responsible for; only those pixels are taken from the model
+ * output. The windows of a cluster are consecutive and share its index, so their outputs can be blended where
+ * they overlap.
+ * </p>
+ */
+final class InpaintingPlanner {
+
+    private InpaintingPlanner() {
+        // Prevent instantiation
+    }
+
+    /**
+     * A window of the page to inpaint.
+     *
+     * @param bounds  the window, at most tile-sized
+     * @param targets the parts of the mask regions inside the window whose pixels are taken from its output
+     * @param cluster the index of the cluster of regions the window belongs to
+     */
+    record Window(Rectangle bounds, List<Rectangle> targets, int cluster) {
+    }
+
+    /**
+     * Returns the overlap of the tiles covering a large cluster.
+     *
+     * @param tileSize       the input size of the model
+     * @param contextPadding the context kept around every region
+     * @return the overlap in pixels
+     */
+    static int tileOverlap(final int tileSize, final int contextPadding) {
+        return Math.min(2 * contextPadding, tileSize / 2);
+    }
+
+    /**
+     * Plans the windows for the mask regions of a page.
+     *
+     * @param regions        the mask regions; {@code x2} and {@code y2} are exclusive
+     * @param pageWidth      the width of the page
+     * @param pageHeight     the height of the page
+     * @param tileSize       the input size of the model
+     * @param contextPadding the context kept around every region
+     * @return the windows, no window for a page without text
+     */
+    static List<Window> plan(final List<TextMaskRegion> regions,
+                             final int pageWidth,
+                             final int pageHeight,
+                             final int tileSize,
+                             final int contextPadding) {
+        final Rectangle page = new Rectangle(0, 0, pageWidth, pageHeight);
+        final List<Rectangle> rects = new ArrayList<>();
+        for (final TextMaskRegion region : regions) {
+            final Rectangle rect = new Rectangle(region.x1, region.y1, region.x2 - region.x1, region.y2 - region.y1)
+                    .intersection(page);
+            if (!rect.isEmpty()) {
+                rects.add(rect);
+            }
+        }
+
+        final List<Window> windows = new ArrayList<>();
+        final List<List<Rectangle>> clusters = cluster(rects, contextPadding);
+        for (int index = 0; index < clusters.size(); index++) {
+            final List<Rectangle> cluster = clusters.get(index);
+            Rectangle bounds = null;
+            for (final Rectangle rect : cluster) {
+                bounds = bounds == null ? new Rectangle(rect) : bounds.union(rect);
+            }
+            final Rectangle context = pad(bounds, contextPadding).intersection(page);
+
+            if (context.width <= tileSize && context.height <= tileSize) {
+                windows.add(new Window(centeredTile(context, page, tileSize), cluster, index));
+                continue;
+            }
+
+            final int overlap = tileOverlap(tileSize, contextPadding);
+            for (final int y : origins(context.y, context.height, page.height, tileSize, overlap)) {
+                for (final int x : origins(context.x, context.width, page.width, tileSize, overlap)) {
+                    final Rectangle tile = new Rectangle(x, y, tileSize, tileSize).intersection(page);
+                    final List<Rectangle> targets = new ArrayList<>();
+                    for (final Rectangle rect : cluster) {
+                        final Rectangle target = rect.intersection(tile);
+                        if (!target.isEmpty()) {
+                            targets.add(target);
+                        }
+                    }
+                    if (!targets.isEmpty()) {
+                        windows.add(new Window(tile, targets, index));
+                    }
+                }
+            }
+        }
+        return windows;
+    }
+
+    /**
+     * Groups the rectangles whose padded boxes intersect, keeping the order of their first member.
+     */
+    private static List<List<Rectangle>> cluster(final List<Rectangle> rects, final int contextPadding) {
+        final int[] parent = new int[rects.size()];
+        for (int i = 0; i < parent.length; i++) {
+            parent[i] = i;
+        }
+        for (int i = 0; i < rects.size(); i++) {
+            final Rectangle padded = pad(rects.get(i), contextPadding);
+            for (int j = i + 1; j < rects.size(); j++) {
+                if (padded.intersects(pad(rects.get(j), contextPadding))) {
+                    final int rootI = find(parent, i);
+                    final int rootJ = find(parent, j);
+                    parent[Math.max(rootI, rootJ)] = Math.min(rootI, rootJ);
+                }
+            }
+        }
+
+        final Map<Integer, List<Rectangle>> clusters = new LinkedHashMap<>();
+        for (int i = 0; i < rects.size(); i++) {
+            clusters.computeIfAbsent(find(parent, i), root -> new ArrayList<>()).add(rects.get(i));
+        }
+        return new ArrayList<>(clusters.values());
+    }
+
+    /**
+     * Returns the tile-sized window centered on the area, shifted into the page.
+     */
+    private static Rectangle centeredTile(final Rectangle area, final Rectangle page, final int tileSize) {
+        final int width = Math.min(tileSize, page.width);
+        final int height = Math.min(tileSize, page.height);
+        final int x = Math.max(0, Math.min(page.width - width, area.x + area.width / 2 - width / 2));
+        final int y = Math.max(0, Math.min(page.height - height, area.y + area.height / 2 - height / 2));
+        return new Rectangle(x, y, width, height);
+    }
+
+    /**
+     * Returns the tile origins covering {@code [start, start + length)}, the last tile ending at its end.
+     * A range fitting one tile gets a single tile centered on it, shifted into the page.
+     */
+    private static List<Integer> origins(final int start,
+                                         final int length,
+                                         final int pageLength,
+                                         final int tileSize,
+                                         final int overlap) {
+        final List<Integer> origins = new ArrayList<>();
+        if (length <= tileSize) {
+            origins.add(Math.max(0, Math.min(pageLength - tileSize, start + length / 2 - tileSize / 2)));
+            return origins;
+        }
+        final int step = tileSize - overlap;
+        for (int offset = 0; offset + tileSize < length; offset += step) {
+            origins.add(start + offset);
+        }
+        origins.add(start + length - tileSize);
+        return origins;
+    }
+
+    private static Rectangle pad(final Rectangle rect, final int padding) {
+        return new Rectangle(rect.x - padding, rect.y - padding, rect.width + 2 * padding, rect.height + 2 * padding);
+    }
+
+    private static int find(final int[] parent, int index) {
+        while (parent[index] != index) {
+            parent[index] = parent[parent[index]];
+            index = parent[index];
+        }
+        return index;
+    }
+}
@@ -1,154 +1,307 @@
 package eu.virtualparadox.comictoolset.translator.textremover;
 
 import ai.onnxruntime.*;
+import eu.virtualparadox.comictoolset.ModelStore;
+import eu.virtualparadox.comictoolset.translator.page.PageContext;
+import eu.virtualparadox.comictoolset.translator.tensor.Normalization;
+import eu.virtualparadox.comictoolset.translator.tensor.TensorBufferPool;
+import eu.virtualparadox.comictoolset.translator.tensor.TensorConverter;
 import eu.virtualparadox.comictoolset.translator.textboxgenerator.maskgenerator.TextMaskRegion;
 
-import javax.imageio.ImageIO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import java.awt.*;
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
 import java.nio.FloatBuffer;
-import java.nio.file.Files;
-import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
-import static eu.virtualparadox.comictoolset.ModelExtractor.extractModelToTempFile;
 
 /**
  * Text remover using LaMa ONNX model to inpaint detected text regions in comic images.
- * Supports tiling to process images larger than the model's 512x512 input.
+ * <p>
+ * Only the parts of the page around text are inpainted: the mask regions are grouped into windows of the
+ * model's 512x512 input with some context around them (see {@link InpaintingPlanner}), and only the masked
+ * pixels of every window are taken from the model output. All other pixels are copied from the page unchanged,
+ * and a page without text needs no inference at all.
+ * </p>
+ * <p>
+ * Windows are never resized: one smaller than the model input (on a page smaller than it) is reflect-padded
+ * and the padding is cropped from the output. Where the windows of a large cluster overlap, their outputs are
+ * feather-blended (see {@link TileBlender}), so no seams show. Up to {@code batchSize} windows are inpainted
+ * with a single inference if the model has a dynamic batch dimension.
+ * </p>
  */
 public class OnnxTextRemover implements TextRemover {
 
+    private static final Logger logger = LoggerFactory.getLogger(OnnxTextRemover.class);
+
     private static final int TILE_SIZE = 512;
+    private static final int TILE_PLANE = TILE_SIZE * TILE_SIZE;
+    private static final int CONTEXT_PADDING = 32;
 
     private final OrtEnvironment env;
     private final OrtSession session;
+    private final int batchSize;
     private final boolean debug;
+    private final TensorBufferPool bufferPool = new TensorBufferPool();
 
     public OnnxTextRemover(final OrtEnvironment env,
                            final OrtSession session,
                            final boolean debug) {
+        this(env, session, 1, debug);
+    }
+
+    /**
+     * Constructs a text remover.
+     *
+     * @param env       the ONNX environment
+     * @param session   the LaMa session
+     * @param batchSize the maximum number of windows per inference; above 1 the model needs a dynamic batch
+     *                  dimension
+     * @param debug     whether to log the windows of every page
+     */
+    public OnnxTextRemover(final OrtEnvironment env,
+                           final OrtSession session,
+                           final int batchSize,
+                           final boolean debug) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be a positive integer");
+        }
         this.env = env;
         this.session = session;
+        this.batchSize = batchSize;
         this.debug = debug;
     }
 
     @Override
-    public Path removeText(final Path originalImage,
-                           final List<TextMaskRegion> maskBoxes) throws Exception {
+    public BufferedImage removeText(final PageContext page,
+                                    final List<TextMaskRegion> maskBoxes) throws Exception {
 
-        final BufferedImage fullImage = toRGBImage(ImageIO.read(originalImage.toFile()));
-        final BufferedImage maskImage = generateBinaryMask(fullImage.getWidth(), fullImage.getHeight(), maskBoxes);
+        final BufferedImage fullImage = page.getImage();
+        final int width = fullImage.getWidth();
+        final int height = fullImage.getHeight();
 
-        final BufferedImage inpainted = new BufferedImage(fullImage.getWidth(), fullImage.getHeight(), BufferedImage.TYPE_INT_RGB);
-
-        for (int y = 0; y < fullImage.getHeight(); y += TILE_SIZE) {
-            for (int x = 0; x < fullImage.getWidth(); x += TILE_SIZE) {
-                final int tileW = Math.min(TILE_SIZE, fullImage.getWidth() - x);
-                final int tileH = Math.min(TILE_SIZE, fullImage.getHeight() - y);
-
-                final BufferedImage imageTile = fullImage.getSubimage(x, y, tileW, tileH);
-                final BufferedImage maskTile = maskImage.getSubimage(x, y, tileW, tileH);
+        final BufferedImage source = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        final Graphics2D graphics = source.createGraphics();
+        try {
+            graphics.drawImage(fullImage, 0, 0, null);
+        } finally {
+            graphics.dispose();
+        }
+        final int[] sourcePixels = ((DataBufferInt) source.getRaster().getDataBuffer()).getData();
 
-                final BufferedImage paddedImage = resizeImage(imageTile, TILE_SIZE, TILE_SIZE);
-                final BufferedImage paddedMask = resizeImage(maskTile, TILE_SIZE, TILE_SIZE);
+        final BufferedImage inpainted = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        final int[] pixels = ((DataBufferInt) inpainted.getRaster().getDataBuffer()).getData();
+        System.arraycopy(sourcePixels, 0, pixels, 0, pixels.length);
 
-                final FloatBuffer imageTensor = toFloatTensor(paddedImage, 3);
-                final FloatBuffer maskTensor = toFloatTensor(paddedMask, 1);
+        final Rectangle pageBounds = new Rectangle(0, 0, width, height);
+        final int feather = InpaintingPlanner.tileOverlap(TILE_SIZE, CONTEXT_PADDING);
+        final List<InpaintingPlanner.Window> windows = InpaintingPlanner.plan(maskBoxes, width, height, TILE_SIZE, CONTEXT_PADDING);
+        final BufferedImage modelInput = new BufferedImage(TILE_SIZE, TILE_SIZE, BufferedImage.TYPE_INT_RGB);
+        TileBlender blender = null;
 
-                final OnnxTensor imageInput = OnnxTensor.createTensor(env, imageTensor, new long[]{1, 3, TILE_SIZE, TILE_SIZE});
-                final OnnxTensor maskInput = OnnxTensor.createTensor(env, maskTensor, new long[]{1, 1, TILE_SIZE, TILE_SIZE});
+        for (int start = 0; start < windows.size(); start += batchSize) {
+            final List<InpaintingPlanner.Window> batch = windows.subList(start, Math.min(windows.size(), start + batchSize));
+            final List<int[]> outputs = inpaintBatch(batch, sourcePixels, width, modelInput, maskBoxes);
 
-                final OrtSession.Result result = session.run(Map.of("image", imageInput, "mask", maskInput));
-                final float[][][][] output = (float[][][][]) result.get(0).getValue();
+            for (int i = 0; i < batch.size(); i++) {
+                final int index = start + i;
+                final InpaintingPlanner.Window window = batch.get(i);
+                final int[] output = outputs.get(i);
+                final boolean first = index == 0 || windows.get(index - 1).cluster() != window.cluster();
+                final boolean last = index == windows.size() - 1 || windows.get(index + 1).cluster() != window.cluster();
 
-                final BufferedImage resultTile = fromFloatTensor(output);
-                final BufferedImage downScaledResultTile = resizeImage(resultTile, tileW, tileH);
-                inpainted.getGraphics().drawImage(downScaledResultTile, x, y, null);
+                if (first && last) {
+                    // a window of its own: only the masked pixels are taken over, everything else stays as on the page
+                    copyTargets(window, output, pixels, width);
+                    continue;
+                }
+                if (first) {
+                    blender = new TileBlender(clusterArea(windows, index), pageBounds, feather);
+                }
+                blender.add(window.bounds(), window.targets(), output, TILE_SIZE);
+                if (last) {
+                    blender.writeTo(pixels, width);
+                    blender = null;
+                }
             }
         }
 
-        final Path tempFile = Files.createTempFile("inpainted", ".png");
-        ImageIO.write(inpainted, "png", tempFile.toFile());
-        return tempFile;
+        if (debug) {
+            logger.info("Inpainted {} windows for {} mask regions", windows.size(), maskBoxes.size());
+        }
+
+        return inpainted;
     }
 
     /**
-     * Converts a BufferedImage to a FloatBuffer tensor in CHW format.
+     * Runs the model on a batch of windows with a single inference. The input buffers are pooled, tensors and
+     * results are always closed.
+     *
+     * @param batch      the windows
+     * @param source     the RGB pixels of the page
+     * @param pageWidth  the width of the page
+     * @param modelInput scratch image of the model input size
+     * @param regions    all mask regions of the page; every region inside a window is masked, so no text is
+     *                   used as context
+     * @return the RGB output of every window at model input size, the window at its top left
      */
-    private FloatBuffer toFloatTensor(final BufferedImage image, final int channels) {
-        final FloatBuffer buffer = FloatBuffer.allocate(channels * TILE_SIZE * TILE_SIZE);
-        for (int c = 0; c < channels; c++) {
-            for (int y = 0; y < TILE_SIZE; y++) {
-                for (int x = 0; x < TILE_SIZE; x++) {
-                    final int rgb = image.getRGB(x, y);
-                    final int val = switch (c) {
-                        case 0 -> (rgb >> 16) & 0xFF;
-                        case 1 -> (rgb >> 8) & 0xFF;
-                        case 2 -> rgb & 0xFF;
-                        default -> 0;
-                    };
-                    buffer.put(val / 255.0f);
+    private List<int[]> inpaintBatch(final List<InpaintingPlanner.Window> batch,
+                                     final int[] source,
+                                     final int pageWidth,
+                                     final BufferedImage modelInput,
+                                     final List<TextMaskRegion> regions) throws OrtException {
+        final long[] imageShape = {batch.size(), 3, TILE_SIZE, TILE_SIZE};
+        final long[] maskShape = {batch.size(), 1, TILE_SIZE, TILE_SIZE};
+        try (final TensorBufferPool.Lease imageLease = bufferPool.acquire(imageShape);
+             final TensorBufferPool.Lease maskLease = bufferPool.acquire(maskShape)) {
+            final FloatBuffer imageTensor = imageLease.buffer();
+            final FloatBuffer maskTensor = maskLease.buffer();
+            for (int i = 0; i < batch.size(); i++) {
+                final Rectangle bounds = batch.get(i).bounds();
+                reflectPad(source, pageWidth, bounds, modelInput);
+                TensorConverter.put(modelInput, imageTensor, 3, Normalization.UNIT);
+                fillMask(maskTensor, i * TILE_PLANE, bounds, regions);
+            }
+            imageTensor.rewind();
+            maskTensor.rewind();
+
+            try (final OnnxTensor imageInput = OnnxTensor.createTensor(env, imageTensor, imageShape);
+                 final OnnxTensor maskInput = OnnxTensor.createTensor(env, maskTensor, maskShape);
+                 final OrtSession.Result result = session.run(Map.of("image", imageInput, "mask", maskInput))) {
+                final FloatBuffer output = ((OnnxTensor) result.get(0)).getFloatBuffer();
+                final List<int[]> outputs = new ArrayList<>(batch.size());
+                for (int i = 0; i < batch.size(); i++) {
+                    outputs.add(fromFloatTensor(output, i * 3 * TILE_PLANE));
                 }
+                return outputs;
             }
         }
-        buffer.rewind();
-        return buffer;
     }
 
     /**
-     * Converts model output tensor to a BufferedImage.
+     * Copies a window of the page to the top left of the model input and fills the rest by mirroring it.
      */
-    private BufferedImage fromFloatTensor(final float[][][][] tensor) {
-        final BufferedImage out = new BufferedImage(TILE_SIZE, TILE_SIZE, BufferedImage.TYPE_INT_RGB);
+    private static void reflectPad(final int[] source,
+                                   final int pageWidth,
+                                   final Rectangle bounds,
+                                   final BufferedImage modelInput) {
+        final int[] pixels = ((DataBufferInt) modelInput.getRaster().getDataBuffer()).getData();
         for (int y = 0; y < TILE_SIZE; y++) {
-            for (int x = 0; x < TILE_SIZE; x++) {
-                final int r = (int) tensor[0][0][y][x];
-                final int g = (int) tensor[0][1][y][x];
-                final int b = (int) tensor[0][2][y][x];
-                out.setRGB(x, y, new Color(r, g, b).getRGB());
+            final int row = (bounds.y + reflect(y, bounds.height)) * pageWidth + bounds.x;
+            final int offset = y * TILE_SIZE;
+            System.arraycopy(source, row, pixels, offset, bounds.width);
+            for (int x = bounds.width; x < TILE_SIZE; x++) {
+                pixels[offset + x] = source[row + reflect(x, bounds.width)];
+            }
+        }
+    }
+
+    /**
+     * Returns the index an out-of-range index is mirrored to, excluding the edge (as {@code dcba|abcd|dcba}
+     * without repeating {@code a} and {@code d}).
+     *
+     * @param index the index, not negative
+     * @param size  the number of valid indices
+     * @return the mirrored index in {@code [0, size)}
+     */
+    static int reflect(final int index, final int size) {
+        if (size == 1) {
+            return 0;
+        }
+        final int period = 2 * (size - 1);
+        final int position = index % period;
+        return position < size ? position : period - position;
+    }
+
+    /**
+     * Writes the binary mask of the regions inside the window into the tensor at the given offset.
+     * The window is at the top left of the model input; the padding is not masked.
+     */
+    private static void fillMask(final FloatBuffer maskTensor,
+                                 final int offset,
+                                 final Rectangle bounds,
+                                 final List<TextMaskRegion> regions) {
+        final float[] row = new float[TILE_SIZE];
+        for (int i = 0; i < TILE_SIZE; i++) {
+            maskTensor.put(offset + i * TILE_SIZE, row);
+        }
+
+        Arrays.fill(row, 1f);
+        for (final TextMaskRegion region : regions) {
+            final Rectangle rect = new Rectangle(region.x1, region.y1, region.x2 - region.x1, region.y2 - region.y1)
+                    .intersection(bounds);
+            if (rect.isEmpty()) {
+                continue;
+            }
+            for (int y = rect.y - bounds.y; y < rect.y + rect.height - bounds.y; y++) {
+                maskTensor.put(offset + y * TILE_SIZE + rect.x - bounds.x, row, 0, rect.width);
             }
         }
-        return out;
     }
 
     /**
-     * Generates a binary mask image from a list of text mask boxes.
+     * Converts one image of the model output ({@code [N, 3, 512, 512]}, values 0-255) to RGB pixels.
      */
-    private BufferedImage generateBinaryMask(final int width, final int height, final List<TextMaskRegion> boxes) {
-        final BufferedImage mask = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_GRAY);
-        final Graphics2D g = mask.createGraphics();
-        g.setColor(Color.WHITE);
-        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_OFF);
-        for (final TextMaskRegion box : boxes) {
-            g.fillRect(box.x1, box.y1, box.x2 - box.x1, box.y2 - box.y1);
-        }
-        g.dispose();
-        return mask;
+    private static int[] fromFloatTensor(final FloatBuffer tensor, final int offset) {
+        final int[] pixels = new int[TILE_PLANE];
+        for (int i = 0; i < TILE_PLANE; i++) {
+            final int r = toByte(tensor.get(offset + i));
+            final int g = toByte(tensor.get(offset + TILE_PLANE + i));
+            final int b = toByte(tensor.get(offset + 2 * TILE_PLANE + i));
+            pixels[i] = (r << 16) | (g << 8) | b;
+        }
+        return pixels;
+    }
+
+    private static int toByte(final float value) {
+        return Math.max(0, Math.min(255, (int) value));
     }
 
     /**
-     * Converts any image type to RGB BufferedImage.
+     * Copies the target pixels of a window output into the page.
      */
-    private BufferedImage toRGBImage(final BufferedImage input) {
-        final BufferedImage rgbImage = new BufferedImage(input.getWidth(), input.getHeight(), BufferedImage.TYPE_INT_RGB);
-        final Graphics2D g = rgbImage.createGraphics();
-        g.drawImage(input, 0, 0, null);
-        g.dispose();
-        return rgbImage;
+    private static void copyTargets(final InpaintingPlanner.Window window,
+                                    final int[] output,
+                                    final int[] pixels,
+                                    final int pageWidth) {
+        final Rectangle bounds = window.bounds();
+        for (final Rectangle target : window.targets()) {
+            for (int y = target.y; y < target.y + target.height; y++) {
+                System.arraycopy(output, (y - bounds.y) * TILE_SIZE + target.x - bounds.x,
+                        pixels, y * pageWidth + target.x, target.width);
+            }
+        }
+    }
+
+    /**
+     * Returns the area covering the targets of all windows of the cluster starting at the given window.
+     */
+    private static Rectangle clusterArea(final List<InpaintingPlanner.Window> windows, final int first) {
+        final int cluster = windows.get(first).cluster();
+        Rectangle area = null;
+        for (int i = first; i < windows.size() && windows.get(i).cluster() == cluster; i++) {
+            for (final Rectangle target : windows.get(i).targets()) {
+                area = area == null ? new Rectangle(target) : area.union(target);
+            }
+        }
+        return area;
     }
 
     /**
-     * Resizes an image to the target width and height.
+     * Returns whether the first dimension of the image input of the model is dynamic.
      */
-    private BufferedImage resizeImage(final BufferedImage input, final int width, final int height) {
-        final BufferedImage resized = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
-        final Graphics2D g = resized.createGraphics();
-        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
-        g.drawImage(input, 0, 0, width, height, null);
-        g.dispose();
-        return resized;
+    private static boolean hasDynamicBatch(final OrtSession session) throws OrtException {
+        final NodeInfo image = session.getInputInfo().get("image");
+        return image != null
+                && image.getInfo() instanceof TensorInfo info
+                && info.getShape().length > 0
+                && info.getShape()[0] < 0;
     }
 
     @Override
@@ -162,6 +315,7 @@ public class OnnxTextRemover implements TextRemover {
      */
     public static class TextRemoverBuilder {
         private TextRemoverModel model;
+        private int batchSize = 4;
         private boolean debug;
 
         public static TextRemoverBuilder builder() {
@@ -173,6 +327,15 @@ public class OnnxTextRemover implements TextRemover {
             return this;
         }
 
+        /**
+         * Sets the maximum number of windows inpainted in one inference. It only takes effect if the model
+         * has a dynamic batch dimension; otherwise every window is inpainted on its own.
+         */
+        public TextRemoverBuilder batchSize(final int batchSize) {
+            this.batchSize = batchSize;
+            return this;
+        }
+
         public TextRemoverBuilder debug(final boolean debug) {
             this.debug = debug;
             return this;
@@ -182,10 +345,18 @@ public class OnnxTextRemover implements TextRemover {
             if (model == null) {
                 throw new IllegalArgumentException("TextRemoverModel must not be null");
             }
-            final String extracted = extractModelToTempFile(model.modelPath);
+            if (batchSize <= 0) {
+                throw new IllegalArgumentException("Batch size must be a positive integer");
+            }
+            final String extracted = ModelStore.getDefault().resolve(model.modelPath).toString();
             final OrtEnvironment env = OrtEnvironment.getEnvironment();
             final OrtSession session = env.createSession(extracted, new OrtSession.SessionOptions());
-            return new OnnxTextRemover(env, session, debug);
+            int effectiveBatchSize = batchSize;
+            if (batchSize > 1 && !hasDynamicBatch(session)) {
+                logger.info("Model {} has a fixed batch dimension, inpainting one window per inference", model);
+                effectiveBatchSize = 1;
+            }
+            return new OnnxTextRemover(env, session, effectiveBatchSize, debug);
         }
     }
 }
@@ -1,12 +1,30 @@
 package eu.virtualparadox.comictoolset.translator.textremover;
 
+import eu.virtualparadox.comictoolset.translator.page.PageContext;
 import eu.virtualparadox.comictoolset.translator.textboxgenerator.maskgenerator.TextMaskRegion;
 
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
 
 public interface TextRemover extends AutoCloseable {
 
-    Path removeText(final Path originalImage, final List<TextMaskRegion> maskBoxes) throws Exception;
+    /**
+     * Removes the text under the given mask regions and returns the inpainted page as a new image.
+     * The image of the page itself is left untouched.
+     */
+    BufferedImage removeText(final PageContext page, final List<TextMaskRegion> maskBoxes) throws Exception;
+
+    /**
+     * Removes the text from the image at the given path and writes the result to a temporary PNG.
+     */
+    default Path removeText(final Path originalImage, final List<TextMaskRegion> maskBoxes) throws Exception {
+        final BufferedImage inpainted = removeText(PageContext.load(originalImage), maskBoxes);
+        final Path tempFile = Files.createTempFile("inpainted", ".png");
+        ImageIO.write(inpainted, "png", tempFile.toFile());
+        return tempFile;
+    }
 
 }
@@ -0,0 +1,109 @@
+package eu.virtualparadox.comictoolset.translator.textremover;
+
+import java.awt.Rectangle;
+
+/**
+ * Blends the outputs of the overlapping windows of one cluster into the page.
+ * <p>
+ * Every window contributes its target pixels weighted by a feather that ramps up linearly from its inner edges
+ * over the tile overlap; edges lying on the page border do not fade, since no other window continues there.
+ * The weighted colors are accumulated over the area of the cluster and normalized when written, so the seams
+ * between windows fade smoothly instead of showing where one window ends. Pixels no window targets are left
+ * untouched.
+ * </p>
+ */
+final class TileBlender {
+
+    private final Rectangle area;
+    private final Rectangle page;
+    private final int feather;
+    private final float[] red;
+    private final float[] green;
+    private final float[] blue;
+    private final float[] weight;
+
+    /**
+     * Constructs a blender.
+     *
+     * @param area    the area covering all targets of the cluster
+     * @param page    the page bounds
+     * @param feather the width of the feather in pixels
+     */
+    TileBlender(final Rectangle area, final Rectangle page, final int feather) {
+        if (feather <= 0) {
+            throw new IllegalArgumentException("Feather must be a positive integer");
+        }
+        this.area = area;
+        this.page = page;
+        this.feather = feather;
+        final int size = area.width * area.height;
+        this.red = new float[size];
+        this.green = new float[size];
+        this.blue = new float[size];
+        this.weight = new float[size];
+    }
+
+    /**
+     * Adds the target pixels of a window.
+     *
+     * @param bounds  the window in page coordinates
+     * @param targets the parts of the window whose pixels are taken, inside the area
+     * @param pixels  the RGB output of the window, its top left pixel at index 0
+     * @param stride  the row stride of {@code pixels}
+     */
+    void add(final Rectangle bounds, final Iterable<Rectangle> targets, final int[] pixels, final int stride) {
+        for (final Rectangle target : targets) {
+            for (int y = target.y; y < target.y + target.height; y++) {
+                final float weightY = ramp(y - bounds.y, bounds.y + bounds.height - 1 - y,
+                        bounds.y == page.y, bounds.y + bounds.height == page.y + page.height);
+                final int source = (y - bounds.y) * stride - bounds.x;
+                final int offset = (y - area.y) * area.width - area.x;
+                for (int x = target.x; x < target.x + target.width; x++) {
+                    final float w = weightY * ramp(x - bounds.x, bounds.x + bounds.width - 1 - x,
+                            bounds.x == page.x, bounds.x + bounds.width == page.x + page.width);
+                    final int rgb = pixels[source + x];
+                    final int index = offset + x;
+                    red[index] += w * ((rgb >> 16) & 0xFF);
+                    green[index] += w * ((rgb >> 8) & 0xFF);
+                    blue[index] += w * (rgb & 0xFF);
+                    weight[index] += w;
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the blended pixels into the page.
+     *
+     * @param pixels    the RGB pixels of the page
+     * @param pageWidth the row stride of {@code pixels}
+     */
+    void writeTo(final int[] pixels, final int pageWidth) {
+        for (int y = 0; y < area.height; y++) {
+            final int offset = (area.y + y) * pageWidth + area.x;
+            for (int x = 0; x < area.width; x++) {
+                final int index = y * area.width + x;
+                final float w = weight[index];
+                if (w > 0) {
+                    final int r = Math.round(red[index] / w);
+                    final int g = Math.round(green[index] / w);
+                    final int b = Math.round(blue[index] / w);
+                    pixels[offset + x] = (r << 16) | (g << 8) | b;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the feather weight of a pixel along one axis, in (0, 1].
+     *
+     * @param before     the distance to the leading edge of the window
+     * @param after      the distance to the trailing edge of the window
+     * @param openBefore whether the leading edge is a page border
+     * @param openAfter  whether the trailing edge is a page border
+     */
+    private float ramp(final int before, final int after, final boolean openBefore, final boolean openAfter) {
+        final int distance = Math.min(openBefore ? Integer.MAX_VALUE : before, openAfter ? Integer.MAX_VALUE : after);
+        return distance >= feather ? 1f : (distance + 1f) / (feather + 1f);
+    }
+}
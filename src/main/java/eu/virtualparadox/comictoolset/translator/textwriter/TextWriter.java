@@ -37,7 +37,32 @@ public class TextWriter {
     public Path rewriteText(final Path path,
                             final Path outputPath,
                             final List<RecognizedTextWithMask> boxes) throws IOException {
-        final BufferedImage image = ImageIO.read(path.toFile());
+        final BufferedImage image = renderText(path, boxes);
+        return writeImage(image, outputPath);
+    }
+
+    /**
+     * Draws the translated text into the image at the given path without saving it.
+     *
+     * @param path  input image path
+     * @param boxes list of recognized text boxes (each with translated text and target mask regions)
+     * @return the image with the translated text drawn on it
+     * @throws IOException if image loading fails
+     */
+    public BufferedImage renderText(final Path path,
+                                    final List<RecognizedTextWithMask> boxes) throws IOException {
+        return renderText(ImageIO.read(path.toFile()), boxes);
+    }
+
+    /**
+     * Draws the translated text directly into the given in-memory image.
+     *
+     * @param image the image to draw on (modified in place)
+     * @param boxes list of recognized text boxes (each with translated text and target mask regions)
+     * @return the same image, with the translated text drawn on it
+     */
+    public BufferedImage renderText(final BufferedImage image,
+                                    final List<RecognizedTextWithMask> boxes) {
         final Graphics2D g2d = image.createGraphics();
 
         for (final RecognizedTextWithMask box : boxes) {
@@ -46,9 +71,21 @@ public class TextWriter {
             drawTranslatedIntoBoxes(g2d, textBoxes, translatedText);
         }
 
+        g2d.dispose();
+        return image;
+    }
+
+    /**
+     * Encodes a rendered image as PNG to the given output path.
+     *
+     * @param image      the rendered image
+     * @param outputPath destination image path
+     * @return the output path
+     * @throws IOException if saving fails
+     */
+    public Path writeImage(final BufferedImage image, final Path outputPath) throws IOException {
         logger.info("Saving output image to: {}", outputPath);
         ImageIO.write(image, "png", outputPath.toFile());
-        g2d.dispose();
         return outputPath;
     }
 
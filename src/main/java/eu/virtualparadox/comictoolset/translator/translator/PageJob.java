@@ -0,0 +1,88 @@
+package eu.virtualparadox.comictoolset.translator.translator;
+
+import eu.virtualparadox.comictoolset.translator.bubblecollector.DetectedBubbleBox;
+import eu.virtualparadox.comictoolset.translator.page.PageContext;
+import eu.virtualparadox.comictoolset.translator.textboxgenerator.assigner.RecognizedTextWithMask;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.awt.image.BufferedImage;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Represents a single page travelling through the translation stages.
+ * <p>
+ * Every stage reads the results of the previous stages from the job and stores its own result on it.
+ * The job also records how long each stage took, so the per-page timings can be reported.
+ * </p>
+ */
+@Getter
+public class PageJob {
+
+    /** The zero-based index of the page in the sorted input (also determines the output name) */
+    private final int index;
+
+    /** The source image of the page */
+    private final Path sourcePath;
+
+    /** The destination PNG of the translated page */
+    private final Path outputPath;
+
+    /** Elapsed milliseconds per stage */
+    private final Map<TranslationStage, Long> stageMillis = new EnumMap<>(TranslationStage.class);
+
+    /** The page decoded once, shared by every stage */
+    @Setter
+    private PageContext page;
+
+    /** Detected and merged speech bubbles */
+    @Setter
+    private List<DetectedBubbleBox> bubbles;
+
+    /** Recognized texts with their mask regions */
+    @Setter
+    private List<RecognizedTextWithMask> recognizedTexts;
+
+    /** The page with the original text removed (kept in memory, the writer draws on it) */
+    @Setter
+    private BufferedImage cleanImage;
+
+    /** The page with the translated text drawn on it */
+    @Setter
+    private BufferedImage renderedImage;
+
+    /**
+     * Constructs a new job for the given page.
+     *
+     * @param index      the index of the page
+     * @param sourcePath the source image
+     * @param outputPath the destination image
+     */
+    public PageJob(final int index, final Path sourcePath, final Path outputPath) {
+        this.index = index;
+        this.sourcePath = sourcePath;
+        this.outputPath = outputPath;
+    }
+
+    /**
+     * Records the elapsed time of a stage.
+     *
+     * @param stage  the finished stage
+     * @param millis elapsed milliseconds
+     */
+    public void recordStage(final TranslationStage stage, final long millis) {
+        stageMillis.put(stage, millis);
+    }
+
+    /**
+     * Drops the intermediate results once the page has been written, so a finished job holds no images.
+     */
+    public void release() {
+        this.page = null;
+        this.cleanImage = null;
+        this.renderedImage = null;
+    }
+}
@@ -0,0 +1,91 @@
+package eu.virtualparadox.comictoolset.translator.translator;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Worker counts and queue sizes for the {@link TranslationPipeline}.
+ * <p>
+ * Every stage runs with {@code parallelism} workers unless it has its own override.
+ * The queues between the stages are bounded by {@code queueCapacity}, so a fast stage
+ * cannot run ahead of a slow one and fill the heap with decoded pages.
+ * </p>
+ */
+public final class PipelineOptions {
+
+    private final Map<TranslationStage, Integer> workers;
+    private final int queueCapacity;
+
+    private PipelineOptions(final Map<TranslationStage, Integer> workers, final int queueCapacity) {
+        this.workers = workers;
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * Returns the number of workers of the given stage.
+     *
+     * @param stage the pipeline stage
+     * @return the worker count (at least 1)
+     */
+    public int workers(final TranslationStage stage) {
+        return workers.get(stage);
+    }
+
+    /**
+     * Returns the capacity of the bounded queue in front of every stage.
+     *
+     * @return the queue capacity
+     */
+    public int queueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * Builder for {@link PipelineOptions}.
+     */
+    public static class PipelineOptionsBuilder {
+        private int parallelism = 1;
+        private int queueCapacity = 4;
+        private final Map<TranslationStage, Integer> overrides = new EnumMap<>(TranslationStage.class);
+
+        public static PipelineOptionsBuilder builder() {
+            return new PipelineOptionsBuilder();
+        }
+
+        public PipelineOptionsBuilder parallelism(final int parallelism) {
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        public PipelineOptionsBuilder queueCapacity(final int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+            return this;
+        }
+
+        /**
+         * Overrides the worker count of a single stage. Non-positive values keep the default parallelism.
+         */
+        public PipelineOptionsBuilder workers(final TranslationStage stage, final int workers) {
+            if (workers > 0) {
+                overrides.put(stage, workers);
+            }
+            return this;
+        }
+
+        public PipelineOptions build() {
+            if (parallelism <= 0) {
+                throw new IllegalArgumentException("Parallelism must be a positive integer");
+            }
+
+            if (queueCapacity <= 0) {
+                throw new IllegalArgumentException("Queue capacity must be a positive integer");
+            }
+
+            final Map<TranslationStage, Integer> workers = new EnumMap<>(TranslationStage.class);
+            for (final TranslationStage stage : TranslationStage.values()) {
+                workers.put(stage, overrides.getOrDefault(stage, parallelism));
+            }
+            return new PipelineOptions(workers, queueCapacity);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package eu.virtualparadox.comictoolset.translator.translator;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Summary of a {@link TranslationPipeline} run.
+ *
+ * @param pages             number of pages translated successfully
+ * @param failed            number of pages that failed in any stage
+ * @param elapsedNanos      wall-clock time of the run
+ * @param stageBusyMillis   total time spent in each stage, summed over all workers
+ */
+public record PipelineReport(int pages, int failed, long elapsedNanos, Map<TranslationStage, Long> stageBusyMillis) {
+
+    /**
+     * Returns the throughput of the run.
+     *
+     * @return translated pages per minute
+     */
+    public double pagesPerMinute() {
+        if (elapsedNanos <= 0) {
+            return 0;
+        }
+        return pages * (double) TimeUnit.MINUTES.toNanos(1) / elapsedNanos;
+    }
+}
@@ -0,0 +1,194 @@
+package eu.virtualparadox.comictoolset.translator.translator;
+
+import eu.virtualparadox.comictoolset.TimeWatch;
+import eu.virtualparadox.comictoolset.translator.bubblecollector.BubbleCollector;
+import eu.virtualparadox.comictoolset.translator.bubblecollector.BubbleModel;
+import eu.virtualparadox.comictoolset.translator.bubblecollector.DetectedBubbleBox;
+import eu.virtualparadox.comictoolset.translator.bubblecollector.OnnxBubbleCollector;
+import eu.virtualparadox.comictoolset.translator.bubblecollector.merger.ComicBubbleBoxMerger;
+import eu.virtualparadox.comictoolset.translator.page.PageContext;
+import eu.virtualparadox.comictoolset.translator.textboxgenerator.assigner.RecognizedTextWithMask;
+import eu.virtualparadox.comictoolset.translator.textboxgenerator.maskgenerator.TextMaskRegion;
+import eu.virtualparadox.comictoolset.translator.textboxgenerator.recognizer.OnnxTextRecognizer;
+import eu.virtualparadox.comictoolset.translator.textboxgenerator.recognizer.TextRecognizer;
+import eu.virtualparadox.comictoolset.translator.textremover.OnnxTextRemover;
+import eu.virtualparadox.comictoolset.translator.textremover.TextRemover;
+import eu.virtualparadox.comictoolset.translator.textremover.TextRemoverModel;
+import eu.virtualparadox.comictoolset.translator.textwriter.TextWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Long-lived translation engine that owns every ONNX session used by the translator.
+ * <p>
+ * The models are extracted and their sessions are created once, when the engine is built.
+ * Any number of pages can then be translated with the same engine by a {@link TranslationPipeline},
+ * which runs the {@link TranslationStage}s of each page, and the native resources
+ * are released once, when the engine is closed (preferably via try-with-resources).
+ * </p>
+ */
+public class TranslationEngine implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(TranslationEngine.class);
+
+    /** Minimum overlap ratio for merging detected bubbles */
+    private static final float BUBBLE_MERGE_THRESHOLD = 0.9f;
+
+    private final BubbleCollector bubbleCollector;
+    private final TextRecognizer textRecognizer;
+    private final TextRemover textRemover;
+    private final ComicBubbleBoxMerger merger;
+    private final TextWriter textWriter;
+
+    /**
+     * Constructs an engine from already initialized pipeline components.
+     * The engine takes ownership of the components and closes them in {@link #close()}.
+     *
+     * @param bubbleCollector the speech bubble detector
+     * @param textRecognizer  the text mask generator and OCR
+     * @param textRemover     the inpainting model
+     */
+    public TranslationEngine(final BubbleCollector bubbleCollector,
+                             final TextRecognizer textRecognizer,
+                             final TextRemover textRemover) {
+        this(bubbleCollector, textRecognizer, textRemover, new TextWriter());
+    }
+
+    /**
+     * Constructs an engine with a custom text writer.
+     *
+     * @param bubbleCollector the speech bubble detector
+     * @param textRecognizer  the text mask generator and OCR
+     * @param textRemover     the inpainting model
+     * @param textWriter      renders and encodes the translated pages
+     */
+    TranslationEngine(final BubbleCollector bubbleCollector,
+                      final TextRecognizer textRecognizer,
+                      final TextRemover textRemover,
+                      final TextWriter textWriter) {
+        this.bubbleCollector = bubbleCollector;
+        this.textRecognizer = textRecognizer;
+        this.textRemover = textRemover;
+        this.merger = new ComicBubbleBoxMerger();
+        this.textWriter = textWriter;
+    }
+
+    /**
+     * Creates an engine with the default models, loading every ONNX session exactly once.
+     *
+     * @return a ready-to-use engine
+     */
+    public static TranslationEngine create() {
+        final TimeWatch watch = TimeWatch.start();
+        final List<AutoCloseable> created = new ArrayList<>();
+        try {
+            final BubbleCollector bubbleCollector = setUpBubbleCollector();
+            created.add(bubbleCollector);
+            final TextRecognizer textRecognizer = setUpTextRecognizer();
+            created.add(textRecognizer);
+            final TextRemover textRemover = setUpTextRemover();
+
+            logger.info("Translation engine initialized in {}", watch.toMilliSeconds());
+            return new TranslationEngine(bubbleCollector, textRecognizer, textRemover);
+        } catch (final Exception e) {
+            closeQuietly(created);
+            throw new IllegalStateException("Could not initialize translation engine", e);
+        }
+    }
+
+    /**
+     * Decodes the source image once; every later stage works on the in-memory page.
+     */
+    void decode(final PageJob job) throws Exception {
+        job.setPage(PageContext.load(job.getSourcePath()));
+    }
+
+    /**
+     * Detects and merges the speech bubbles of the page.
+     */
+    void detectBubbles(final PageJob job) throws Exception {
+        final List<DetectedBubbleBox> bubbles = bubbleCollector.extractBubbleBoxes(job.getPage());
+        final List<DetectedBubbleBox> mergedBubbles = merger.merge(bubbles, BUBBLE_MERGE_THRESHOLD);
+        logger.info("{} bubble found...", mergedBubbles.size());
+        job.setBubbles(mergedBubbles);
+    }
+
+    /**
+     * Generates the text mask and recognizes the text inside the detected bubbles.
+     */
+    void recognizeText(final PageJob job) throws Exception {
+        final List<RecognizedTextWithMask> bubbleTextMaskBoxes = textRecognizer.recognize(job.getPage(), job.getBubbles());
+        logger.info("{} text mask boxes found...", bubbleTextMaskBoxes.size());
+
+        // TODO: translation logic here...
+
+        job.setRecognizedTexts(bubbleTextMaskBoxes);
+    }
+
+    /**
+     * Inpaints the regions of the original text.
+     */
+    void removeText(final PageJob job) throws Exception {
+        final List<TextMaskRegion> textsToRemove = collectTextsToRemove(job.getRecognizedTexts());
+        job.setCleanImage(textRemover.removeText(job.getPage(), textsToRemove));
+    }
+
+    /**
+     * Draws the translated text onto the inpainted page, in memory.
+     */
+    void renderText(final PageJob job) throws Exception {
+        job.setRenderedImage(textWriter.renderText(job.getCleanImage(), job.getRecognizedTexts()));
+    }
+
+    /**
+     * Encodes the rendered page as PNG to its output path.
+     */
+    void encode(final PageJob job) throws Exception {
+        textWriter.writeImage(job.getRenderedImage(), job.getOutputPath());
+    }
+
+    private List<TextMaskRegion> collectTextsToRemove(final List<RecognizedTextWithMask> bubbleTextMaskBoxes) {
+        final List<TextMaskRegion> result = new ArrayList<>();
+        for (final RecognizedTextWithMask comicBubbleTextBox : bubbleTextMaskBoxes) {
+            result.addAll(comicBubbleTextBox.textMaskRegions);
+        }
+        return result;
+    }
+
+    private static TextRecognizer setUpTextRecognizer() throws Exception {
+        return OnnxTextRecognizer.build();
+    }
+
+    private static TextRemover setUpTextRemover() throws Exception {
+        return OnnxTextRemover.TextRemoverBuilder.builder().model(TextRemoverModel.LAMA_FP32).build();
+    }
+
+    private static BubbleCollector setUpBubbleCollector() {
+        return OnnxBubbleCollector.BubbleModelRunnerBuilder.builder()
+                .model(BubbleModel.COMIC_SPEECH_BUBBLE_DETECTOR)
+                .confidenceThreshold(0.1f)
+                .debug(false)
+                .build();
+    }
+
+    private static void closeQuietly(final List<AutoCloseable> resources) {
+        for (final AutoCloseable resource : resources) {
+            try {
+                resource.close();
+            } catch (final Exception e) {
+                logger.warn("Failed to release translator resource: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Releases every ONNX session owned by this engine.
+     */
+    @Override
+    public void close() {
+        closeQuietly(List.of(bubbleCollector, textRecognizer, textRemover));
+    }
+}
@@ -0,0 +1,177 @@
+package eu.virtualparadox.comictoolset.translator.translator;
+
+import eu.virtualparadox.comictoolset.TimeWatch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Staged, multi-page translation pipeline.
+ * <p>
+ * Every {@link TranslationStage} has its own pool of worker threads and a bounded queue in front of it.
+ * Pages flow from one stage to the next, so while page N is inpainted, page N+1 can already be detected.
+ * The output name of a page is fixed by its {@link PageJob#getIndex()}, so the order in which the pages
+ * finish does not change the output ordering.
+ * </p>
+ */
+public class TranslationPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(TranslationPipeline.class);
+
+    /** Marker job telling a worker that no more pages will arrive */
+    private static final PageJob END_OF_STREAM = new PageJob(-1, null, null);
+
+    private final TranslationEngine engine;
+    private final PipelineOptions options;
+
+    /**
+     * Constructs a pipeline on top of an already initialized engine.
+     *
+     * @param engine  the engine owning the ONNX sessions (shared by all workers)
+     * @param options worker counts and queue sizes
+     */
+    public TranslationPipeline(final TranslationEngine engine, final PipelineOptions options) {
+        this.engine = engine;
+        this.options = options;
+    }
+
+    /**
+     * Runs all pages through every stage and waits until the last page is written.
+     *
+     * @param jobs the pages to translate
+     * @return the throughput report of the run
+     */
+    public PipelineReport run(final List<PageJob> jobs) {
+        final TimeWatch watch = TimeWatch.start();
+        final TranslationStage[] stages = TranslationStage.values();
+
+        final List<BlockingQueue<PageJob>> queues = new ArrayList<>();
+        for (int i = 0; i < stages.length; i++) {
+            queues.add(new ArrayBlockingQueue<>(options.queueCapacity()));
+        }
+
+        final AtomicInteger completed = new AtomicInteger();
+        final AtomicInteger failed = new AtomicInteger();
+        final Map<TranslationStage, LongAdder> busy = new EnumMap<>(TranslationStage.class);
+
+        final List<List<Thread>> workers = new ArrayList<>();
+        for (int i = 0; i < stages.length; i++) {
+            final TranslationStage stage = stages[i];
+            final BlockingQueue<PageJob> input = queues.get(i);
+            final BlockingQueue<PageJob> output = i + 1 < stages.length ? queues.get(i + 1) : null;
+            final LongAdder stageBusy = new LongAdder();
+            busy.put(stage, stageBusy);
+
+            final List<Thread> stageWorkers = new ArrayList<>();
+            for (int w = 0; w < options.workers(stage); w++) {
+                final Runnable worker = () -> runWorker(stage, input, output, stageBusy, completed, failed);
+                stageWorkers.add(Thread.ofPlatform().name("translate-" + stage.stageName + "-" + w).start(worker));
+            }
+            workers.add(stageWorkers);
+        }
+
+        try {
+            for (final PageJob job : jobs) {
+                queues.get(0).put(job);
+            }
+
+            // shut the stages down one after another, so every page drains through the downstream stages
+            for (int i = 0; i < stages.length; i++) {
+                final List<Thread> stageWorkers = workers.get(i);
+                for (int w = 0; w < stageWorkers.size(); w++) {
+                    queues.get(i).put(END_OF_STREAM);
+                }
+                for (final Thread worker : stageWorkers) {
+                    worker.join();
+                }
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            workers.forEach(stageWorkers -> stageWorkers.forEach(Thread::interrupt));
+            throw new IllegalStateException("Translation pipeline was interrupted", e);
+        }
+
+        final Map<TranslationStage, Long> stageBusyMillis = new EnumMap<>(TranslationStage.class);
+        busy.forEach((stage, adder) -> stageBusyMillis.put(stage, adder.sum()));
+
+        final PipelineReport report = new PipelineReport(completed.get(), failed.get(), watch.time(), stageBusyMillis);
+        logReport(report);
+        return report;
+    }
+
+    /**
+     * Takes pages from the stage's input queue until the end-of-stream marker arrives.
+     * A failing page is logged and dropped; it never reaches the downstream stages.
+     */
+    private void runWorker(final TranslationStage stage,
+                           final BlockingQueue<PageJob> input,
+                           final BlockingQueue<PageJob> output,
+                           final LongAdder stageBusy,
+                           final AtomicInteger completed,
+                           final AtomicInteger failed) {
+        try {
+            while (true) {
+                final PageJob job = input.take();
+                if (job == END_OF_STREAM) {
+                    return;
+                }
+
+                if (process(stage, job, stageBusy)) {
+                    if (output != null) {
+                        output.put(job);
+                    } else {
+                        completed.incrementAndGet();
+                        logPage(job);
+                        job.release();
+                    }
+                } else {
+                    failed.incrementAndGet();
+                    job.release();
+                }
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private boolean process(final TranslationStage stage, final PageJob job, final LongAdder stageBusy) {
+        final TimeWatch watch = TimeWatch.start();
+        try {
+            stage.process(engine, job);
+            return true;
+        } catch (final Exception e) {
+            logger.error("Failed to {} page '{}'", stage.stageName, job.getSourcePath(), e);
+            return false;
+        } finally {
+            final long millis = watch.time(TimeUnit.MILLISECONDS);
+            job.recordStage(stage, millis);
+            stageBusy.add(millis);
+        }
+    }
+
+    private void logPage(final PageJob job) {
+        final StringBuilder timings = new StringBuilder();
+        job.getStageMillis().forEach((stage, millis) ->
+                timings.append(timings.isEmpty() ? "" : ", ").append(stage.stageName).append(": ").append(millis).append(" ms"));
+        logger.info("Translated '{}' --> '{}' ({})", job.getSourcePath().getFileName(), job.getOutputPath().getFileName(), timings);
+    }
+
+    private void logReport(final PipelineReport report) {
+        logger.info("Translated {} pages ({} failed) in {} sec: {} pages/min",
+                report.pages(), report.failed(),
+                String.format("%.1f", report.elapsedNanos() / 1e9),
+                String.format("%.2f", report.pagesPerMinute()));
+
+        report.stageBusyMillis().forEach((stage, millis) ->
+                logger.info("  {} ({} workers): {} ms busy in total", stage.stageName, options.workers(stage), millis));
+    }
+}
@@ -0,0 +1,40 @@
+package eu.virtualparadox.comictoolset.translator.translator;
+
+/**
+ * The stages of the page translation pipeline, in execution order.
+ * <p>
+ * Each stage delegates to the matching operation of {@link TranslationEngine}.
+ * </p>
+ */
+public enum TranslationStage {
+    DECODE("decode", TranslationEngine::decode),
+    DETECT("detect", TranslationEngine::detectBubbles),
+    RECOGNIZE("recognize", TranslationEngine::recognizeText),
+    INPAINT("inpaint", TranslationEngine::removeText),
+    RENDER("render", TranslationEngine::renderText),
+    ENCODE("encode", TranslationEngine::encode);
+
+    public final String stageName;
+    private final StageTask task;
+
+    TranslationStage(final String stageName, final StageTask task) {
+        this.stageName = stageName;
+        this.task = task;
+    }
+
+    /**
+     * Runs this stage on the given page.
+     *
+     * @param engine the engine owning the models
+     * @param job    the page to process
+     * @throws Exception if the stage fails
+     */
+    public void process(final TranslationEngine engine, final PageJob job) throws Exception {
+        task.process(engine, job);
+    }
+
+    @FunctionalInterface
+    private interface StageTask {
+        void process(TranslationEngine engine, PageJob job) throws Exception;
+    }
+}
@@ -0,0 +1,108 @@
+package eu.virtualparadox.comictoolset;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ModelStoreTest {
+
+    private static final String RESOURCE = "models/test/model.onnx";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testModelIsStoredUnderItsHash() throws Exception {
+        final byte[] model = {1, 2, 3, 4};
+        try (URLClassLoader classLoader = classLoaderWith(model)) {
+            final ModelStore store = new ModelStore(tempDir.resolve("store"), classLoader);
+
+            final Path path = store.resolve(RESOURCE);
+
+            assertEquals(sha256(model) + ".onnx", path.getFileName().toString());
+            assertArrayEquals(model, Files.readAllBytes(path));
+            assertSame(path, store.resolve(RESOURCE));
+        }
+    }
+
+    @Test
+    void testUnchangedModelIsNotExtractedAgain() throws Exception {
+        try (URLClassLoader classLoader = classLoaderWith(new byte[]{5, 6, 7})) {
+            final Path path = new ModelStore(tempDir.resolve("store"), classLoader).resolve(RESOURCE);
+            final FileTime extractedAt = FileTime.fromMillis(1_000_000L);
+            Files.setLastModifiedTime(path, extractedAt);
+
+            final Path reused = new ModelStore(tempDir.resolve("store"), classLoader).resolve(RESOURCE);
+
+            assertEquals(path, reused);
+            assertEquals(extractedAt, Files.getLastModifiedTime(reused));
+            try (var files = Files.list(tempDir.resolve("store"))) {
+                assertEquals(2, files.count(), "Only the model and the index folder are expected");
+            }
+        }
+    }
+
+    @Test
+    void testChangedOrDamagedModelIsExtractedAgain() throws Exception {
+        final Path store = tempDir.resolve("store");
+        final Path first;
+        try (URLClassLoader classLoader = classLoaderWith(new byte[]{1, 1})) {
+            first = new ModelStore(store, classLoader).resolve(RESOURCE);
+        }
+
+        final byte[] changed = {2, 2, 2};
+        try (URLClassLoader classLoader = classLoaderWith(changed)) {
+            final Path second = new ModelStore(store, classLoader).resolve(RESOURCE);
+            assertNotEquals(first, second);
+            assertArrayEquals(changed, Files.readAllBytes(second));
+
+            Files.write(second, new byte[]{9});
+            final Path repaired = new ModelStore(store, classLoader).resolve(RESOURCE);
+            assertArrayEquals(changed, Files.readAllBytes(repaired));
+        }
+    }
+
+    @Test
+    void testDamagedModelOfTheSameSizeIsExtractedAgain() throws Exception {
+        final byte[] model = {3, 4, 5};
+        try (URLClassLoader classLoader = classLoaderWith(model)) {
+            final Path path = new ModelStore(tempDir.resolve("store"), classLoader).resolve(RESOURCE);
+            Files.write(path, new byte[]{3, 4, 6});
+
+            final Path repaired = new ModelStore(tempDir.resolve("store"), classLoader).resolve(RESOURCE);
+
+            assertEquals(path, repaired);
+            assertArrayEquals(model, Files.readAllBytes(repaired));
+        }
+    }
+
+    @Test
+    void testMissingResourceIsRejected() throws Exception {
+        try (URLClassLoader classLoader = classLoaderWith(new byte[]{1})) {
+            final ModelStore store = new ModelStore(tempDir.resolve("store"), classLoader);
+            assertThrows(IllegalArgumentException.class, () -> store.resolve("models/test/missing.onnx"));
+        }
+    }
+
+    private URLClassLoader classLoaderWith(final byte[] model) throws IOException {
+        final Path root = Files.createTempDirectory(tempDir, "classpath");
+        final Path resource = root.resolve(RESOURCE);
+        Files.createDirectories(resource.getParent());
+        Files.write(resource, model);
+        return new URLClassLoader(new URL[]{root.toUri().toURL()}, null);
+    }
+
+    private static String sha256(final byte[] data) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+    }
+}
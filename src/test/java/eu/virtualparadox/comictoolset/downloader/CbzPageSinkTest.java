@@ -0,0 +1,218 @@
+package eu.virtualparadox.comictoolset.downloader;
+
+import eu.virtualparadox.comictoolset.downloader.pagecollector.Page;
+import eu.virtualparadox.comictoolset.packer.CompressionMode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CbzPageSinkTest {
+
+    private static final int PAGE_COUNT = 6;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testPagesArrivingOutOfOrderAreWrittenInOrder() throws IOException {
+        final Path archive = tempDir.resolve("Issue-001.cbz");
+        final CbzPageSink sink = new CbzPageSink(archive, CompressionMode.AUTO);
+        sink.begin(urls());
+
+        for (final int number : new int[]{3, 1, 0, 5, 2, 4}) {
+            sink.accept(page(number));
+        }
+
+        assertTrue(sink.finish());
+        assertFalse(Files.exists(tempDir.resolve("Issue-001.cbz.part")));
+        try (ZipFile zip = new ZipFile(archive.toFile())) {
+            final List<String> names = Collections.list(zip.entries()).stream().map(ZipEntry::getName).toList();
+            assertEquals(List.of("0000.jpg", "0001.jpg", "0002.jpg", "0003.jpg", "0004.jpg", "0005.jpg", "ComicInfo.xml"), names);
+            assertArrayEquals(page(4).getData(), zip.getInputStream(zip.getEntry("0004.jpg")).readAllBytes());
+        }
+    }
+
+    @Test
+    void testIncompleteArchiveIsKeptAndResumed() throws IOException {
+        final Path archive = tempDir.resolve("Issue-001.cbz");
+        final CbzPageSink first = new CbzPageSink(archive, CompressionMode.AUTO);
+        first.begin(urls());
+        first.accept(page(0));
+        first.accept(page(1));
+        first.accept(page(3));
+        assertFalse(first.finish());
+        assertFalse(Files.exists(archive));
+
+        final CbzPageSink resumed = new CbzPageSink(archive, CompressionMode.AUTO);
+        resumed.begin(urls());
+        assertFalse(resumed.needs(1, "1"));
+        assertTrue(resumed.needs(2, "2"));
+        for (int number = 2; number < PAGE_COUNT; number++) {
+            resumed.accept(page(number));
+        }
+
+        assertTrue(resumed.finish());
+        assertArchiveComplete(archive);
+    }
+
+    @Test
+    void testTruncatedArchiveIsResumedFromItsValidPrefix() throws IOException {
+        final Path archive = tempDir.resolve("Issue-001.cbz");
+        final CbzPageSink first = new CbzPageSink(archive, CompressionMode.AUTO);
+        first.begin(urls());
+        for (int number = 0; number < 4; number++) {
+            first.accept(page(number));
+        }
+        first.finish();
+
+        // simulate a killed process: the central directory and half of the last entry are lost
+        final Path part = tempDir.resolve("Issue-001.cbz.part");
+        try (RandomAccessFile file = new RandomAccessFile(part.toFile(), "rw")) {
+            file.setLength(file.length() - 900);
+        }
+
+        final CbzPageSink resumed = new CbzPageSink(archive, CompressionMode.AUTO);
+        resumed.begin(urls());
+        assertEquals(3, resumed.getWrittenPages());
+        for (int number = 3; number < PAGE_COUNT; number++) {
+            resumed.accept(page(number));
+        }
+
+        assertTrue(resumed.finish());
+        assertArchiveComplete(archive);
+    }
+
+    @Test
+    void testResumeStopsAtTheFirstChangedUrl() throws IOException {
+        final Path archive = tempDir.resolve("Issue-001.cbz");
+        final CbzPageSink first = new CbzPageSink(archive, CompressionMode.AUTO);
+        first.begin(urls());
+        for (int number = 0; number < 4; number++) {
+            first.accept(page(number));
+        }
+        assertFalse(first.finish());
+
+        // the site replaced the third page
+        final List<String> changedUrls = new ArrayList<>(urls());
+        changedUrls.set(2, "2-new");
+        final CbzPageSink resumed = new CbzPageSink(archive, CompressionMode.AUTO);
+        resumed.begin(changedUrls);
+
+        assertEquals(2, resumed.getWrittenPages());
+        assertTrue(resumed.needs(2, "2-new"));
+        assertTrue(resumed.needs(3, "3"));
+        for (int number = 2; number < PAGE_COUNT; number++) {
+            resumed.accept(page(number));
+        }
+
+        assertTrue(resumed.finish());
+        assertArchiveComplete(archive);
+        assertFalse(Files.exists(tempDir.resolve("Issue-001.cbz.part.urls")));
+    }
+
+    @Test
+    void testReserveBlocksPagesOutsideTheWindow() throws Exception {
+        final CbzPageSink sink = new CbzPageSink(tempDir.resolve("Issue-001.cbz"), CompressionMode.AUTO, 2);
+        sink.begin(urls());
+        sink.reserve(0);
+        sink.reserve(1);
+
+        final CompletableFuture<Void> third = CompletableFuture.runAsync(() -> {
+            try {
+                sink.reserve(2);
+            } catch (final IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertThrows(TimeoutException.class, () -> third.get(200, TimeUnit.MILLISECONDS));
+
+        // an out-of-order page is only buffered, the window does not move
+        sink.accept(page(1));
+        assertThrows(TimeoutException.class, () -> third.get(200, TimeUnit.MILLISECONDS));
+
+        sink.accept(page(0));
+        third.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void testConcurrentDownloadsHoldAtMostWindowPages() throws Exception {
+        final int pageCount = 200;
+        final int window = 8;
+        final List<String> urls = new ArrayList<>();
+        for (int number = 0; number < pageCount; number++) {
+            urls.add(String.valueOf(number));
+        }
+        final CbzPageSink sink = new CbzPageSink(tempDir.resolve("Issue-001.cbz"), CompressionMode.AUTO, window);
+        sink.begin(urls);
+
+        // a page is held from the moment its download starts until the sink has written it
+        final AtomicInteger maxHeld = new AtomicInteger();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int number = 0; number < pageCount; number++) {
+                final int current = number;
+                futures.add(executor.submit(() -> {
+                    sink.reserve(current);
+                    maxHeld.accumulateAndGet(current + 1 - sink.getWrittenPages(), Math::max);
+                    Thread.sleep(new Random(current).nextInt(5));
+                    sink.accept(page(current));
+                    return null;
+                }));
+            }
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        }
+
+        assertTrue(sink.finish());
+        assertTrue(maxHeld.get() <= window, "At most " + window + " pages may be held at once, was: " + maxHeld.get());
+        try (ZipFile zip = new ZipFile(tempDir.resolve("Issue-001.cbz").toFile())) {
+            assertEquals(pageCount + 1, zip.size());
+        }
+    }
+
+    private static void assertArchiveComplete(final Path archive) throws IOException {
+        try (ZipFile zip = new ZipFile(archive.toFile())) {
+            assertEquals(PAGE_COUNT + 1, zip.size());
+            for (int number = 0; number < PAGE_COUNT; number++) {
+                assertArrayEquals(page(number).getData(), zip.getInputStream(zip.getEntry(page(number).getPaddedName())).readAllBytes());
+            }
+        }
+    }
+
+    private static List<String> urls() {
+        final List<String> urls = new ArrayList<>();
+        for (int number = 0; number < PAGE_COUNT; number++) {
+            urls.add(String.valueOf(number));
+        }
+        return urls;
+    }
+
+    private static Page page(final int number) {
+        final byte[] data = new byte[1000];
+        new Random(number).nextBytes(data);
+        data[0] = (byte) 0xFF;
+        data[1] = (byte) 0xD8;
+        data[2] = (byte) 0xFF;
+        return new Page(number, String.valueOf(number), data, "jpg");
+    }
+}
@@ -0,0 +1,69 @@
+package eu.virtualparadox.comictoolset.downloader;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+/**
+ * Compares the wall-clock time of fetching an issue serially and with several requests per host in flight,
+ * against a local stub server that answers every request after a fixed delay.
+ * <p>
+ * The delay stands in for the round-trip time of a real image host, which is what concurrent fetching hides.
+ * Run manually: {@code java ... eu.virtualparadox.comictoolset.downloader.ConcurrentImageFetcherBenchmark [pages] [delayMs] [concurrency]}
+ * </p>
+ */
+public class ConcurrentImageFetcherBenchmark {
+
+    public static void main(final String[] args) throws Exception {
+        final int pages = args.length > 0 ? Integer.parseInt(args[0]) : 24;
+        final int delayMs = args.length > 1 ? Integer.parseInt(args[1]) : 150;
+        final int concurrency = args.length > 2 ? Integer.parseInt(args[2]) : 6;
+
+        final HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/page", exchange -> {
+            try {
+                Thread.sleep(delayMs);
+                final byte[] body = new byte[64 * 1024];
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                exchange.close();
+            }
+        });
+        server.start();
+
+        try {
+            final List<String> urls = new ArrayList<>();
+            for (int i = 0; i < pages; i++) {
+                urls.add("http://127.0.0.1:" + server.getAddress().getPort() + "/page/" + i);
+            }
+
+            final long serialNanos = time(new ConcurrentImageFetcher(new ImageDownloader(), new HostThrottle(1, 0)), urls);
+            final long concurrentNanos = time(new ConcurrentImageFetcher(new ImageDownloader(), new HostThrottle(concurrency, 0)), urls);
+
+            System.out.printf("%d pages, %d ms per request%n", pages, delayMs);
+            System.out.printf("%-16s %8d ms%n", "serial", serialNanos / 1_000_000);
+            System.out.printf("%-16s %8d ms%n", "concurrent (x" + concurrency + ")", concurrentNanos / 1_000_000);
+            System.out.printf("%-16s %8.1fx%n", "speedup", serialNanos / (double) concurrentNanos);
+        } finally {
+            server.stop(0);
+            System.exit(0);
+        }
+    }
+
+    private static long time(final ConcurrentImageFetcher fetcher, final List<String> urls) throws IOException {
+        final long start = System.nanoTime();
+        fetcher.fetchAll(urls);
+        return System.nanoTime() - start;
+    }
+}
@@ -0,0 +1,106 @@
+package eu.virtualparadox.comictoolset.downloader;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentImageFetcherTest {
+
+    private static final int RESPONSE_DELAY_MS = 150;
+    private static final int PAGE_COUNT = 12;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    private HttpServer server;
+    private List<String> urls;
+
+    @BeforeEach
+    void startStubServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/page", exchange -> {
+            final int current = inFlight.incrementAndGet();
+            maxInFlight.accumulateAndGet(current, Math::max);
+            try {
+                Thread.sleep(RESPONSE_DELAY_MS);
+                final byte[] body = exchange.getRequestURI().getPath().getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inFlight.decrementAndGet();
+                exchange.close();
+            }
+        });
+        server.start();
+
+        urls = new ArrayList<>();
+        for (int i = 0; i < PAGE_COUNT; i++) {
+            urls.add("http://127.0.0.1:" + server.getAddress().getPort() + "/page/" + i);
+        }
+    }
+
+    @AfterEach
+    void stopStubServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void testResultsKeepInputOrder() throws IOException {
+        final List<byte[]> results = fetcher(6, 0).fetchAll(urls);
+
+        assertEquals(PAGE_COUNT, results.size());
+        for (int i = 0; i < PAGE_COUNT; i++) {
+            assertEquals("/page/" + i, new String(results.get(i), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void testImagesAreFetchedConcurrently() throws IOException {
+        fetcher(6, 0).fetchAll(urls);
+
+        assertTrue(maxInFlight.get() > 1, "Requests should overlap, at most " + maxInFlight.get() + " were in flight at once");
+    }
+
+    @Test
+    void testPerHostConcurrencyCap() throws IOException {
+        fetcher(3, 0).fetchAll(urls);
+
+        assertTrue(maxInFlight.get() <= 3, "At most 3 requests may hit the host at once, was: " + maxInFlight.get());
+    }
+
+    @Test
+    void testRequestRateLimit() throws IOException {
+        // 12 requests at 40 requests/second need at least 11 intervals of 25 ms
+        final long nanos = timeFetchAll(fetcher(PAGE_COUNT, 40));
+
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(nanos) >= 11 * 25, "Requests must be spread by the rate limit");
+    }
+
+    private ConcurrentImageFetcher fetcher(final int concurrency, final double requestsPerSecond) {
+        return new ConcurrentImageFetcher(new ImageDownloader(), new HostThrottle(concurrency, requestsPerSecond));
+    }
+
+    private long timeFetchAll(final ConcurrentImageFetcher fetcher) throws IOException {
+        final long start = System.nanoTime();
+        fetcher.fetchAll(urls);
+        return System.nanoTime() - start;
+    }
+}
@@ -0,0 +1,110 @@
+package eu.virtualparadox.comictoolset.downloader;
+
+import eu.virtualparadox.comictoolset.downloader.pagecollector.Page;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FilePageSinkTest {
+
+    private static final List<String> URLS = List.of("http://host/0", "http://host/1", "http://host/2");
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testPageIsWrittenWithoutLeavingTempFiles() throws IOException {
+        final Path issueFolder = tempDir.resolve("Issue-001");
+        final FilePageSink sink = new FilePageSink(issueFolder, "http://host/issue");
+        sink.begin(URLS);
+
+        sink.accept(new Page(2, URLS.get(2), new byte[]{1, 2, 3}, "jpg"));
+
+        assertArrayEquals(new byte[]{1, 2, 3}, Files.readAllBytes(issueFolder.resolve("0002.jpg")));
+        try (Stream<Path> files = Files.list(issueFolder)) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    void testManifestIsSatisfiedOnlyWhenAllPagesAreWritten() throws IOException {
+        final Path issueFolder = tempDir.resolve("Issue-001");
+        final FilePageSink sink = new FilePageSink(issueFolder, "http://host/issue");
+        sink.begin(URLS);
+        sink.accept(new Page(0, URLS.get(0), new byte[]{1}, "jpg"));
+        sink.accept(new Page(1, URLS.get(1), new byte[]{2}, "jpg"));
+
+        final IssueManifest partial = sink.writeManifest();
+        assertEquals(2, partial.countWrittenPages());
+        assertFalse(partial.isSatisfiedBy(issueFolder));
+
+        sink.accept(new Page(2, URLS.get(2), new byte[]{3}, "png"));
+        assertTrue(sink.writeManifest().isSatisfiedBy(issueFolder));
+        assertTrue(IssueManifest.read(issueFolder).isSatisfiedBy(issueFolder));
+    }
+
+    @Test
+    void testResumeRequestsOnlyMissingAndCorruptPages() throws IOException {
+        final Path issueFolder = tempDir.resolve("Issue-001");
+        final FilePageSink first = new FilePageSink(issueFolder, "http://host/issue");
+        first.begin(URLS);
+        first.accept(new Page(0, URLS.get(0), new byte[]{1, 1}, "jpg"));
+        first.accept(new Page(1, URLS.get(1), new byte[]{2, 2}, "jpg"));
+        first.writeManifest();
+
+        // same size, different content
+        Files.write(issueFolder.resolve("0001.jpg"), new byte[]{9, 9});
+
+        final FilePageSink resumed = new FilePageSink(issueFolder, "http://host/issue");
+        resumed.begin(URLS);
+
+        assertFalse(resumed.needs(0, URLS.get(0)));
+        assertTrue(resumed.needs(1, URLS.get(1)));
+        assertTrue(resumed.needs(2, URLS.get(2)));
+    }
+
+    @Test
+    void testPagesWithChangedUrlAreDownloadedAgain() throws IOException {
+        final Path issueFolder = tempDir.resolve("Issue-001");
+        final FilePageSink first = new FilePageSink(issueFolder, "http://host/issue");
+        first.begin(URLS);
+        for (int number = 0; number < URLS.size(); number++) {
+            first.accept(new Page(number, URLS.get(number), new byte[]{(byte) number}, "jpg"));
+        }
+        first.writeManifest();
+
+        // the site replaced the second page
+        final List<String> changedUrls = List.of(URLS.get(0), "http://host/1-new", URLS.get(2));
+        final FilePageSink resumed = new FilePageSink(issueFolder, "http://host/issue");
+        resumed.begin(changedUrls);
+
+        assertFalse(resumed.needs(0, changedUrls.get(0)));
+        assertTrue(resumed.needs(1, changedUrls.get(1)));
+        assertFalse(resumed.needs(2, changedUrls.get(2)));
+        assertFalse(Files.exists(issueFolder.resolve("0001.jpg")));
+
+        final IssueManifest manifest = resumed.writeManifest();
+        assertEquals("http://host/1-new", manifest.getPages().get(1).getUrl());
+        assertFalse(manifest.isSatisfiedBy(issueFolder));
+    }
+
+    @Test
+    void testLegacyPagesWithoutManifestAreAdopted() throws IOException {
+        final Path issueFolder = Files.createDirectories(tempDir.resolve("Issue-001"));
+        Files.write(issueFolder.resolve("0000.png"), new byte[]{9});
+
+        final FilePageSink sink = new FilePageSink(issueFolder, "http://host/issue");
+        sink.begin(URLS);
+
+        assertFalse(sink.needs(0, URLS.get(0)));
+        assertTrue(sink.needs(1, URLS.get(1)));
+        assertEquals("0000.png", sink.writeManifest().getPages().get(0).getFileName());
+    }
+}
@@ -0,0 +1,145 @@
+package eu.virtualparadox.comictoolset.downloader;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Compares the requests per second of {@link ImageDownloader} with the previous
+ * {@code HttpURLConnection}-based implementation against a local stub server.
+ * <p>
+ * Both paths are measured serially and with 16 requests in flight (16 platform threads for the legacy
+ * path, {@code sendAsync} for the new one). Note that loopback has no round-trip time and no TLS, so it
+ * shows the per-request CPU overhead only; the savings of connection reuse grow with network latency.
+ * Run manually: {@code java ... eu.virtualparadox.comictoolset.downloader.ImageDownloaderBenchmark [requests] [bodyKb]}
+ * </p>
+ */
+public class ImageDownloaderBenchmark {
+
+    private static final int WARMUP_REQUESTS = 200;
+
+    public static void main(final String[] args) throws Exception {
+        final int requests = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        final int bodyKb = args.length > 1 ? Integer.parseInt(args[1]) : 256;
+
+        final byte[] body = new byte[bodyKb * 1024];
+        new Random(42).nextBytes(body);
+
+        // the stub would otherwise hit Nagle + delayed ACK on every response
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+
+        final HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newFixedThreadPool(16));
+        server.createContext("/image", exchange -> {
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+
+        try {
+            final String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/image";
+            final ImageDownloader downloader = new ImageDownloader();
+
+            runSerial("legacy HttpURLConnection", url, WARMUP_REQUESTS, ImageDownloaderBenchmark::readImageBytesLegacy);
+            runSerial("pooled HttpClient", url, WARMUP_REQUESTS, downloader::readImageBytes);
+
+            report("legacy HttpURLConnection", requests, runSerial("legacy", url, requests, ImageDownloaderBenchmark::readImageBytesLegacy));
+            report("pooled HttpClient (sync)", requests, runSerial("pooled", url, requests, downloader::readImageBytes));
+            report("legacy HttpURLConnection (x16)", requests, runThreaded(url, requests, 16));
+            report("pooled HttpClient (async x16)", requests, runAsync(downloader, url, requests, 16));
+        } finally {
+            server.stop(0);
+            System.exit(0);
+        }
+    }
+
+    private static long runSerial(final String name, final String url, final int requests, final Fetch fetch) throws IOException {
+        final long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            fetch.fetch(url);
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static long runThreaded(final String url, final int requests, final int threads) throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final long start = System.nanoTime();
+            final List<Future<byte[]>> futures = new ArrayList<>();
+            for (int i = 0; i < requests; i++) {
+                futures.add(executor.submit(() -> readImageBytesLegacy(url)));
+            }
+            for (final Future<byte[]> future : futures) {
+                future.get();
+            }
+            return System.nanoTime() - start;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static long runAsync(final ImageDownloader downloader, final String url, final int requests, final int inFlight) {
+        final long start = System.nanoTime();
+        for (int done = 0; done < requests; done += inFlight) {
+            final List<CompletableFuture<byte[]>> batch = new ArrayList<>();
+            for (int i = 0; i < Math.min(inFlight, requests - done); i++) {
+                batch.add(downloader.readImageBytesAsync(url));
+            }
+            CompletableFuture.allOf(batch.toArray(new CompletableFuture[0])).join();
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static void report(final String name, final int requests, final long nanos) {
+        System.out.printf("%-32s %8.1f req/s%n", name, requests / (nanos / 1e9));
+    }
+
+    /**
+     * The previous implementation: a new connection per image, disconnected after use,
+     * and the body copied through a buffer into a {@link ByteArrayOutputStream}.
+     */
+    private static byte[] readImageBytesLegacy(final String imageUrl) throws IOException {
+        HttpURLConnection connection = null;
+        try {
+            connection = (HttpURLConnection) URI.create(imageUrl).toURL().openConnection();
+            connection.setRequestProperty("User-Agent", "Mozilla/5.0");
+            connection.connect();
+            if (connection.getResponseCode() != HttpURLConnection.HTTP_OK) {
+                throw new IOException("Failed to fetch image: HTTP " + connection.getResponseCode());
+            }
+            try (InputStream inputStream = connection.getInputStream();
+                 ByteArrayOutputStream buffer = new ByteArrayOutputStream()) {
+                final byte[] temp = new byte[8192];
+                int bytesRead;
+                while ((bytesRead = inputStream.read(temp)) != -1) {
+                    buffer.write(temp, 0, bytesRead);
+                }
+                return buffer.toByteArray();
+            }
+        } finally {
+            if (connection != null) {
+                connection.disconnect();
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface Fetch {
+        byte[] fetch(String url) throws IOException;
+    }
+}
@@ -0,0 +1,188 @@
+package eu.virtualparadox.comictoolset.downloader;
+
+import eu.virtualparadox.comictoolset.downloader.issuecollector.Issue;
+import eu.virtualparadox.comictoolset.downloader.issuecollector.IssueCollector;
+import eu.virtualparadox.comictoolset.downloader.pagecollector.Page;
+import eu.virtualparadox.comictoolset.downloader.pagecollector.PageCollector;
+import eu.virtualparadox.comictoolset.downloader.pagecollector.PageSink;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LibraryDownloaderTest {
+
+    private static final int SERIES_PER_HOST = 6;
+    private static final int ISSUES_PER_SERIES = 2;
+
+    private final AtomicInteger runningSeries = new AtomicInteger();
+    private final AtomicInteger maxRunningSeries = new AtomicInteger();
+    private final Map<String, AtomicInteger> runningPerHost = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> maxRunningPerHost = new ConcurrentHashMap<>();
+    private final Map<String, FakePageCollector> pageCollectors = new ConcurrentHashMap<>();
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testComicRootListSkipsCommentsBlankLinesAndDuplicates() throws IOException {
+        final Path listFile = tempDir.resolve("series.txt");
+        Files.writeString(listFile, """
+                # nightly sync
+                https://a.example/Comic/First
+
+                  https://b.example/Comic/Second \s
+                https://a.example/Comic/First
+                """);
+
+        assertEquals(List.of("https://a.example/Comic/First", "https://b.example/Comic/Second"),
+                LibraryDownloader.readComicRoots(listFile));
+    }
+
+    @Test
+    void testSeriesRunConcurrentlyWithinGlobalAndPerHostLimits() {
+        final List<String> comicRoots = new ArrayList<>();
+        for (int i = 0; i < SERIES_PER_HOST; i++) {
+            comicRoots.add("https://a.example/Comic/Series-A" + i);
+            comicRoots.add("https://b.example/Comic/Series-B" + i);
+        }
+        final DownloadOptions options = DownloadOptions.DownloadOptionsBuilder.builder()
+                .seriesConcurrency(3)
+                .seriesPerHost(2)
+                .build();
+
+        final DownloadProgress progress = new LibraryDownloader(comicRoots, tempDir, options,
+                FakeIssueCollector::new,
+                comicRoot -> pageCollectors.computeIfAbsent(UrlUtils.getHost(comicRoot), h -> new FakePageCollector())).download();
+
+        assertEquals(comicRoots.size() * ISSUES_PER_SERIES, progress.count(DownloadProgress.Outcome.DOWNLOADED));
+        assertEquals(comicRoots.size() * ISSUES_PER_SERIES, progress.total());
+        assertTrue(Files.isRegularFile(tempDir.resolve("Series-B5").resolve("Issue-002").resolve("0001.jpg")));
+
+        assertTrue(maxRunningSeries.get() > 1, "Series should run concurrently");
+        assertTrue(maxRunningSeries.get() <= 3, "At most 3 series may run at once, was: " + maxRunningSeries.get());
+        maxRunningPerHost.forEach((host, max) ->
+                assertTrue(max.get() <= 2, "At most 2 series of " + host + " may run at once, was: " + max.get()));
+
+        assertEquals(2, pageCollectors.size(), "Series of the same host must share one page collector");
+        pageCollectors.values().forEach(collector -> assertTrue(collector.closed, "Shared page collectors must be closed"));
+    }
+
+    @Test
+    void testFailingSeriesDoesNotStopTheOthers() {
+        final List<String> comicRoots = List.of("https://a.example/Comic/Broken", "https://a.example/Comic/Working");
+
+        final DownloadProgress progress = new LibraryDownloader(comicRoots, tempDir, DownloadOptions.defaults(),
+                comicRoot -> comicRoot.endsWith("Broken")
+                        ? () -> {
+                            throw new IllegalStateException("Failed to fetch issues from " + comicRoot);
+                        }
+                        : new FakeIssueCollector(comicRoot),
+                comicRoot -> new FakePageCollector()).download();
+
+        assertEquals(ISSUES_PER_SERIES, progress.count(DownloadProgress.Outcome.DOWNLOADED));
+        assertTrue(Files.isDirectory(tempDir.resolve("Working").resolve("Issue-001")));
+    }
+
+    @Test
+    void testSeriesWithTheSameNameOnDifferentHostsGetSeparateFolders() {
+        final List<String> comicRoots = List.of("https://a.example/Comic/Same", "https://b.example/Comic/Same", "https://a.example/Comic/Other");
+
+        new LibraryDownloader(comicRoots, tempDir, DownloadOptions.defaults(), FakeIssueCollector::new, comicRoot -> new FakePageCollector()).download();
+
+        assertTrue(Files.isDirectory(tempDir.resolve("a.example").resolve("Same").resolve("Issue-001")));
+        assertTrue(Files.isDirectory(tempDir.resolve("b.example").resolve("Same").resolve("Issue-001")));
+        assertTrue(Files.isDirectory(tempDir.resolve("Other").resolve("Issue-001")));
+    }
+
+    @Test
+    void testSeriesNameIsASafeFolderName() {
+        assertEquals("Dylan-Dog-1986", UrlUtils.getSeriesName("https://readcomiconline.li/Comic/Dylan-Dog-1986?id=1"));
+        assertNull(UrlUtils.getSeriesName("https://a.example/Comic/.."));
+        assertNull(UrlUtils.getSeriesName("https://a.example/Comic/..%5C..%5Cetc"));
+        assertNull(UrlUtils.getSeriesName("not a url"));
+        assertEquals("a.example", UrlUtils.getHost("https://A.example/Comic/Same"));
+    }
+
+    @Test
+    void testUnchangedSeriesIsSkippedWithoutTouchingIssues() {
+        final List<String> comicRoots = List.of("https://a.example/Comic/Stable");
+        final FakePageCollector pageCollector = new FakePageCollector();
+        final LibraryDownloader downloader = new LibraryDownloader(comicRoots, tempDir, DownloadOptions.defaults(),
+                FakeIssueCollector::new, comicRoot -> pageCollector);
+
+        assertEquals(ISSUES_PER_SERIES, downloader.download().count(DownloadProgress.Outcome.DOWNLOADED));
+        assertEquals(ISSUES_PER_SERIES, pageCollector.streamedIssues.get());
+
+        final DownloadProgress second = downloader.download();
+        assertEquals(ISSUES_PER_SERIES, second.count(DownloadProgress.Outcome.SKIPPED));
+        assertEquals(ISSUES_PER_SERIES, pageCollector.streamedIssues.get(), "No issue may be looked at again");
+    }
+
+    /**
+     * Tracks how many series run at the same time, overall and per host, while listing their issues.
+     */
+    private final class FakeIssueCollector implements IssueCollector {
+
+        private final String comicRoot;
+
+        private FakeIssueCollector(final String comicRoot) {
+            this.comicRoot = comicRoot;
+        }
+
+        @Override
+        public List<Issue> collectIssues() {
+            final String host = UrlUtils.getHost(comicRoot);
+            final AtomicInteger perHost = runningPerHost.computeIfAbsent(host, h -> new AtomicInteger());
+            maxRunningSeries.accumulateAndGet(runningSeries.incrementAndGet(), Math::max);
+            maxRunningPerHost.computeIfAbsent(host, h -> new AtomicInteger()).accumulateAndGet(perHost.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                perHost.decrementAndGet();
+                runningSeries.decrementAndGet();
+            }
+
+            final List<Issue> issues = new ArrayList<>();
+            for (int i = 1; i <= ISSUES_PER_SERIES; i++) {
+                issues.add(new Issue(i, comicRoot + "/Issue-" + i + "?id=" + i));
+            }
+            return issues;
+        }
+    }
+
+    /**
+     * Streams two fixed pages for every issue.
+     */
+    private static final class FakePageCollector implements PageCollector {
+
+        private final AtomicInteger streamedIssues = new AtomicInteger();
+        private volatile boolean closed;
+
+        @Override
+        public void streamPages(final Issue issue, final PageSink sink) throws IOException {
+            streamedIssues.incrementAndGet();
+            final List<String> urls = List.of(issue.getUrl() + "/0", issue.getUrl() + "/1");
+            sink.begin(urls);
+            for (int i = 0; i < urls.size(); i++) {
+                sink.accept(new Page(i, urls.get(i), new byte[]{(byte) i}, "jpg"));
+            }
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
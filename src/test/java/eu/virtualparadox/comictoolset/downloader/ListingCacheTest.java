@@ -0,0 +1,112 @@
+package eu.virtualparadox.comictoolset.downloader;
+
+import com.sun.net.httpserver.HttpServer;
+import org.jsoup.HttpStatusException;
+import org.jsoup.nodes.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ListingCacheTest {
+
+    private final AtomicInteger fullResponses = new AtomicInteger();
+    private final AtomicInteger notModifiedResponses = new AtomicInteger();
+
+    private volatile String etag = "\"v1\"";
+    private volatile String body = "<html><body><a href='/Comic/Test/Issue-1?id=1'>1</a></body></html>";
+
+    private HttpServer server;
+    private String url;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void startStubServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/Comic/Test", exchange -> {
+            if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                notModifiedResponses.incrementAndGet();
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return;
+            }
+            fullResponses.incrementAndGet();
+            final byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("ETag", etag);
+            exchange.getResponseHeaders().add("Content-Type", "text/html; charset=utf-8");
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+        server.createContext("/missing", exchange -> {
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+        });
+        server.start();
+        url = "http://127.0.0.1:" + server.getAddress().getPort() + "/Comic/Test";
+    }
+
+    @AfterEach
+    void stopStubServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void testFreshPageIsServedWithoutRequest() throws IOException {
+        final ListingCache cache = new ListingCache(tempDir, Duration.ofHours(1));
+
+        cache.fetch(url);
+        final Document cached = cache.fetch(url);
+
+        assertEquals(1, fullResponses.get());
+        assertEquals(0, notModifiedResponses.get());
+        assertEquals(1, cached.select("a[href^=/Comic/Test/Issue-]").size());
+    }
+
+    @Test
+    void testExpiredPageIsRevalidatedWithConditionalRequest() throws IOException {
+        final ListingCache cache = new ListingCache(tempDir, Duration.ZERO);
+
+        cache.fetch(url);
+        final Document revalidated = cache.fetch(url);
+
+        assertEquals(1, fullResponses.get());
+        assertEquals(1, notModifiedResponses.get());
+        assertEquals(1, revalidated.select("a[href^=/Comic/Test/Issue-]").size());
+    }
+
+    @Test
+    void testChangedPageReplacesCachedOne() throws IOException {
+        final ListingCache cache = new ListingCache(tempDir, Duration.ZERO);
+        cache.fetch(url);
+
+        etag = "\"v2\"";
+        body = "<html><body><a href='/Comic/Test/Issue-1?id=1'>1</a><a href='/Comic/Test/Issue-2?id=2'>2</a></body></html>";
+
+        assertEquals(2, cache.fetch(url).select("a[href^=/Comic/Test/Issue-]").size());
+        assertEquals(2, new ListingCache(tempDir, Duration.ofHours(1)).fetch(url).select("a[href^=/Comic/Test/Issue-]").size());
+        assertEquals(2, fullResponses.get());
+    }
+
+    @Test
+    void testHttpErrorIsReported() {
+        final ListingCache cache = new ListingCache(tempDir, Duration.ZERO);
+        final String missingUrl = "http://127.0.0.1:" + server.getAddress().getPort() + "/missing";
+
+        final HttpStatusException e = assertThrows(HttpStatusException.class, () -> cache.fetch(missingUrl));
+        assertEquals(404, e.getStatusCode());
+    }
+}
@@ -0,0 +1,111 @@
+package eu.virtualparadox.comictoolset.downloader;
+
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WebDriverPoolTest {
+
+    private final List<FakeDriver> created = new ArrayList<>();
+
+    @Test
+    void testSessionIsReused() throws InterruptedException {
+        try (WebDriverPool pool = new WebDriverPool(this::createDriver, 1, 10)) {
+            final WebDriver first = borrowAndReturn(pool);
+            final WebDriver second = borrowAndReturn(pool);
+
+            assertSame(first, second);
+            assertEquals(1, created.size());
+        }
+    }
+
+    @Test
+    void testSessionIsRecycledAfterMaxUses() throws InterruptedException {
+        try (WebDriverPool pool = new WebDriverPool(this::createDriver, 1, 2)) {
+            borrowAndReturn(pool);
+            borrowAndReturn(pool);
+            borrowAndReturn(pool);
+
+            assertEquals(2, created.size());
+            assertTrue(created.get(0).quit.get());
+        }
+    }
+
+    @Test
+    void testUnhealthySessionIsReplaced() throws InterruptedException {
+        try (WebDriverPool pool = new WebDriverPool(this::createDriver, 1, 10)) {
+            borrowAndReturn(pool);
+            created.get(0).alive.set(false);
+
+            borrowAndReturn(pool);
+
+            assertEquals(2, created.size());
+        }
+    }
+
+    @Test
+    void testInvalidatedSessionIsQuit() throws InterruptedException {
+        try (WebDriverPool pool = new WebDriverPool(this::createDriver, 1, 10)) {
+            try (WebDriverPool.Lease lease = pool.borrow()) {
+                lease.invalidate();
+            }
+
+            assertTrue(created.get(0).quit.get());
+        }
+    }
+
+    @Test
+    void testCloseQuitsIdleSessions() throws InterruptedException {
+        final WebDriverPool pool = new WebDriverPool(this::createDriver, 2, 10);
+        try (WebDriverPool.Lease first = pool.borrow(); WebDriverPool.Lease second = pool.borrow()) {
+            assertNotSame(first.driver(), second.driver());
+        }
+
+        pool.close();
+
+        assertEquals(2, created.size());
+        assertTrue(created.stream().allMatch(driver -> driver.quit.get()));
+    }
+
+    private WebDriver borrowAndReturn(final WebDriverPool pool) throws InterruptedException {
+        try (WebDriverPool.Lease lease = pool.borrow()) {
+            return lease.driver();
+        }
+    }
+
+    private WebDriver createDriver() {
+        final FakeDriver fake = new FakeDriver();
+        created.add(fake);
+        return fake.proxy;
+    }
+
+    private static final class FakeDriver {
+        private final AtomicBoolean alive = new AtomicBoolean(true);
+        private final AtomicBoolean quit = new AtomicBoolean(false);
+        private final WebDriver proxy = (WebDriver) Proxy.newProxyInstance(
+                WebDriver.class.getClassLoader(),
+                new Class<?>[]{WebDriver.class},
+                (p, method, args) -> switch (method.getName()) {
+                    case "quit" -> {
+                        quit.set(true);
+                        yield null;
+                    }
+                    case "getWindowHandle" -> {
+                        if (!alive.get()) {
+                            throw new WebDriverException("session deleted");
+                        }
+                        yield "window";
+                    }
+                    case "hashCode" -> System.identityHashCode(p);
+                    case "equals" -> p == args[0];
+                    default -> null;
+                });
+    }
+}
@@ -0,0 +1,60 @@
+package eu.virtualparadox.comictoolset.downloader.pagecollector.readcomiconline;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LazyLoadTrackerTest {
+
+    private static final long MS = 1_000_000L;
+
+    @Test
+    void testFinishesAsSoonAsExpectedCountIsReached() {
+        final LazyLoadTracker tracker = tracker(3);
+
+        assertFalse(tracker.update(2, 50 * MS));
+        assertTrue(tracker.update(3, 100 * MS));
+    }
+
+    @Test
+    void testFinishesWhenSetIsStableAndCountIsUnknown() {
+        final LazyLoadTracker tracker = tracker(-1);
+
+        assertFalse(tracker.update(5, 100 * MS));
+        assertFalse(tracker.update(5, 3_000 * MS));
+        assertTrue(tracker.update(5, 4_100 * MS));
+    }
+
+    @Test
+    void testWaitsLongerForAnnouncedImages() {
+        final LazyLoadTracker tracker = tracker(10);
+
+        assertFalse(tracker.update(5, 100 * MS));
+        assertFalse(tracker.update(5, 5_000 * MS));
+        assertTrue(tracker.update(5, 10_200 * MS));
+    }
+
+    @Test
+    void testBackoffGrowsAndResetsOnProgress() {
+        final LazyLoadTracker tracker = tracker(-1);
+
+        tracker.update(1, MS);
+        assertEquals(100, tracker.nextDelayMillis());
+        tracker.update(1, 2 * MS);
+        tracker.update(1, 3 * MS);
+        assertEquals(400, tracker.nextDelayMillis());
+        for (int i = 0; i < 10; i++) {
+            tracker.update(1, 4 * MS);
+        }
+        assertEquals(1600, tracker.nextDelayMillis());
+        tracker.update(2, 5 * MS);
+        assertEquals(100, tracker.nextDelayMillis());
+    }
+
+    private LazyLoadTracker tracker(final int expectedCount) {
+        return new LazyLoadTracker(expectedCount, Duration.ofMillis(100), Duration.ofMillis(1600),
+                Duration.ofSeconds(4), Duration.ofSeconds(10), 0);
+    }
+}
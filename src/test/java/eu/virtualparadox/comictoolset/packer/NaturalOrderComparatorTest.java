@@ -0,0 +1,53 @@
+package eu.virtualparadox.comictoolset.packer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NaturalOrderComparatorTest {
+
+    private final NaturalOrderComparator comparator = NaturalOrderComparator.INSTANCE;
+
+    @Test
+    void testNumbersAreComparedByValue() {
+        assertTrue(comparator.compare("page2.jpg", "page10.jpg") < 0);
+        assertTrue(comparator.compare("page10.jpg", "page9.jpg") > 0);
+        assertTrue(comparator.compare("Issue-2", "Issue-12") < 0);
+    }
+
+    @Test
+    void testPaddedAndUnpaddedNamesSortTogether() {
+        final List<String> names = new ArrayList<>(List.of("10.jpg", "0002.jpg", "1.jpg", "0011.jpg", "003.jpg"));
+        names.sort(comparator);
+
+        assertEquals(List.of("1.jpg", "0002.jpg", "003.jpg", "10.jpg", "0011.jpg"), names);
+    }
+
+    @Test
+    void testTextIsComparedCaseInsensitively() {
+        assertTrue(comparator.compare("a1", "B1") < 0);
+        assertTrue(comparator.compare("cover.jpg", "Page1.jpg") < 0);
+    }
+
+    @Test
+    void testOrderIsTotalAndConsistentWithEquals() {
+        assertEquals(0, comparator.compare("page01", "page01"));
+        assertNotEquals(0, comparator.compare("page1", "page01"));
+        assertNotEquals(0, comparator.compare("Page1", "page1"));
+        assertEquals(-Integer.signum(comparator.compare("page1", "page01")), Integer.signum(comparator.compare("page01", "page1")));
+    }
+
+    @Test
+    void testPrefixSortsFirst() {
+        assertTrue(comparator.compare("page", "page1") < 0);
+        assertTrue(comparator.compare("12", "12a") < 0);
+    }
+
+    @Test
+    void testLongNumbersDoNotOverflow() {
+        assertTrue(comparator.compare("99999999999999999999", "100000000000000000000") < 0);
+    }
+}
@@ -0,0 +1,119 @@
+package eu.virtualparadox.comictoolset.packer;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Measures the pack time per GB of every {@link CompressionMode} on a synthetic library,
+ * and the time of an incremental run over the already packed library.
+ * <p>
+ * The pages are random bytes behind real JPEG headers, i.e. incompressible like real JPEG data,
+ * so the numbers show the CPU cost of deflating data that does not shrink.
+ * Point {@code workDir} to a RAM disk (e.g. {@code /dev/shm}) to leave the disk out of the measurement.
+ * Run manually: {@code java ... eu.virtualparadox.comictoolset.packer.PackerBenchmark [libraryMb] [threads] [workDir]}
+ * </p>
+ */
+public class PackerBenchmark {
+
+    private static final int PAGE_SIZE = 512 * 1024;
+    private static final int PAGES_PER_ISSUE = 24;
+    private static final int RUNS = 3;
+
+    public static void main(final String[] args) throws IOException {
+        final int libraryMb = args.length > 0 ? Integer.parseInt(args[0]) : 512;
+        final int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+
+        final Path library = args.length > 2
+                ? Files.createTempDirectory(Path.of(args[2]), "packer-benchmark")
+                : Files.createTempDirectory("packer-benchmark");
+        try {
+            final long libraryBytes = createLibrary(library, libraryMb);
+
+            // warm-up
+            packer(threads, CompressionMode.DEFLATE).run(library);
+
+            for (final CompressionMode mode : CompressionMode.values()) {
+                // best of several runs, to filter out the write-back stalls of the page cache
+                long bestNanos = Long.MAX_VALUE;
+                for (int run = 0; run < RUNS; run++) {
+                    final long start = System.nanoTime();
+                    packer(threads, mode).run(library);
+                    bestNanos = Math.min(bestNanos, System.nanoTime() - start);
+                }
+                final double seconds = bestNanos / 1e9;
+                final double gigabytes = libraryBytes / (1024.0 * 1024.0 * 1024.0);
+
+                System.out.printf("%-8s %6.2f sec/GB  output %.1f%% of input%n",
+                        mode.name().toLowerCase(), seconds / gigabytes, 100.0 * archiveBytes(library) / libraryBytes);
+            }
+
+            // the library is packed now, so an incremental run only compares central directories
+            final long start = System.nanoTime();
+            Packer.PackerBuilder.builder().threads(threads).build().run(library);
+            System.out.printf("%-8s %6.2f sec for the unchanged library%n", "skip", (System.nanoTime() - start) / 1e9);
+        } finally {
+            deleteRecursively(library);
+        }
+    }
+
+    private static Packer packer(final int threads, final CompressionMode mode) {
+        // every run has to repack, otherwise the unchanged library would be skipped
+        return Packer.PackerBuilder.builder().threads(threads).compressionMode(mode).force(true).build();
+    }
+
+    private static long createLibrary(final Path library, final int libraryMb) throws IOException {
+        final Random random = new Random(42);
+        final byte[] header = createJpegHeader();
+        final byte[] page = new byte[PAGE_SIZE];
+        final int issues = Math.max(1, (int) ((long) libraryMb * 1024 * 1024 / ((long) PAGE_SIZE * PAGES_PER_ISSUE)));
+
+        long total = 0;
+        for (int issue = 0; issue < issues; issue++) {
+            final Path issueFolder = Files.createDirectories(library.resolve(String.format("Issue-%03d", issue)));
+            for (int number = 0; number < PAGES_PER_ISSUE; number++) {
+                random.nextBytes(page);
+                System.arraycopy(header, 0, page, 0, header.length);
+                Files.write(issueFolder.resolve(String.format("%04d.jpg", number)), page);
+                total += page.length;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Returns the headers of a real JPEG (everything up to the start of the scan), so reading the
+     * page dimensions costs what it costs for real pages; the random bytes after it stand in for the scan data.
+     */
+    private static byte[] createJpegHeader() throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(1988, 3056, BufferedImage.TYPE_INT_RGB), "jpg", out);
+        final byte[] jpeg = out.toByteArray();
+        for (int i = 0; i + 1 < jpeg.length; i++) {
+            // start of scan marker
+            if (jpeg[i] == (byte) 0xFF && jpeg[i + 1] == (byte) 0xDA) {
+                return Arrays.copyOf(jpeg, i);
+            }
+        }
+        throw new IllegalStateException("No start of scan in the encoded JPEG");
+    }
+
+    private static long archiveBytes(final Path library) throws IOException {
+        try (Stream<Path> files = Files.list(library)) {
+            return files.filter(path -> path.toString().endsWith(".cbz")).mapToLong(path -> path.toFile().length()).sum();
+        }
+    }
+
+    private static void deleteRecursively(final Path root) throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+}
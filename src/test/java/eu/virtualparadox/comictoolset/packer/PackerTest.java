@@ -0,0 +1,233 @@
+package eu.virtualparadox.comictoolset.packer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PackerTest {
+
+    @TempDir
+    Path comicFolder;
+
+    @Test
+    void testEveryIssueIsPackedInParallel() throws IOException {
+        for (int issue = 1; issue <= 6; issue++) {
+            createIssue("Issue-00" + issue, 3);
+        }
+
+        packer(3, CompressionMode.AUTO).run(comicFolder);
+
+        for (int issue = 1; issue <= 6; issue++) {
+            try (ZipFile zip = new ZipFile(comicFolder.resolve("Issue-00" + issue + ".cbz").toFile())) {
+                assertEquals(4, zip.size());
+            }
+        }
+        try (Stream<Path> files = Files.list(comicFolder)) {
+            assertTrue(files.noneMatch(path -> path.getFileName().toString().endsWith(".part")));
+        }
+    }
+
+    @Test
+    void testHiddenFilesAndIncompleteIssuesAreSkipped() throws IOException {
+        final Path issue = createIssue("Issue-001", 2);
+        Files.writeString(issue.resolve(".manifest.json"), "{}");
+        createIssue("Issue-002.part", 1);
+
+        packer(2, CompressionMode.AUTO).run(comicFolder);
+
+        try (ZipFile zip = new ZipFile(comicFolder.resolve("Issue-001.cbz").toFile())) {
+            final List<String> names = Collections.list(zip.entries()).stream().map(ZipEntry::getName).toList();
+            assertFalse(names.contains(".manifest.json"));
+        }
+        assertFalse(Files.exists(comicFolder.resolve("Issue-002.part.cbz")));
+    }
+
+    @Test
+    void testAutoModeStoresCompressedImagesAndDeflatesTheRest() throws IOException {
+        final Path issue = createIssue("Issue-001", 1);
+        final byte[] bmp = new byte[4096];
+        bmp[0] = 0x42;
+        bmp[1] = 0x4D;
+        Files.write(issue.resolve("0001.bmp"), bmp);
+
+        packer(1, CompressionMode.AUTO).run(comicFolder);
+
+        try (ZipFile zip = new ZipFile(comicFolder.resolve("Issue-001.cbz").toFile())) {
+            final ZipEntry jpeg = zip.getEntry("0000.jpg");
+            assertEquals(ZipEntry.STORED, jpeg.getMethod());
+            assertArrayEquals(Files.readAllBytes(issue.resolve("0000.jpg")), zip.getInputStream(jpeg).readAllBytes());
+
+            final ZipEntry bitmap = zip.getEntry("0001.bmp");
+            assertEquals(ZipEntry.DEFLATED, bitmap.getMethod());
+            assertTrue(bitmap.getCompressedSize() < bitmap.getSize());
+        }
+    }
+
+    @Test
+    void testDeflateModeCompressesEveryPage() throws IOException {
+        createIssue("Issue-001", 2);
+
+        packer(1, CompressionMode.DEFLATE).run(comicFolder);
+
+        try (ZipFile zip = new ZipFile(comicFolder.resolve("Issue-001.cbz").toFile())) {
+            assertTrue(Collections.list(zip.entries()).stream().allMatch(entry -> entry.getMethod() == ZipEntry.DEFLATED));
+        }
+    }
+
+    @Test
+    void testUnchangedArchiveIsNotRewritten() throws IOException {
+        createIssue("Issue-001", 3);
+        packer(1, CompressionMode.AUTO).run(comicFolder);
+        final Path archive = comicFolder.resolve("Issue-001.cbz");
+        final FileTime packedAt = FileTime.fromMillis(1_000_000_000_000L);
+        Files.setLastModifiedTime(archive, packedAt);
+
+        packer(1, CompressionMode.AUTO).run(comicFolder);
+
+        assertEquals(packedAt, Files.getLastModifiedTime(archive));
+    }
+
+    @Test
+    void testNewPagesAreAppended() throws IOException {
+        final Path issue = createIssue("Issue-001", 2);
+        packer(1, CompressionMode.AUTO).run(comicFolder);
+        Files.write(issue.resolve("0002.jpg"), jpegLike(2));
+
+        packer(1, CompressionMode.AUTO).run(comicFolder);
+
+        try (ZipFile zip = new ZipFile(comicFolder.resolve("Issue-001.cbz").toFile())) {
+            assertEquals(4, zip.size());
+            final ZipEntry appended = zip.getEntry("0002.jpg");
+            assertEquals(ZipEntry.STORED, appended.getMethod());
+            assertArrayEquals(jpegLike(2), zip.getInputStream(appended).readAllBytes());
+        }
+
+        // the appended archive is up to date as well
+        assertEquals(ArchiveDiff.Status.UNCHANGED,
+                ArchiveDiff.compare(comicFolder.resolve("Issue-001.cbz"), listFiles(issue)).getStatus());
+    }
+
+    @Test
+    void testAppendedArchiveCanBeStreamed() throws IOException {
+        final Path issue = createIssue("Issue-001", 2);
+        packer(1, CompressionMode.STORE).run(comicFolder);
+        Files.write(issue.resolve("0002.jpg"), jpegLike(2));
+        Files.write(issue.resolve("0003.jpg"), jpegLike(3));
+
+        packer(1, CompressionMode.STORE).run(comicFolder);
+
+        final List<String> names = new ArrayList<>();
+        try (ZipInputStream zip = new ZipInputStream(Files.newInputStream(comicFolder.resolve("Issue-001.cbz")))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                final byte[] data = zip.readAllBytes();
+                if (!ComicInfo.FILE_NAME.equals(entry.getName())) {
+                    assertArrayEquals(Files.readAllBytes(issue.resolve(entry.getName())), data);
+                }
+                names.add(entry.getName());
+            }
+        }
+        assertEquals(List.of("ComicInfo.xml", "0000.jpg", "0001.jpg", "0002.jpg", "0003.jpg"), names);
+    }
+
+    @Test
+    void testModifiedOrRemovedPagesTriggerRepack() throws IOException {
+        final Path issue = createIssue("Issue-001", 3);
+        packer(1, CompressionMode.AUTO).run(comicFolder);
+        final Path archive = comicFolder.resolve("Issue-001.cbz");
+
+        Files.delete(issue.resolve("0002.jpg"));
+        assertEquals(ArchiveDiff.Status.CHANGED, ArchiveDiff.compare(archive, listFiles(issue)).getStatus());
+
+        Files.write(issue.resolve("0001.jpg"), new byte[10]);
+        packer(1, CompressionMode.AUTO).run(comicFolder);
+
+        try (ZipFile zip = new ZipFile(archive.toFile())) {
+            assertEquals(3, zip.size());
+            assertEquals(10, zip.getEntry("0001.jpg").getSize());
+        }
+    }
+
+    @Test
+    void testForceRepacksUnchangedArchive() throws IOException {
+        createIssue("Issue-001", 1);
+        packer(1, CompressionMode.AUTO).run(comicFolder);
+        final Path archive = comicFolder.resolve("Issue-001.cbz");
+        final FileTime packedAt = FileTime.fromMillis(1_000_000_000_000L);
+        Files.setLastModifiedTime(archive, packedAt);
+
+        Packer.PackerBuilder.builder().threads(1).force(true).build().run(comicFolder);
+
+        assertNotEquals(packedAt, Files.getLastModifiedTime(archive));
+    }
+
+    @Test
+    void testPagesAreInNaturalOrderAfterThePageIndex() throws IOException {
+        final Path issue = Files.createDirectories(comicFolder.resolve("Issue-001"));
+        for (final String name : new String[]{"page10.png", "page2.png", "page1.png"}) {
+            Files.write(issue.resolve(name), png(20, 30));
+        }
+
+        packer(1, CompressionMode.AUTO).run(comicFolder);
+
+        try (ZipFile zip = new ZipFile(comicFolder.resolve("Issue-001.cbz").toFile())) {
+            final List<String> names = Collections.list(zip.entries()).stream().map(ZipEntry::getName).toList();
+            assertEquals(List.of("ComicInfo.xml", "page1.png", "page2.png", "page10.png"), names);
+
+            final String comicInfo = new String(zip.getInputStream(zip.getEntry("ComicInfo.xml")).readAllBytes(), StandardCharsets.UTF_8);
+            assertTrue(comicInfo.contains("<PageCount>3</PageCount>"));
+            assertTrue(comicInfo.contains("<Page Image=\"2\" ImageSize=\"" + Files.size(issue.resolve("page10.png")) + "\" ImageWidth=\"20\" ImageHeight=\"30\" />"));
+        }
+    }
+
+    private static byte[] png(final int width, final int height) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", out);
+        return out.toByteArray();
+    }
+
+    private static Packer packer(final int threads, final CompressionMode mode) {
+        return Packer.PackerBuilder.builder().threads(threads).compressionMode(mode).build();
+    }
+
+    private static List<Path> listFiles(final Path folder) throws IOException {
+        try (Stream<Path> files = Files.list(folder)) {
+            return files.toList();
+        }
+    }
+
+    private Path createIssue(final String name, final int pages) throws IOException {
+        final Path issue = Files.createDirectories(comicFolder.resolve(name));
+        for (int page = 0; page < pages; page++) {
+            Files.write(issue.resolve(String.format("%04d.jpg", page)), jpegLike(page));
+        }
+        return issue;
+    }
+
+    private static byte[] jpegLike(final int seed) {
+        final byte[] data = new byte[64];
+        new Random(seed).nextBytes(data);
+        data[0] = (byte) 0xFF;
+        data[1] = (byte) 0xD8;
+        data[2] = (byte) 0xFF;
+        return data;
+    }
+}
@@ -0,0 +1,108 @@
+package eu.virtualparadox.comictoolset.translator.tensor;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TensorBufferPoolTest {
+
+    @Test
+    void testReleasedBufferIsReusedForTheSameShape() {
+        final TensorBufferPool pool = new TensorBufferPool();
+
+        final FloatBuffer first;
+        try (TensorBufferPool.Lease lease = pool.acquire(1, 3, 4, 5)) {
+            first = lease.buffer();
+            assertTrue(first.isDirect());
+            assertEquals(60, first.remaining());
+            first.put(new float[7]);
+        }
+        assertEquals(60 * Float.BYTES, pool.getIdleBytes());
+
+        try (TensorBufferPool.Lease lease = pool.acquire(1, 3, 4, 5)) {
+            assertSame(first, lease.buffer());
+            assertEquals(0, lease.buffer().position());
+            assertEquals(60, lease.buffer().limit());
+            assertEquals(0, pool.getIdleBytes());
+        }
+    }
+
+    @Test
+    void testDifferentShapesDoNotShareBuffers() {
+        final TensorBufferPool pool = new TensorBufferPool();
+        final FloatBuffer first;
+        try (TensorBufferPool.Lease lease = pool.acquire(1, 3, 4, 5)) {
+            first = lease.buffer();
+        }
+
+        try (TensorBufferPool.Lease lease = pool.acquire(1, 3, 5, 4)) {
+            assertNotSame(first, lease.buffer());
+        }
+    }
+
+    @Test
+    void testLeasedBufferIsNotHandedOutTwice() {
+        final TensorBufferPool pool = new TensorBufferPool();
+        try (TensorBufferPool.Lease first = pool.acquire(2, 2);
+             TensorBufferPool.Lease second = pool.acquire(2, 2)) {
+            assertNotSame(first.buffer(), second.buffer());
+        }
+    }
+
+    @Test
+    void testIdleBuffersStayWithinBudgetDroppingLeastRecentlyUsedShapes() {
+        final TensorBufferPool pool = new TensorBufferPool(2 * 100 * Float.BYTES);
+        final FloatBuffer recent;
+        pool.acquire(100).close();
+        try (TensorBufferPool.Lease lease = pool.acquire(10, 10)) {
+            recent = lease.buffer();
+        }
+        pool.acquire(4, 25).close();
+        assertEquals(200 * Float.BYTES, pool.getIdleBytes());
+
+        try (TensorBufferPool.Lease lease = pool.acquire(10, 10)) {
+            assertSame(recent, lease.buffer());
+        }
+        pool.acquire(1000).close();
+        assertTrue(pool.getIdleBytes() <= 200 * Float.BYTES);
+    }
+
+    @Test
+    void testConcurrentLeasesNeverShareABuffer() throws Exception {
+        final TensorBufferPool pool = new TensorBufferPool();
+        final Set<FloatBuffer> leased = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 1000; i++) {
+                        try (TensorBufferPool.Lease lease = pool.acquire(1, 3, 8, 8)) {
+                            assertTrue(leased.add(lease.buffer()), "Buffer leased twice");
+                            leased.remove(lease.buffer());
+                        }
+                    }
+                }));
+            }
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        }
+        assertTrue(pool.getIdleBytes() <= 8 * 3 * 8 * 8 * Float.BYTES);
+    }
+
+    @Test
+    void testInvalidShapeIsRejected() {
+        final TensorBufferPool pool = new TensorBufferPool();
+        assertThrows(IllegalArgumentException.class, () -> pool.acquire(1, 0, 4));
+    }
+}
@@ -0,0 +1,84 @@
+package eu.virtualparadox.comictoolset.translator.tensor;
+
+import java.awt.image.BufferedImage;
+import java.nio.FloatBuffer;
+import java.util.Random;
+
+/**
+ * Compares {@link TensorConverter} with the per-pixel {@code getRGB} loops the ONNX stages used before,
+ * converting a 2000x3000 page into a [0,1] and an ImageNet-normalized CHW tensor.
+ * <p>
+ * Run manually: {@code java ... eu.virtualparadox.comictoolset.translator.tensor.TensorConverterBenchmark [width] [height]}
+ * </p>
+ */
+public class TensorConverterBenchmark {
+
+    private static final int WARMUP_RUNS = 5;
+    private static final int RUNS = 10;
+
+    private static final float[] MEAN = {0.485f, 0.456f, 0.406f};
+    private static final float[] STD = {0.229f, 0.224f, 0.225f};
+
+    public static void main(final String[] args) {
+        final int width = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        final int height = args.length > 1 ? Integer.parseInt(args[1]) : 3000;
+
+        for (final int type : new int[]{BufferedImage.TYPE_INT_RGB, BufferedImage.TYPE_3BYTE_BGR}) {
+            final BufferedImage image = createPage(width, height, type);
+            final String name = type == BufferedImage.TYPE_INT_RGB ? "INT_RGB" : "3BYTE_BGR";
+            for (final Normalization normalization : Normalization.values()) {
+                final double legacy = measure(() -> legacyTensor(image, normalization));
+                final double converter = measure(() -> TensorConverter.toTensor(image, 3, normalization));
+                System.out.printf("%-9s %-8s legacy %7.1f ms  converter %6.1f ms  speedup %5.1fx%n",
+                        name, normalization, legacy, converter, legacy / converter);
+            }
+        }
+    }
+
+    private static double measure(final Runnable conversion) {
+        for (int run = 0; run < WARMUP_RUNS; run++) {
+            conversion.run();
+        }
+        long bestNanos = Long.MAX_VALUE;
+        for (int run = 0; run < RUNS; run++) {
+            final long start = System.nanoTime();
+            conversion.run();
+            bestNanos = Math.min(bestNanos, System.nanoTime() - start);
+        }
+        return bestNanos / 1e6;
+    }
+
+    /**
+     * The loop of the mask generator before the converter: one {@code getRGB} call per pixel and channel.
+     */
+    private static FloatBuffer legacyTensor(final BufferedImage image, final Normalization normalization) {
+        final int width = image.getWidth();
+        final int height = image.getHeight();
+        final FloatBuffer buffer = FloatBuffer.allocate(3 * height * width);
+        final boolean imageNet = normalization == Normalization.IMAGENET;
+        for (int c = 0; c < 3; c++) {
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    final int rgb = image.getRGB(x, y);
+                    final int value = (rgb >> (16 - 8 * c)) & 0xFF;
+                    buffer.put(imageNet ? (value / 255.0f - MEAN[c]) / STD[c] : value / 255.0f);
+                }
+            }
+        }
+        buffer.rewind();
+        return buffer;
+    }
+
+    private static BufferedImage createPage(final int width, final int height, final int type) {
+        final BufferedImage image = new BufferedImage(width, height, type);
+        final Random random = new Random(42);
+        final int[] row = new int[width];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                row[x] = random.nextInt();
+            }
+            image.setRGB(0, y, width, 1, row, 0, width);
+        }
+        return image;
+    }
+}
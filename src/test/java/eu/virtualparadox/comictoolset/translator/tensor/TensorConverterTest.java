@@ -0,0 +1,137 @@
+package eu.virtualparadox.comictoolset.translator.tensor;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.nio.FloatBuffer;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TensorConverterTest {
+
+    @Test
+    void testPaddedTensorRepeatsTheLastColumn() {
+        final BufferedImage image = new BufferedImage(2, 1, BufferedImage.TYPE_INT_RGB);
+        image.setRGB(0, 0, 0x000000);
+        image.setRGB(1, 0, 0xFF0000);
+        final FloatBuffer buffer = TensorConverter.allocate(3 * 4);
+
+        TensorConverter.put(image, buffer, 3, Normalization.UNIT, 4, PaddingMode.REPLICATE_EDGE);
+
+        assertArrayEquals(new float[]{0, 1, 1, 1, 0, 0, 0, 0, 0, 0, 0, 0}, toArray(buffer));
+        assertEquals(12, buffer.position());
+    }
+
+    @Test
+    void testPaddedTensorWithZeroPadding() {
+        final BufferedImage image = new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB);
+        image.setRGB(0, 0, 0xFFFFFF);
+        final FloatBuffer buffer = TensorConverter.allocate(3 * 3);
+
+        TensorConverter.put(image, buffer, 3, Normalization.UNIT, 3, PaddingMode.ZERO);
+
+        assertArrayEquals(new float[]{1, 0, 0, 1, 0, 0, 1, 0, 0}, toArray(buffer));
+    }
+
+    @Test
+    void testImageNetNormalization() {
+        final BufferedImage image = new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB);
+        image.setRGB(0, 0, 0x80FF00);
+
+        final FloatBuffer tensor = TensorConverter.toTensor(image, 3, Normalization.IMAGENET);
+
+        assertEquals((128 / 255f - 0.485f) / 0.229f, tensor.get(0), 1e-6);
+        assertEquals((1f - 0.456f) / 0.224f, tensor.get(1), 1e-6);
+        assertEquals(-0.406f / 0.225f, tensor.get(2), 1e-6);
+    }
+
+    @Test
+    void testSingleChannelUsesRed() {
+        final BufferedImage image = new BufferedImage(2, 1, BufferedImage.TYPE_INT_RGB);
+        image.setRGB(0, 0, 0xFF0000);
+        image.setRGB(1, 0, 0x00FFFF);
+
+        assertArrayEquals(new float[]{1, 0}, toArray(TensorConverter.toTensor(image, 1, Normalization.UNIT)));
+    }
+
+    @Test
+    void testAllImageTypesAndSubImagesMatchGetRgb() {
+        final int[] types = {
+                BufferedImage.TYPE_INT_RGB, BufferedImage.TYPE_INT_ARGB, BufferedImage.TYPE_3BYTE_BGR,
+                BufferedImage.TYPE_4BYTE_ABGR, BufferedImage.TYPE_INT_BGR, BufferedImage.TYPE_USHORT_565_RGB
+        };
+        for (final int type : types) {
+            final BufferedImage image = randomImage(37, 23, type);
+            final BufferedImage subImage = image.getSubimage(5, 7, 19, 11);
+            for (final BufferedImage candidate : new BufferedImage[]{image, subImage}) {
+                for (final Normalization normalization : Normalization.values()) {
+                    assertArrayEquals(expectedTensor(candidate, normalization),
+                            toArray(TensorConverter.toTensor(candidate, 3, normalization)),
+                            "Image type " + type + ", " + normalization);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testBatchSlotsFollowEachOther() {
+        final BufferedImage first = randomImage(3, 2, BufferedImage.TYPE_INT_RGB);
+        final BufferedImage second = randomImage(3, 2, BufferedImage.TYPE_3BYTE_BGR);
+        final FloatBuffer batch = TensorConverter.allocate(2 * 3 * 2 * 3);
+
+        TensorConverter.put(first, batch, 3, Normalization.UNIT);
+        TensorConverter.put(second, batch, 3, Normalization.UNIT);
+
+        final float[] values = toArray(batch);
+        final float[] expected = new float[values.length];
+        System.arraycopy(expectedTensor(first, Normalization.UNIT), 0, expected, 0, 18);
+        System.arraycopy(expectedTensor(second, Normalization.UNIT), 0, expected, 18, 18);
+        assertArrayEquals(expected, values);
+    }
+
+    @Test
+    void testImageWiderThanTensorIsRejected() {
+        final BufferedImage image = new BufferedImage(4, 1, BufferedImage.TYPE_INT_RGB);
+        final FloatBuffer buffer = TensorConverter.allocate(3 * 4);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> TensorConverter.put(image, buffer, 3, Normalization.UNIT, 3, PaddingMode.ZERO));
+    }
+
+    private static BufferedImage randomImage(final int width, final int height, final int type) {
+        final BufferedImage image = new BufferedImage(width, height, type);
+        final Random random = new Random(type);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, random.nextInt());
+            }
+        }
+        return image;
+    }
+
+    /**
+     * The straightforward per-pixel conversion the converter has to match.
+     */
+    private static float[] expectedTensor(final BufferedImage image, final Normalization normalization) {
+        final int width = image.getWidth();
+        final int height = image.getHeight();
+        final float[] tensor = new float[3 * width * height];
+        int i = 0;
+        for (int c = 0; c < 3; c++) {
+            final float[] table = normalization.lookupTable(c);
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    tensor[i++] = table[(image.getRGB(x, y) >> (16 - 8 * c)) & 0xFF];
+                }
+            }
+        }
+        return tensor;
+    }
+
+    private static float[] toArray(final FloatBuffer buffer) {
+        final float[] values = new float[buffer.capacity()];
+        buffer.get(0, values);
+        return values;
+    }
+}
@@ -0,0 +1,142 @@
+package eu.virtualparadox.comictoolset.translator.textboxgenerator.maskgenerator;
+
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Random;
+
+/**
+ * Compares {@link ConnectedComponentLabeler} with the flood fill the mask generator used before
+ * ({@code LinkedList<Point>} queue over {@code boolean[][]}) on a synthetic text heatmap.
+ * <p>
+ * The heatmap holds lines of word-sized blobs with soft edges, roughly like the DBNet output of a dense
+ * page, plus sparse noise. Run manually:
+ * {@code java ... eu.virtualparadox.comictoolset.translator.textboxgenerator.maskgenerator.ConnectedComponentLabelerBenchmark [width] [height]}
+ * </p>
+ */
+public class ConnectedComponentLabelerBenchmark {
+
+    private static final float THRESHOLD = 0.01f;
+    private static final int WARMUP_RUNS = 5;
+    private static final int RUNS = 10;
+
+    public static void main(final String[] args) {
+        final int width = args.length > 0 ? Integer.parseInt(args[0]) : 3000;
+        final int height = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+        final float[] heatmap = createHeatmap(width, height);
+        final float[][] jagged = new float[height][width];
+        for (int y = 0; y < height; y++) {
+            System.arraycopy(heatmap, y * width, jagged[y], 0, width);
+        }
+
+        final ConnectedComponentLabeler labeler = new ConnectedComponentLabeler();
+        final int components = labeler.label(heatmap, width, height, THRESHOLD).size();
+        final int legacyComponents = legacyLabel(jagged, THRESHOLD);
+        if (components != legacyComponents) {
+            throw new IllegalStateException("Component counts differ: " + components + " vs " + legacyComponents);
+        }
+
+        final double legacy = measure(() -> legacyLabel(jagged, THRESHOLD));
+        final double current = measure(() -> labeler.label(heatmap, width, height, THRESHOLD));
+        System.out.printf("%dx%d heatmap, %d components%n", width, height, components);
+        System.out.printf("flood fill %7.1f ms  union-find %6.1f ms  speedup %5.1fx%n", legacy, current, legacy / current);
+    }
+
+    private static double measure(final Runnable labeling) {
+        for (int run = 0; run < WARMUP_RUNS; run++) {
+            labeling.run();
+        }
+        long bestNanos = Long.MAX_VALUE;
+        for (int run = 0; run < RUNS; run++) {
+            final long start = System.nanoTime();
+            labeling.run();
+            bestNanos = Math.min(bestNanos, System.nanoTime() - start);
+        }
+        return bestNanos / 1e6;
+    }
+
+    private static float[] createHeatmap(final int width, final int height) {
+        final float[] heatmap = new float[width * height];
+        final Random random = new Random(42);
+        for (int lineY = 20; lineY + 30 < height; lineY += 45) {
+            int x = 20 + random.nextInt(40);
+            while (x + 20 < width) {
+                final int wordWidth = 20 + random.nextInt(120);
+                final int wordHeight = 18 + random.nextInt(10);
+                for (int y = lineY; y < lineY + wordHeight; y++) {
+                    for (int wx = x; wx < Math.min(width, x + wordWidth); wx++) {
+                        final float edge = Math.min(Math.min(wx - x, x + wordWidth - wx), Math.min(y - lineY, lineY + wordHeight - y));
+                        heatmap[y * width + wx] = Math.min(1f, 0.2f + edge / 4f) * (0.8f + random.nextFloat() / 5);
+                    }
+                }
+                x += wordWidth + 8 + random.nextInt(30);
+            }
+        }
+        for (int i = 0; i < heatmap.length / 500; i++) {
+            heatmap[random.nextInt(heatmap.length)] = random.nextFloat() / 10;
+        }
+        return heatmap;
+    }
+
+    /**
+     * The previous implementation, returning only the component count.
+     */
+    private static int legacyLabel(final float[][] heatmap, final float threshold) {
+        final int h = heatmap.length;
+        final int w = heatmap[0].length;
+        final boolean[][] visited = new boolean[h][w];
+        final List<int[]> boxes = new ArrayList<>();
+
+        for (int y = 0; y < h; y++) {
+            for (int x = 0; x < w; x++) {
+                if (!visited[y][x] && heatmap[y][x] > threshold) {
+                    boxes.add(legacyFloodFill(heatmap, visited, x, y, threshold));
+                }
+            }
+        }
+        return boxes.size();
+    }
+
+    private static int[] legacyFloodFill(final float[][] heatmap,
+                                         final boolean[][] visited,
+                                         final int startX,
+                                         final int startY,
+                                         final float threshold) {
+        final int h = heatmap.length;
+        final int w = heatmap[0].length;
+
+        int minX = startX;
+        int minY = startY;
+        int maxX = startX;
+        int maxY = startY;
+
+        final Queue<Point> queue = new LinkedList<>();
+        queue.add(new Point(startX, startY));
+        visited[startY][startX] = true;
+
+        while (!queue.isEmpty()) {
+            final Point p = queue.poll();
+            final int x = p.x;
+            final int y = p.y;
+
+            minX = Math.min(minX, x);
+            minY = Math.min(minY, y);
+            maxX = Math.max(maxX, x);
+            maxY = Math.max(maxY, y);
+
+            for (int dy = -1; dy <= 1; dy++) {
+                for (int dx = -1; dx <= 1; dx++) {
+                    final int nx = x + dx;
+                    final int ny = y + dy;
+                    if (nx >= 0 && ny >= 0 && nx < w && ny < h && !visited[ny][nx] && heatmap[ny][nx] > threshold) {
+                        visited[ny][nx] = true;
+                        queue.add(new Point(nx, ny));
+                    }
+                }
+            }
+        }
+        return new int[]{minX, minY, maxX, maxY};
+    }
+}
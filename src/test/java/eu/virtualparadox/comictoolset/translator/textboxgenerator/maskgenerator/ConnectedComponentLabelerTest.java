@@ -0,0 +1,135 @@
+package eu.virtualparadox.comictoolset.translator.textboxgenerator.maskgenerator;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConnectedComponentLabelerTest {
+
+    private static final float THRESHOLD = 0.5f;
+
+    @Test
+    void testBranchesJoinedLaterFormOneComponent() {
+        final float[] heatmap = heatmap(
+                "#...#.#",
+                "#...#.#",
+                "#####.#",
+                "......#");
+
+        final List<ConnectedComponentLabeler.Component> components =
+                new ConnectedComponentLabeler().label(heatmap, 7, 4, THRESHOLD);
+
+        assertEquals(2, components.size());
+        assertEquals(new ConnectedComponentLabeler.Component(0, 0, 4, 2, 9, 9), components.get(0));
+        assertEquals(new ConnectedComponentLabeler.Component(6, 0, 6, 3, 4, 4), components.get(1));
+    }
+
+    @Test
+    void testDiagonalPixelsAreConnected() {
+        final float[] heatmap = heatmap(
+                "...#",
+                "..#.",
+                "#..#",
+                ".#..");
+
+        final List<ConnectedComponentLabeler.Component> components =
+                new ConnectedComponentLabeler().label(heatmap, 4, 4, THRESHOLD);
+
+        assertEquals(2, components.size());
+        assertEquals(new ConnectedComponentLabeler.Component(2, 0, 3, 2, 3, 3), components.get(0));
+        assertEquals(new ConnectedComponentLabeler.Component(0, 2, 1, 3, 2, 2), components.get(1));
+    }
+
+    @Test
+    void testActivationSumAndMean() {
+        final float[] heatmap = {0.6f, 0.8f, 0f, 0.1f};
+
+        final List<ConnectedComponentLabeler.Component> components =
+                new ConnectedComponentLabeler().label(heatmap, 2, 2, THRESHOLD);
+
+        assertEquals(1, components.size());
+        assertEquals(1.4, components.get(0).activationSum(), 1e-6);
+        assertEquals(0.7f, components.get(0).meanActivation(), 1e-6);
+    }
+
+    @Test
+    void testMatchesFloodFillOnRandomHeatmapsWithReusedScratchBuffers() {
+        final ConnectedComponentLabeler labeler = new ConnectedComponentLabeler();
+        final Random random = new Random(7);
+        // wide, then narrower and taller maps: the scratch rows of a wider map must not leak into the next
+        final int[][] sizes = {{300, 40}, {17, 90}, {64, 64}, {1, 50}, {50, 1}};
+        for (final int[] size : sizes) {
+            final int width = size[0];
+            final int height = size[1];
+            final float[] heatmap = new float[width * height];
+            for (int i = 0; i < heatmap.length; i++) {
+                heatmap[i] = random.nextFloat() < 0.45f ? 0.5f + random.nextFloat() / 2 : 0f;
+            }
+
+            assertEquals(floodFill(heatmap, width, height), labeler.label(heatmap, width, height, THRESHOLD),
+                    "Heatmap " + width + "x" + height);
+        }
+    }
+
+    /**
+     * Builds a heatmap with 1 for every '#' and 0 otherwise.
+     */
+    private static float[] heatmap(final String... rows) {
+        final int width = rows[0].length();
+        final float[] heatmap = new float[width * rows.length];
+        for (int y = 0; y < rows.length; y++) {
+            for (int x = 0; x < width; x++) {
+                heatmap[y * width + x] = rows[y].charAt(x) == '#' ? 1f : 0f;
+            }
+        }
+        return heatmap;
+    }
+
+    /**
+     * Reference implementation: breadth-first flood fill from every unvisited pixel in row-major order.
+     */
+    private static List<ConnectedComponentLabeler.Component> floodFill(final float[] heatmap, final int width, final int height) {
+        final boolean[] visited = new boolean[heatmap.length];
+        final List<ConnectedComponentLabeler.Component> components = new ArrayList<>();
+        for (int start = 0; start < heatmap.length; start++) {
+            if (visited[start] || heatmap[start] <= THRESHOLD) {
+                continue;
+            }
+            int minX = width, minY = height, maxX = -1, maxY = -1, count = 0;
+            double sum = 0;
+            final Deque<Integer> queue = new ArrayDeque<>();
+            queue.add(start);
+            visited[start] = true;
+            while (!queue.isEmpty()) {
+                final int index = queue.poll();
+                final int x = index % width;
+                final int y = index / width;
+                minX = Math.min(minX, x);
+                minY = Math.min(minY, y);
+                maxX = Math.max(maxX, x);
+                maxY = Math.max(maxY, y);
+                count++;
+                sum += heatmap[index];
+                for (int dy = -1; dy <= 1; dy++) {
+                    for (int dx = -1; dx <= 1; dx++) {
+                        final int nx = x + dx;
+                        final int ny = y + dy;
+                        final int neighbour = ny * width + nx;
+                        if (nx >= 0 && ny >= 0 && nx < width && ny < height && !visited[neighbour] && heatmap[neighbour] > THRESHOLD) {
+                            visited[neighbour] = true;
+                            queue.add(neighbour);
+                        }
+                    }
+                }
+            }
+            components.add(new ConnectedComponentLabeler.Component(minX, minY, maxX, maxY, count, sum));
+        }
+        return components;
+    }
+}
@@ -0,0 +1,108 @@
+package eu.virtualparadox.comictoolset.translator.textboxgenerator.maskgenerator;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HeatmapBoxMapperTest {
+
+    private static final float THRESHOLD = 0.3f;
+
+    @Test
+    void testSameResolutionKeepsTheComponentBounds() {
+        final float[] heatmap = {
+                0, 0, 0, 0,
+                0, 1, 1, 0,
+                0, 1, 1, 0,
+                0, 0, 0, 0};
+        final ConnectedComponentLabeler.Component component =
+                new ConnectedComponentLabeler().label(heatmap, 4, 4, THRESHOLD).get(0);
+
+        for (final boolean refine : new boolean[]{false, true}) {
+            final TextMaskRegion box = new HeatmapBoxMapper(heatmap, 4, 4, THRESHOLD, 4, 4, refine).map(component);
+            assertEquals(new TextMaskRegion(1, 1, 2, 2, 1f), box);
+        }
+    }
+
+    @Test
+    void testCoarseBoxesAreScaledCornerAligned() {
+        final float[] heatmap = {
+                0, 0, 0,
+                0, 1, 1,
+                0, 0, 0};
+        final ConnectedComponentLabeler.Component component =
+                new ConnectedComponentLabeler().label(heatmap, 3, 3, THRESHOLD).get(0);
+
+        final TextMaskRegion box = new HeatmapBoxMapper(heatmap, 3, 3, THRESHOLD, 9, 5, false).map(component);
+
+        assertEquals(new TextMaskRegion(4, 2, 8, 2, 1f), box);
+    }
+
+    @Test
+    void testRefinedBoxesMatchLabelingTheUpscaledHeatmap() {
+        final Random random = new Random(3);
+        final int width = 40;
+        final int height = 30;
+        final int imageWidth = 157;
+        final int imageHeight = 88;
+        for (int run = 0; run < 20; run++) {
+            final float[] heatmap = blob(width, height, random);
+            final ConnectedComponentLabeler labeler = new ConnectedComponentLabeler();
+            final List<ConnectedComponentLabeler.Component> components = labeler.label(heatmap, width, height, THRESHOLD);
+            assertEquals(1, components.size());
+
+            final TextMaskRegion refined = new HeatmapBoxMapper(heatmap, width, height, THRESHOLD,
+                    imageWidth, imageHeight, true).map(components.get(0));
+
+            final float[] upscaled = upscale(heatmap, width, height, imageWidth, imageHeight);
+            final ConnectedComponentLabeler.Component expected =
+                    labeler.label(upscaled, imageWidth, imageHeight, THRESHOLD).get(0);
+            assertEquals(expected.minX(), refined.x1, 1, "x1 of run " + run);
+            assertEquals(expected.minY(), refined.y1, 1, "y1 of run " + run);
+            assertEquals(expected.maxX(), refined.x2, 1, "x2 of run " + run);
+            assertEquals(expected.maxY(), refined.y2, 1, "y2 of run " + run);
+        }
+    }
+
+    /**
+     * A smooth elliptic blob with its peak at a random position.
+     */
+    private static float[] blob(final int width, final int height, final Random random) {
+        final double centerX = 10 + random.nextDouble() * (width - 20);
+        final double centerY = 8 + random.nextDouble() * (height - 16);
+        final double radiusX = 3 + random.nextDouble() * 5;
+        final double radiusY = 2 + random.nextDouble() * 4;
+        final float[] heatmap = new float[width * height];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                final double dx = (x - centerX) / radiusX;
+                final double dy = (y - centerY) / radiusY;
+                heatmap[y * width + x] = (float) Math.max(0, 1 - Math.sqrt(dx * dx + dy * dy));
+            }
+        }
+        return heatmap;
+    }
+
+    /**
+     * Corner-aligned bilinear upscaling, the way the heatmap was resized before it was labeled.
+     */
+    private static float[] upscale(final float[] src, final int srcW, final int srcH, final int targetW, final int targetH) {
+        final float[] dst = new float[targetW * targetH];
+        for (int y = 0; y < targetH; y++) {
+            for (int x = 0; x < targetW; x++) {
+                final float srcX = x * (srcW - 1f) / (targetW - 1f);
+                final float srcY = y * (srcH - 1f) / (targetH - 1f);
+                final int x0 = (int) srcX, x1 = Math.min(x0 + 1, srcW - 1);
+                final int y0 = (int) srcY, y1 = Math.min(y0 + 1, srcH - 1);
+                final float dx = srcX - x0, dy = srcY - y0;
+                final float top = src[y0 * srcW + x0] * (1 - dx) + src[y0 * srcW + x1] * dx;
+                final float bottom = src[y1 * srcW + x0] * (1 - dx) + src[y1 * srcW + x1] * dx;
+                dst[y * targetW + x] = top * (1 - dy) + bottom * dy;
+            }
+        }
+        return dst;
+    }
+}
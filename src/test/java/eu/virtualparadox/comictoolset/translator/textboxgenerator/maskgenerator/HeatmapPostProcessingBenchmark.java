@@ -0,0 +1,101 @@
+package eu.virtualparadox.comictoolset.translator.textboxgenerator.maskgenerator;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares extracting text boxes from the upscaled heatmap (bilinear resize to page size, then labeling)
+ * with labeling the heatmap at model resolution and mapping the boxes with sub-pixel refinement.
+ * <p>
+ * Run manually:
+ * {@code java ... eu.virtualparadox.comictoolset.translator.textboxgenerator.maskgenerator.HeatmapPostProcessingBenchmark [pageWidth] [pageHeight]}
+ * </p>
+ */
+public class HeatmapPostProcessingBenchmark {
+
+    private static final float THRESHOLD = 0.01f;
+    private static final int WARMUP_RUNS = 5;
+    private static final int RUNS = 10;
+
+    public static void main(final String[] args) {
+        final int pageWidth = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        final int pageHeight = args.length > 1 ? Integer.parseInt(args[1]) : 3000;
+
+        // the heatmap of the padded page, and of a page downscaled to half its size before inference
+        for (final int divisor : new int[]{1, 2}) {
+            final int width = ((pageWidth / divisor + 31) / 32) * 32;
+            final int height = ((pageHeight / divisor + 31) / 32) * 32;
+            final float[] heatmap = createHeatmap(width, height);
+            final ConnectedComponentLabeler labeler = new ConnectedComponentLabeler();
+
+            final double upscaled = measure(() -> {
+                final float[] full = upscale(heatmap, width, height, pageWidth, pageHeight);
+                labeler.label(full, pageWidth, pageHeight, THRESHOLD);
+            });
+            final double modelResolution = measure(() -> {
+                final HeatmapBoxMapper mapper = new HeatmapBoxMapper(heatmap, width, height, THRESHOLD, pageWidth, pageHeight, true);
+                final List<ConnectedComponentLabeler.Component> components = labeler.label(heatmap, width, height, THRESHOLD);
+                components.forEach(mapper::map);
+            });
+            System.out.printf("heatmap %dx%d -> page %dx%d: upscaled %6.1f ms (%d MB), model resolution %5.1f ms (no extra array), speedup %4.1fx%n",
+                    width, height, pageWidth, pageHeight, upscaled, pageWidth * pageHeight * Float.BYTES / (1024 * 1024),
+                    modelResolution, upscaled / modelResolution);
+        }
+    }
+
+    private static double measure(final Runnable postProcessing) {
+        for (int run = 0; run < WARMUP_RUNS; run++) {
+            postProcessing.run();
+        }
+        long bestNanos = Long.MAX_VALUE;
+        for (int run = 0; run < RUNS; run++) {
+            final long start = System.nanoTime();
+            postProcessing.run();
+            bestNanos = Math.min(bestNanos, System.nanoTime() - start);
+        }
+        return bestNanos / 1e6;
+    }
+
+    /**
+     * Lines of word-sized blobs with soft edges.
+     */
+    private static float[] createHeatmap(final int width, final int height) {
+        final float[] heatmap = new float[width * height];
+        final Random random = new Random(42);
+        final int lineHeight = Math.max(6, height / 60);
+        for (int lineY = lineHeight; lineY + lineHeight < height; lineY += lineHeight * 2) {
+            int x = lineHeight + random.nextInt(lineHeight * 2);
+            while (x + lineHeight < width) {
+                final int wordWidth = lineHeight + random.nextInt(lineHeight * 6);
+                for (int y = lineY; y < lineY + lineHeight; y++) {
+                    for (int wx = x; wx < Math.min(width, x + wordWidth); wx++) {
+                        final float edge = Math.min(Math.min(wx - x, x + wordWidth - wx), Math.min(y - lineY, lineY + lineHeight - y));
+                        heatmap[y * width + wx] = Math.min(1f, 0.2f + edge / 4f);
+                    }
+                }
+                x += wordWidth + lineHeight / 2 + random.nextInt(lineHeight);
+            }
+        }
+        return heatmap;
+    }
+
+    /**
+     * The bilinear resize the mask generator did before labeling.
+     */
+    private static float[] upscale(final float[] src, final int srcW, final int srcH, final int targetW, final int targetH) {
+        final float[] dst = new float[targetW * targetH];
+        for (int y = 0; y < targetH; y++) {
+            for (int x = 0; x < targetW; x++) {
+                final float srcX = x * (srcW - 1f) / (targetW - 1f);
+                final float srcY = y * (srcH - 1f) / (targetH - 1f);
+                final int x0 = (int) Math.floor(srcX), x1 = Math.min(x0 + 1, srcW - 1);
+                final int y0 = (int) Math.floor(srcY), y1 = Math.min(y0 + 1, srcH - 1);
+                final float dx = srcX - x0, dy = srcY - y0;
+                final float top = src[y0 * srcW + x0] * (1 - dx) + src[y0 * srcW + x1] * dx;
+                final float bottom = src[y1 * srcW + x0] * (1 - dx) + src[y1 * srcW + x1] * dx;
+                dst[y * targetW + x] = top * (1 - dy) + bottom * dy;
+            }
+        }
+        return dst;
+    }
+}
@@ -0,0 +1,62 @@
+package eu.virtualparadox.comictoolset.translator.textboxgenerator.maskgenerator;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TileBoxMergerTest {
+
+    @Test
+    void testPiecesCutBySeamAreMerged() {
+        // tile 0 covers x 0..99, tile 1 covers x 80..179; the line crosses the seam at x 99
+        final List<TextMaskRegion> merged = TileBoxMerger.merge(List.of(
+                new TileBoxMerger.TileBox(0, 60, 10, 99, 20, 400, 200, true),
+                new TileBoxMerger.TileBox(1, 80, 10, 130, 20, 510, 459, true)));
+
+        assertEquals(List.of(new TextMaskRegion(60, 10, 130, 20, (float) (659.0 / 910))), merged);
+    }
+
+    @Test
+    void testRegionSeenByBothTilesIsKeptOnce() {
+        final List<TextMaskRegion> merged = TileBoxMerger.merge(List.of(
+                new TileBoxMerger.TileBox(0, 84, 10, 95, 20, 100, 80, false),
+                new TileBoxMerger.TileBox(1, 84, 10, 96, 20, 100, 90, false)));
+
+        assertEquals(1, merged.size());
+        assertEquals(new TextMaskRegion(84, 10, 96, 20, 0.85f), merged.get(0));
+    }
+
+    @Test
+    void testSlightlyOverlappingWholeRegionsOfDifferentTilesStaySeparate() {
+        final List<TextMaskRegion> merged = TileBoxMerger.merge(List.of(
+                new TileBoxMerger.TileBox(0, 40, 10, 90, 20, 100, 50, false),
+                new TileBoxMerger.TileBox(1, 88, 18, 140, 30, 100, 50, false)));
+
+        assertEquals(2, merged.size());
+    }
+
+    @Test
+    void testBoxesOfTheSameTileAreNotMerged() {
+        final List<TextMaskRegion> merged = TileBoxMerger.merge(List.of(
+                new TileBoxMerger.TileBox(0, 10, 10, 50, 20, 100, 50, true),
+                new TileBoxMerger.TileBox(0, 10, 10, 50, 20, 100, 50, true)));
+
+        assertEquals(2, merged.size());
+    }
+
+    @Test
+    void testChainAcrossFourTilesIsOneRegionInOrderOfTheFirstPiece() {
+        final List<TextMaskRegion> merged = TileBoxMerger.merge(List.of(
+                new TileBoxMerger.TileBox(0, 5, 5, 8, 8, 4, 4, false),
+                new TileBoxMerger.TileBox(0, 90, 90, 99, 99, 10, 10, true),
+                new TileBoxMerger.TileBox(1, 80, 90, 110, 99, 10, 10, true),
+                new TileBoxMerger.TileBox(2, 90, 80, 99, 120, 10, 10, true),
+                new TileBoxMerger.TileBox(3, 80, 80, 105, 105, 10, 10, true)));
+
+        assertEquals(List.of(
+                new TextMaskRegion(5, 5, 8, 8, 1f),
+                new TextMaskRegion(80, 80, 110, 120, 1f)), merged);
+    }
+}
@@ -0,0 +1,52 @@
+package eu.virtualparadox.comictoolset.translator.textboxgenerator.recognizer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OcrBatchPlannerTest {
+
+    @Test
+    void testLinesOfSimilarWidthShareBatch() {
+        final int[] widths = {300, 60, 290, 50, 120};
+
+        final List<OcrBatchPlanner.Batch> batches = OcrBatchPlanner.plan(widths, 16, 64);
+
+        assertEquals(3, batches.size());
+        assertEquals(List.of(3, 1), batches.get(0).indices());
+        assertEquals(60, batches.get(0).width());
+        assertEquals(List.of(4), batches.get(1).indices());
+        assertEquals(List.of(2, 0), batches.get(2).indices());
+        assertEquals(300, batches.get(2).width());
+    }
+
+    @Test
+    void testBatchSizeIsRespectedAndEveryLineIsPlannedOnce() {
+        final int[] widths = new int[37];
+        for (int i = 0; i < widths.length; i++) {
+            widths[i] = 100 + (i % 7);
+        }
+
+        final List<OcrBatchPlanner.Batch> batches = OcrBatchPlanner.plan(widths, 8, 64);
+
+        final List<Integer> planned = new ArrayList<>();
+        for (final OcrBatchPlanner.Batch batch : batches) {
+            assertTrue(batch.indices().size() <= 8);
+            for (final int index : batch.indices()) {
+                assertTrue(widths[index] <= batch.width());
+            }
+            planned.addAll(batch.indices());
+        }
+        assertEquals(widths.length, planned.size());
+        assertEquals(widths.length, planned.stream().distinct().count());
+        assertEquals(5, batches.size());
+    }
+
+    @Test
+    void testNoLinesGiveNoBatches() {
+        assertTrue(OcrBatchPlanner.plan(new int[0], 16, 64).isEmpty());
+    }
+}
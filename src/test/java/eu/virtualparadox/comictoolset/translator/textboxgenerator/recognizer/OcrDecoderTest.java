@@ -0,0 +1,34 @@
+package eu.virtualparadox.comictoolset.translator.textboxgenerator.recognizer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OcrDecoderTest {
+
+    private static final List<String> LABELS = List.of("", "H", "I", "X");
+
+    @Test
+    void testRepeatedAndBlankStepsAreCollapsed() {
+        final float[][] logits = {step(1), step(1), step(0), step(2), step(2)};
+
+        assertEquals("HI", OcrDecoder.ctcDecode(logits, LABELS));
+    }
+
+    @Test
+    void testStepsBeyondTheRealWidthAreIgnored() {
+        // the last two steps only see the padding of a batched line
+        final float[][] logits = {step(1), step(2), step(3), step(3)};
+
+        assertEquals("HI", OcrDecoder.ctcDecode(logits, 2, LABELS));
+        assertEquals("HIX", OcrDecoder.ctcDecode(logits, 10, LABELS));
+    }
+
+    private static float[] step(final int label) {
+        final float[] step = new float[LABELS.size()];
+        step[label] = 1f;
+        return step;
+    }
+}
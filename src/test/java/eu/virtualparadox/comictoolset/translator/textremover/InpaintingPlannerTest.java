@@ -0,0 +1,97 @@
+package eu.virtualparadox.comictoolset.translator.textremover;
+
+import eu.virtualparadox.comictoolset.translator.textboxgenerator.maskgenerator.TextMaskRegion;
+import org.junit.jupiter.api.Test;
+
+import java.awt.Rectangle;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InpaintingPlannerTest {
+
+    private static final int TILE = 512;
+    private static final int PADDING = 32;
+
+    @Test
+    void testPageWithoutTextNeedsNoWindow() {
+        assertTrue(InpaintingPlanner.plan(List.of(), 2000, 3000, TILE, PADDING).isEmpty());
+    }
+
+    @Test
+    void testSmallRegionGetsOneCenteredTileSizedWindow() {
+        final List<InpaintingPlanner.Window> windows = InpaintingPlanner.plan(
+                List.of(region(1000, 1500, 1100, 1540)), 2000, 3000, TILE, PADDING);
+
+        assertEquals(1, windows.size());
+        assertEquals(new Rectangle(794, 1264, TILE, TILE), windows.get(0).bounds());
+        assertEquals(List.of(new Rectangle(1000, 1500, 100, 40)), windows.get(0).targets());
+    }
+
+    @Test
+    void testWindowIsShiftedIntoThePage() {
+        final List<InpaintingPlanner.Window> windows = InpaintingPlanner.plan(
+                List.of(region(-15, 2980, 60, 3010)), 2000, 3000, TILE, PADDING);
+
+        assertEquals(new Rectangle(0, 3000 - TILE, TILE, TILE), windows.get(0).bounds());
+        assertEquals(List.of(new Rectangle(0, 2980, 60, 20)), windows.get(0).targets());
+    }
+
+    @Test
+    void testNearbyRegionsShareAWindowAndDistantOnesDoNot() {
+        final List<InpaintingPlanner.Window> windows = InpaintingPlanner.plan(List.of(
+                region(100, 100, 300, 130),
+                region(1500, 2500, 1600, 2530),
+                region(100, 150, 280, 180)), 2000, 3000, TILE, PADDING);
+
+        assertEquals(2, windows.size());
+        assertEquals(2, windows.get(0).targets().size());
+        assertNotEquals(windows.get(0).cluster(), windows.get(1).cluster());
+        assertEquals(List.of(new Rectangle(1500, 2500, 100, 30)), windows.get(1).targets());
+    }
+
+    @Test
+    void testLargeClusterIsCoveredByTilesContainingItsRegions() {
+        final List<TextMaskRegion> regions = List.of(
+                region(100, 100, 1300, 140),
+                region(100, 1000, 140, 1040));
+        final List<InpaintingPlanner.Window> windows = InpaintingPlanner.plan(regions, 2000, 3000, TILE, PADDING);
+
+        assertTrue(windows.size() > 1);
+        // the windows of a cluster are consecutive, so their outputs can be blended
+        for (int i = 1; i < windows.size(); i++) {
+            assertTrue(windows.get(i).cluster() >= windows.get(i - 1).cluster());
+        }
+        assertTrue(windows.stream().filter(w -> w.cluster() == 0).count() > 1);
+        for (final InpaintingPlanner.Window window : windows) {
+            // no partial tiles on a page larger than the tile
+            assertEquals(TILE, window.bounds().width);
+            assertEquals(TILE, window.bounds().height);
+            window.targets().forEach(target -> assertTrue(window.bounds().contains(target)));
+        }
+        // every masked pixel is taken from some window, and no unmasked pixel is
+        for (final TextMaskRegion region : regions) {
+            for (int y = region.y1; y < region.y2; y += 7) {
+                for (int x = region.x1; x < region.x2; x += 7) {
+                    final int px = x;
+                    final int py = y;
+                    assertTrue(windows.stream().anyMatch(w -> w.targets().stream().anyMatch(t -> t.contains(px, py))),
+                            "Pixel " + x + "," + y + " is not inpainted");
+                }
+            }
+        }
+        assertTrue(windows.stream().noneMatch(w -> w.targets().stream().anyMatch(t -> t.contains(500, 500))));
+    }
+
+    @Test
+    void testPageSmallerThanTheTileIsOneWindow() {
+        final List<InpaintingPlanner.Window> windows = InpaintingPlanner.plan(
+                List.of(region(10, 10, 50, 30)), 300, 200, TILE, PADDING);
+
+        assertEquals(List.of(new Rectangle(0, 0, 300, 200)), windows.stream().map(InpaintingPlanner.Window::bounds).toList());
+    }
+
+    private static TextMaskRegion region(final int x1, final int y1, final int x2, final int y2) {
+        return new TextMaskRegion(x1, y1, x2, y2, 1f);
+    }
+}
@@ -0,0 +1,77 @@
+package eu.virtualparadox.comictoolset.translator.textremover;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.Rectangle;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TileBlenderTest {
+
+    private static final Rectangle PAGE = new Rectangle(0, 0, 30, 10);
+    private static final int FEATHER = 4;
+
+    @Test
+    void testSingleContributionIsCopiedUnchanged() {
+        final Rectangle bounds = new Rectangle(0, 0, 20, 10);
+        final int[] output = filled(20 * 10, 0x123456);
+        final int[] page = filled(30 * 10, 0);
+
+        final TileBlender blender = new TileBlender(new Rectangle(2, 3, 10, 4), PAGE, FEATHER);
+        blender.add(bounds, List.of(new Rectangle(2, 3, 10, 4)), output, 20);
+        blender.writeTo(page, 30);
+
+        assertEquals(0x123456, page[3 * 30 + 2]);
+        assertEquals(0x123456, page[6 * 30 + 11]);
+        assertEquals(0, page[2 * 30 + 2], "Pixels outside the targets are untouched");
+        assertEquals(0, page[3 * 30 + 12]);
+    }
+
+    @Test
+    void testOverlapFadesFromOneWindowToTheOther() {
+        final Rectangle left = new Rectangle(0, 0, 20, 10);
+        final Rectangle right = new Rectangle(10, 0, 20, 10);
+        final Rectangle target = new Rectangle(0, 5, 30, 1);
+        final int[] page = filled(30 * 10, 0);
+
+        final TileBlender blender = new TileBlender(target, PAGE, FEATHER);
+        blender.add(left, List.of(target.intersection(left)), filled(20 * 10, 0x000000), 20);
+        blender.add(right, List.of(target.intersection(right)), filled(20 * 10, 0x0000C8), 20);
+        blender.writeTo(page, 30);
+
+        final int[] blue = new int[30];
+        for (int x = 0; x < 30; x++) {
+            blue[x] = page[5 * 30 + x] & 0xFF;
+        }
+        // page border edges do not fade, so each window alone keeps its own output
+        assertEquals(0, blue[0]);
+        assertEquals(0, blue[9]);
+        assertEquals(200, blue[20]);
+        assertEquals(200, blue[29]);
+        // inside the overlap the right window takes over gradually
+        for (int x = 10; x < 20; x++) {
+            assertTrue(blue[x] >= blue[x - 1], "Not monotonic at " + x);
+        }
+        assertTrue(blue[10] > 0 && blue[10] < 100);
+        assertTrue(blue[19] > 100 && blue[19] < 200);
+        assertEquals(100, blue[14] + blue[15] >> 1, 1);
+    }
+
+    @Test
+    void testReflectMirrorsWithoutRepeatingTheEdge() {
+        final int[] mirrored = new int[10];
+        for (int i = 0; i < mirrored.length; i++) {
+            mirrored[i] = OnnxTextRemover.reflect(i, 4);
+        }
+        assertArrayEquals(new int[]{0, 1, 2, 3, 2, 1, 0, 1, 2, 3}, mirrored);
+        assertEquals(0, OnnxTextRemover.reflect(511, 1));
+    }
+
+    private static int[] filled(final int size, final int rgb) {
+        final int[] pixels = new int[size];
+        Arrays.fill(pixels, rgb);
+        return pixels;
+    }
+}
@@ -0,0 +1,154 @@
+package eu.virtualparadox.comictoolset.translator.translator;
+
+import eu.virtualparadox.comictoolset.translator.bubblecollector.BubbleCollector;
+import eu.virtualparadox.comictoolset.translator.bubblecollector.DetectedBubbleBox;
+import eu.virtualparadox.comictoolset.translator.page.PageContext;
+import eu.virtualparadox.comictoolset.translator.textboxgenerator.assigner.RecognizedTextWithMask;
+import eu.virtualparadox.comictoolset.translator.textboxgenerator.maskgenerator.TextMaskRegion;
+import eu.virtualparadox.comictoolset.translator.textboxgenerator.recognizer.TextRecognizer;
+import eu.virtualparadox.comictoolset.translator.textremover.TextRemover;
+import eu.virtualparadox.comictoolset.translator.textwriter.TextWriter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TranslationPipelineTest {
+
+    private static final int PAGE_COUNT = 12;
+
+    /** Pages detected but not yet started by the recognize stage, sampled whenever it starts a page */
+    private final AtomicInteger waitingForRecognize = new AtomicInteger();
+    private final AtomicInteger maxWaitingForRecognize = new AtomicInteger();
+    private final Map<Path, AtomicInteger> encodeCounts = new ConcurrentHashMap<>();
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testEverySucceedingPageIsEncodedExactlyOnce() throws IOException {
+        final List<PageJob> jobs = createJobs();
+
+        final PipelineReport report = pipeline(-1, 0, options(3, 2)).run(jobs);
+
+        assertEquals(PAGE_COUNT, report.pages());
+        assertEquals(0, report.failed());
+        for (final PageJob job : jobs) {
+            assertEquals(1, encodeCounts.get(job.getOutputPath()).get(), "Page " + job.getIndex() + " must be encoded once");
+        }
+    }
+
+    @Test
+    void testFailingPageIsDroppedWhileTheOthersFinish() throws IOException {
+        final List<PageJob> jobs = createJobs();
+
+        final PipelineReport report = pipeline(5, 0, options(2, 2)).run(jobs);
+
+        assertEquals(PAGE_COUNT - 1, report.pages());
+        assertEquals(1, report.failed());
+        assertNull(encodeCounts.get(jobs.get(5).getOutputPath()), "A failed page must not be encoded");
+        for (final PageJob job : jobs) {
+            if (job.getIndex() != 5) {
+                assertEquals(1, encodeCounts.get(job.getOutputPath()).get());
+            }
+        }
+    }
+
+    @Test
+    void testSlowStageHoldsAtMostQueueCapacityPages() throws IOException {
+        final int queueCapacity = 2;
+
+        final PipelineReport report = pipeline(-1, 20, options(1, queueCapacity)).run(createJobs());
+
+        assertEquals(PAGE_COUNT, report.pages());
+        assertTrue(maxWaitingForRecognize.get() >= queueCapacity, "The queue in front of the slow stage should fill up");
+        // besides the queue, the single detect worker may hold one detected page it cannot hand off yet
+        assertTrue(maxWaitingForRecognize.get() <= queueCapacity + 1,
+                "At most " + queueCapacity + " queued pages may wait for the slow stage, was: " + maxWaitingForRecognize.get());
+    }
+
+    private static PipelineOptions options(final int parallelism, final int queueCapacity) {
+        return PipelineOptions.PipelineOptionsBuilder.builder().parallelism(parallelism).queueCapacity(queueCapacity).build();
+    }
+
+    /**
+     * Builds a pipeline on fake stages.
+     *
+     * @param failingPage     index of the page whose bubble detection throws, or -1
+     * @param recognizeMillis how long the recognize stage takes per page
+     */
+    private TranslationPipeline pipeline(final int failingPage, final long recognizeMillis, final PipelineOptions options) {
+        final BubbleCollector bubbleCollector = new BubbleCollector() {
+            @Override
+            public List<DetectedBubbleBox> extractBubbleBoxes(final PageContext page) {
+                if (page.getSourcePath().getFileName().toString().equals(pageName(failingPage))) {
+                    throw new IllegalStateException("Detection failed");
+                }
+                waitingForRecognize.incrementAndGet();
+                return List.of();
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+
+        final TextRecognizer textRecognizer = new TextRecognizer() {
+            @Override
+            public List<RecognizedTextWithMask> recognize(final PageContext page, final List<DetectedBubbleBox> bubbleBoxes) throws Exception {
+                maxWaitingForRecognize.accumulateAndGet(waitingForRecognize.decrementAndGet(), Math::max);
+                Thread.sleep(recognizeMillis);
+                return List.of();
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+
+        final TextRemover textRemover = new TextRemover() {
+            @Override
+            public BufferedImage removeText(final PageContext page, final List<TextMaskRegion> maskBoxes) {
+                return page.getImage();
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+
+        final TextWriter textWriter = new TextWriter() {
+            @Override
+            public Path writeImage(final BufferedImage image, final Path outputPath) {
+                encodeCounts.computeIfAbsent(outputPath, p -> new AtomicInteger()).incrementAndGet();
+                return outputPath;
+            }
+        };
+
+        return new TranslationPipeline(new TranslationEngine(bubbleCollector, textRecognizer, textRemover, textWriter), options);
+    }
+
+    private List<PageJob> createJobs() throws IOException {
+        final List<PageJob> jobs = new ArrayList<>();
+        for (int index = 0; index < PAGE_COUNT; index++) {
+            final Path source = tempDir.resolve(pageName(index));
+            ImageIO.write(new BufferedImage(8, 8, BufferedImage.TYPE_INT_RGB), "png", source.toFile());
+            jobs.add(new PageJob(index, source, tempDir.resolve("out-" + pageName(index))));
+        }
+        return jobs;
+    }
+
+    private static String pageName(final int index) {
+        return String.format("%04d.png", index);
+    }
+}